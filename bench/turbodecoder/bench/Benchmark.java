@@ -0,0 +1,80 @@
+package turbodecoder.bench;
+
+/**
+ * Benchmark run by BenchmarkRunner. One operation processes a whole input
+ * and reports the amount of work done
+ */
+public abstract class Benchmark {
+
+    /*Sink for results, keeps the JIT from eliminating the measured code*/
+    private static volatile long sink;
+
+    private final String name;
+
+    /*Work done since the last reset*/
+    long samples;
+    long bytes;
+
+    /**
+     *
+     * @param name Name of the benchmark
+     */
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prepare the benchmark. Not measured
+     *
+     * @throws Exception
+     */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Run one operation
+     *
+     * @throws Exception
+     */
+    public abstract void run() throws Exception;
+
+    /**
+     * Release resources. Not measured
+     *
+     * @throws Exception
+     */
+    public void tearDown() throws Exception {
+    }
+
+    /**
+     * Report samples processed by the operation
+     *
+     * @param n Number of samples
+     */
+    protected void addSamples(long n) {
+        samples += n;
+    }
+
+    /**
+     * Report bytes decoded by the operation
+     *
+     * @param n Number of bytes
+     */
+    protected void addBytes(long n) {
+        bytes += n;
+    }
+
+    /**
+     * Consume result of the operation
+     *
+     * @param v Any value computed by the operation
+     */
+    protected static void consume(long v) {
+        sink += v;
+    }
+
+}
@@ -0,0 +1,162 @@
+package turbodecoder.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+import turbodecoder.decoder.BlockBenchmarks;
+import turbodecoder.decoder.pulse.PulseBenchmarks;
+
+/**
+ * Runs decoder benchmarks and prints throughput. Every benchmark is warmed
+ * up, then each measurement iteration repeats the operation for a fixed time.
+ *
+ * Usage: BenchmarkRunner [-wi n] [-i n] [-r ms] [regex]
+ */
+public class BenchmarkRunner {
+
+    private static final int[] SAMPLE_RATES = {44_100, 96_000, 192_000};
+    private static final int[] BITS = {8, 16};
+    private static final int[] CHANNELS = {1, 2};
+
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationTime = 1_000L;
+    private Pattern filter = null;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parseArguments(args);
+        runner.runAll();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi": {
+                    warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                }
+                case "-i": {
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                }
+                case "-r": {
+                    iterationTime = Long.parseLong(args[++i]);
+                    break;
+                }
+                default: {
+                    filter = Pattern.compile(args[i]);
+                }
+            }
+        }
+    }
+
+    private void runAll() throws Exception {
+
+        File workDir = Files.createTempDirectory("turbodecoder-bench").toFile();
+
+        try {
+            System.out.println(String.format("%-60s %5s %16s    %12s  %s", "Benchmark", "Cnt", "Score", "Error", "Units"));
+
+            /*DSPs do not depend on the WAVE format*/
+            for (Benchmark b : DspBenchmarks.create()) {
+                measure(b);
+            }
+
+            /*Every WAVE format has its own tapes*/
+            for (int rate : SAMPLE_RATES) {
+                for (int bits : BITS) {
+                    for (int channels : CHANNELS) {
+                        String format = String.format("%d/%d/%s", rate, bits, channels == 1 ? "mono" : "stereo");
+                        ArrayList<Benchmark> list = new ArrayList<>();
+                        list.addAll(PulseBenchmarks.create(workDir, format, rate, bits, channels));
+                        list.addAll(BlockBenchmarks.create(workDir, format, rate, bits, channels));
+                        for (Benchmark b : list) {
+                            measure(b);
+                        }
+                    }
+                }
+            }
+        } finally {
+            File[] files = workDir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            workDir.delete();
+        }
+    }
+
+    private void measure(Benchmark b) throws Exception {
+
+        if (filter != null && filter.matcher(b.getName()).find() == false) {
+            return;
+        }
+
+        b.setUp();
+
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(b);
+            }
+
+            double[] samplesPerSecond = new double[iterations];
+            double[] bytesPerSecond = new double[iterations];
+            for (int i = 0; i < iterations; i++) {
+                double seconds = iteration(b);
+                samplesPerSecond[i] = b.samples / seconds;
+                bytesPerSecond[i] = b.bytes / seconds;
+            }
+
+            report(b.getName(), samplesPerSecond, "samples/s");
+            if (b.bytes > 0) {
+                report(b.getName(), bytesPerSecond, "bytes/s");
+            }
+        } finally {
+            b.tearDown();
+        }
+    }
+
+    /**
+     * Repeat the operation for the iteration time
+     *
+     * @return Time elapsed in seconds
+     */
+    private double iteration(Benchmark b) throws Exception {
+
+        b.samples = 0L;
+        b.bytes = 0L;
+
+        long start = System.nanoTime();
+        long deadline = start + iterationTime * 1_000_000L;
+        long now;
+
+        do {
+            b.run();
+            now = System.nanoTime();
+        } while (now < deadline);
+
+        return (now - start) / 1e9;
+    }
+
+    private static void report(String name, double[] scores, String units) {
+
+        double mean = 0.0;
+        for (double s : scores) {
+            mean += s;
+        }
+        mean /= scores.length;
+
+        /*Standard deviation of the iterations*/
+        double var = 0.0;
+        for (double s : scores) {
+            var += (s - mean) * (s - mean);
+        }
+        double sd = scores.length > 1 ? Math.sqrt(var / (scores.length - 1)) : 0.0;
+
+        System.out.println(String.format("%-60s %5d %16.0f +- %12.0f  %s", name, scores.length, mean, sd, units));
+    }
+
+}
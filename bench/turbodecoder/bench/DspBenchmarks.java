@@ -0,0 +1,150 @@
+package turbodecoder.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import turbodecoder.decoder.dsp.AdaptiveThreshold;
+import turbodecoder.decoder.dsp.AutomaticGain;
+import turbodecoder.decoder.dsp.BiquadFilter;
+import turbodecoder.decoder.dsp.DCBlocker;
+import turbodecoder.decoder.dsp.MovingAverage;
+import turbodecoder.decoder.dsp.SampleFilter;
+import turbodecoder.decoder.dsp.Schmitt;
+
+/**
+ * Benchmarks of the DSPs applied to every sample
+ */
+public class DspBenchmarks {
+
+    private static final int LENGTH = 1 << 20;
+    private static final int BLOCK = 16_384;
+    private static final int SAMPLE_RATE = 44_100;
+
+    private DspBenchmarks() {
+    }
+
+    /**
+     * Create DSP benchmarks
+     *
+     * @return Benchmarks
+     */
+    public static List<Benchmark> create() {
+
+        /*Square wave with noise and DC offset, 16-bit range*/
+        final int[] input = new int[LENGTH];
+        Random rnd = new Random(1L);
+        for (int i = 0; i < LENGTH; i++) {
+            input[i] = ((i / 15) % 2 == 0 ? 18_000 : -18_000) + 1_500 + rnd.nextInt(2_001) - 1_000;
+        }
+
+        List<Benchmark> list = new ArrayList<>();
+
+        list.add(new Benchmark("DCBlocker.getOutputValue") {
+            private final DCBlocker dcBlocker = new DCBlocker(0.995);
+
+            @Override
+            public void run() {
+                long sum = 0L;
+                for (int i = 0; i < input.length; i++) {
+                    sum += dcBlocker.getOutputValue(input[i]);
+                }
+                consume(sum);
+                addSamples(input.length);
+            }
+        });
+
+        list.add(new Benchmark("DCBlocker.process") {
+            private final DCBlocker dcBlocker = new DCBlocker(0.995);
+            private final int[] block = new int[16_384];
+
+            @Override
+            public void run() {
+                long sum = 0L;
+                for (int i = 0; i < input.length; i += block.length) {
+                    System.arraycopy(input, i, block, 0, block.length);
+                    dcBlocker.process(block, 0, block.length);
+                    sum += block[block.length - 1];
+                }
+                consume(sum);
+                addSamples(input.length);
+            }
+        });
+
+        list.add(new Benchmark("Schmitt.getOutput") {
+            private final Schmitt schmitt = new Schmitt();
+
+            @Override
+            public void setUp() {
+                schmitt.init(1_000, 0);
+            }
+
+            @Override
+            public void run() {
+                long count = 0L;
+                for (int i = 0; i < input.length; i++) {
+                    if (schmitt.getOutput(input[i])) {
+                        count++;
+                    }
+                }
+                consume(count);
+                addSamples(input.length);
+            }
+        });
+
+        list.add(new Benchmark("Schmitt.getOutput.adaptive") {
+            private final Schmitt schmitt = new Schmitt();
+
+            @Override
+            public void setUp() {
+                schmitt.initAdaptive(16_383, 0, SAMPLE_RATE);
+            }
+
+            @Override
+            public void run() {
+                long count = 0L;
+                for (int i = 0; i < input.length; i++) {
+                    if (schmitt.getOutput(input[i])) {
+                        count++;
+                    }
+                }
+                consume(count);
+                addSamples(input.length);
+            }
+        });
+
+        list.add(filter("BiquadFilter.lowPass", new BiquadFilter(BiquadFilter.LOW_PASS, 3_000, 0.707), input));
+        list.add(filter("BiquadFilter.bandPass", new BiquadFilter(BiquadFilter.BAND_PASS, 3_000, 0.707), input));
+        list.add(filter("MovingAverage.process", new MovingAverage(4), input));
+        list.add(filter("AutomaticGain.process", new AutomaticGain(), input));
+        list.add(filter("AdaptiveThreshold.process", new AdaptiveThreshold(), input));
+
+        return list;
+    }
+
+    /**
+     * Create benchmark of a filter processing blocks of samples
+     */
+    private static Benchmark filter(String name, final SampleFilter filter, final int[] input) {
+        return new Benchmark(name) {
+            private final int[] block = new int[BLOCK];
+
+            @Override
+            public void setUp() {
+                filter.init(SAMPLE_RATE, 16);
+            }
+
+            @Override
+            public void run() {
+                long sum = 0L;
+                for (int i = 0; i < input.length; i += block.length) {
+                    System.arraycopy(input, i, block, 0, block.length);
+                    filter.process(block, 0, block.length);
+                    sum += block[block.length - 1];
+                }
+                consume(sum);
+                addSamples(input.length);
+            }
+        };
+    }
+
+}
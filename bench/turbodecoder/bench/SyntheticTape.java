@@ -0,0 +1,48 @@
+package turbodecoder.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import turbodecoder.decoder.TapeGenerator;
+
+/**
+ * Writes WAVE files of benchmarks with files of random data
+ */
+public class SyntheticTape {
+
+    private SyntheticTape() {
+    }
+
+    /**
+     * Write a WAVE file
+     *
+     * @param file File to write
+     * @param system Brief name of turbo system, e.g. t2000
+     * @param rate Sample rate
+     * @param bits 8 or 16 bits per sample
+     * @param channels 1 or 2 channels
+     * @param files Number of files
+     * @param fileSize Bytes per file
+     * @param seed Seed of the random data
+     * @return The file written
+     * @throws IOException
+     */
+    public static File write(File file, String system, int rate, int bits, int channels, int files, int fileSize, long seed) throws IOException {
+
+        Random rnd = new Random(seed);
+
+        try (TapeGenerator tg = new TapeGenerator(TapeGenerator.getTurboType(system), rate, bits, channels, seed)) {
+            tg.setFileGap(0.2);
+            tg.open(file);
+            for (int i = 0; i < files; i++) {
+                byte[] data = new byte[fileSize];
+                rnd.nextBytes(data);
+                tg.addFile(String.format("BENCH%d", i), data);
+            }
+            tg.silence(0.2);
+        }
+
+        return file;
+    }
+
+}
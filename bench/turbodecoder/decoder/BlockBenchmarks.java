@@ -0,0 +1,162 @@
+package turbodecoder.decoder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import turbodecoder.bench.Benchmark;
+import turbodecoder.bench.SyntheticTape;
+import turbodecoder.decoder.pulse.PulseDecoder;
+import turbodecoder.decoder.pulse.WavePulseDecoder;
+
+/**
+ * Benchmarks of complete block decoding
+ */
+public class BlockBenchmarks {
+
+    private static final int BLOCKS = 4;
+    private static final int BLOCK_SIZE = 1_024;
+
+    /*File data without the first byte and the checksum of the data block*/
+    private static final int FILE_SIZE = BLOCK_SIZE - 2;
+
+    private BlockBenchmarks() {
+    }
+
+    /**
+     * Create block decoder benchmarks for one WAVE format
+     *
+     * @param workDir Directory for the WAVE files
+     * @param format Description of the format
+     * @param rate Sample rate
+     * @param bits Bits per sample
+     * @param channels Number of channels
+     * @return Benchmarks
+     */
+    public static List<Benchmark> create(File workDir, String format, int rate, int bits, int channels) {
+
+        List<Benchmark> list = new ArrayList<>();
+
+        list.add(new BlockBenchmark("Turbo2000BlockDecoder.decodeBlock " + format,
+                new File(workDir, String.format("t2000_%d_%d_%d.wav", rate, bits, channels)),
+                "t2000", 19, rate, bits, channels) {
+            @Override
+            BlockDecoder createBlockDecoder(PulseDecoder pd, DecoderConfig config) {
+                return new Turbo2000BlockDecoder(pd, config, 256);
+            }
+        });
+
+        list.add(new BlockBenchmark("SuperTurboBlockDecoder.decodeBlock " + format,
+                new File(workDir, String.format("st_%d_%d_%d.wav", rate, bits, channels)),
+                "st", 29, rate, bits, channels) {
+            @Override
+            BlockDecoder createBlockDecoder(PulseDecoder pd, DecoderConfig config) {
+                return new SuperTurboBlockDecoder(pd, config, 256);
+            }
+        });
+
+        return list;
+    }
+
+    /**
+     * Benchmark that decodes headers and data blocks of all files of a
+     * synthetic tape
+     */
+    private abstract static class BlockBenchmark extends Benchmark {
+
+        private final File wave;
+        private final String system;
+        private final int headerSize;
+        private final int rate;
+        private final int bits;
+        private final int channels;
+        private WavePulseDecoder decoder;
+        private BlockDecoder blockDecoder;
+
+        BlockBenchmark(String name, File wave, String system, int headerSize, int rate, int bits, int channels) {
+            super(name);
+            this.wave = wave;
+            this.system = system;
+            this.headerSize = headerSize;
+            this.rate = rate;
+            this.bits = bits;
+            this.channels = channels;
+        }
+
+        abstract BlockDecoder createBlockDecoder(PulseDecoder pd, DecoderConfig config);
+
+        @Override
+        public void setUp() throws Exception {
+
+            if (!wave.exists()) {
+                SyntheticTape.write(wave, system, rate, bits, channels, BLOCKS, FILE_SIZE, 1L);
+            }
+
+            DecoderConfig config = new DecoderConfig();
+            config.genVerboseMessages = false;
+
+            decoder = new WavePulseDecoder();
+            decoder.init(wave.getPath(), 0, PulseDecoder.CHANNEL_MONO, 0, bits == 16, 0, new DecoderLog() {
+                @Override
+                public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+                }
+
+                @Override
+                public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+                }
+
+                @Override
+                public void clearAllMessages(boolean fromExternalThread) {
+                }
+
+                @Override
+                public void impulse(boolean fromExternalThread) {
+                }
+            });
+            blockDecoder = createBlockDecoder(decoder, config);
+
+            /*All data blocks must be decoded, otherwise the benchmark measures something else*/
+            if (decodeAll() != BLOCKS) {
+                throw new IllegalStateException(getName() + ": Synthetic tape not decoded");
+            }
+        }
+
+        @Override
+        public void run() {
+            decodeAll();
+        }
+
+        private int decodeAll() {
+
+            decoder.setCurrentSample(0);
+            int blocks = 0;
+
+            while (true) {
+                BlockDecodeResult bdr = blockDecoder.decodeBlock(headerSize);
+                if (BlockDecodeResult.isCodeImmediateBreak(bdr.getErrorCode())) {
+                    break;
+                }
+                if (BlockDecodeResult.isCodeOK(bdr.getErrorCode())) {
+                    addBytes(bdr.getValidBytes());
+                }
+
+                bdr = blockDecoder.decodeBlock(BLOCK_SIZE);
+                if (BlockDecodeResult.isCodeImmediateBreak(bdr.getErrorCode())) {
+                    break;
+                }
+                if (BlockDecodeResult.isCodeOK(bdr.getErrorCode())) {
+                    blocks++;
+                    addBytes(bdr.getValidBytes());
+                }
+            }
+
+            addSamples(decoder.getCurrentSample());
+            return blocks;
+        }
+
+        @Override
+        public void tearDown() {
+            decoder.close(null);
+        }
+    }
+
+}
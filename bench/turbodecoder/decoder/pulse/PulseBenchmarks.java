@@ -0,0 +1,120 @@
+package turbodecoder.decoder.pulse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import turbodecoder.bench.Benchmark;
+import turbodecoder.bench.SyntheticTape;
+import turbodecoder.decoder.DecodeRecord;
+import turbodecoder.decoder.DecoderLog;
+import turbodecoder.decoder.DecoderMessage;
+
+/**
+ * Benchmarks of the WAVE pulse decoder
+ */
+public class PulseBenchmarks {
+
+    private PulseBenchmarks() {
+    }
+
+    /**
+     * Create pulse decoder benchmarks for one WAVE format
+     *
+     * @param workDir Directory for the WAVE file
+     * @param format Description of the format
+     * @param rate Sample rate
+     * @param bits Bits per sample
+     * @param channels Number of channels
+     * @return Benchmarks
+     */
+    public static List<Benchmark> create(File workDir, String format, final int rate, final int bits, final int channels) {
+
+        final File wave = new File(workDir, String.format("pulse_%d_%d_%d.wav", rate, bits, channels));
+        List<Benchmark> list = new ArrayList<>();
+
+        list.add(new WaveBenchmark("WavePulseDecoder.getNextSample " + format, wave, rate, bits, channels) {
+            @Override
+            public void run() {
+                decoder.setCurrentSample(0);
+                long ones = 0L;
+                int k;
+                while ((k = decoder.nextLevel()) >= 0) {
+                    ones += k;
+                }
+                consume(ones);
+                addSamples(decoder.getCurrentSample());
+            }
+        });
+
+        list.add(new WaveBenchmark("WavePulseDecoder.measurePulse " + format, wave, rate, bits, channels) {
+            @Override
+            public void run() {
+                decoder.setCurrentSample(0);
+                decoder.setTimeOut(Integer.MAX_VALUE);
+                long width = 0L;
+                while (true) {
+                    decoder.setCounter(0);
+                    if (decoder.measurePulse() != PulseDecoder.PD_OK) {
+                        break;
+                    }
+                    width += decoder.getCounter();
+                }
+                consume(width);
+                addSamples(decoder.getCurrentSample());
+            }
+        });
+
+        return list;
+    }
+
+    /**
+     * Benchmark that reads a synthetic tape
+     */
+    private abstract static class WaveBenchmark extends Benchmark {
+
+        private final File wave;
+        private final int rate;
+        private final int bits;
+        private final int channels;
+        protected WavePulseDecoder decoder;
+
+        WaveBenchmark(String name, File wave, int rate, int bits, int channels) {
+            super(name);
+            this.wave = wave;
+            this.rate = rate;
+            this.bits = bits;
+            this.channels = channels;
+        }
+
+        @Override
+        public void setUp() throws Exception {
+            if (!wave.exists()) {
+                SyntheticTape.write(wave, "t2000", rate, bits, channels, 4, 1_022, 1L);
+            }
+            decoder = new WavePulseDecoder();
+            decoder.init(wave.getPath(), 0, PulseDecoder.CHANNEL_MONO, 0, bits == 16, 0, new DecoderLog() {
+                @Override
+                public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+                }
+
+                @Override
+                public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+                }
+
+                @Override
+                public void clearAllMessages(boolean fromExternalThread) {
+                }
+
+                @Override
+                public void impulse(boolean fromExternalThread) {
+                }
+            });
+        }
+
+        @Override
+        public void tearDown() {
+            decoder.close(null);
+        }
+    }
+
+}
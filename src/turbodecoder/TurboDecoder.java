@@ -2,8 +2,12 @@ package turbodecoder;
 
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Date;
 import javax.swing.SwingUtilities;
+import turbodecoder.decoder.BatchDecoder;
+import turbodecoder.decoder.DecoderMetrics;
+import turbodecoder.decoder.TapeGenerator;
 
 /*
  * Turbo Decoder, program for decoding atari turbo cassette tapes.
@@ -44,6 +48,16 @@ public class TurboDecoder {
      */
     public static void main(String[] args) {
         
+        /*Generation of synthetic tapes*/
+        if (args.length > 0 && args[0].equals("-generate")) {
+            System.exit(TapeGenerator.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        /*Command line arguments mean headless decoding*/
+        if (args.length > 0) {
+            System.exit(BatchDecoder.run(args));
+        }
+
         try {
             
             TurboDecoder decoder = TurboDecoder.getInstance();
@@ -56,6 +70,9 @@ public class TurboDecoder {
                 decoder.redirect();
             }
            
+            /*Decoder metrics for JMX clients*/
+            DecoderMetrics.register();
+
             /*Create GUI*/
             decoder.createDialogs();
             
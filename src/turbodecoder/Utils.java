@@ -831,6 +831,40 @@ public class Utils {
         return intArray;
     }
 
+    /**
+     * Get byte values stored in integer array as byte array
+     *
+     * @param intArray Byte values
+     * @param offset First value
+     * @param numBytes Number of values
+     * @return Byte array
+     */
+    public static byte[] getAsByteArray(int[] intArray, int offset, int numBytes) {
+
+        byte[] byteArray = new byte[numBytes];
+
+        for (int i = 0; i < numBytes; i++) {
+            byteArray[i] = (byte) intArray[offset + i];
+        }
+
+        return byteArray;
+    }
+
+    /**
+     * Write byte values stored in integer array to a stream at once
+     *
+     * @param os Output stream
+     * @param intArray Byte values
+     * @param offset First value
+     * @param numBytes Number of values
+     * @throws IOException
+     */
+    public static void writeBytes(OutputStream os, int[] intArray, int offset, int numBytes) throws IOException {
+        if (numBytes > 0) {
+            os.write(getAsByteArray(intArray, offset, numBytes));
+        }
+    }
+
     /**
      *
      * @param c
@@ -14,6 +14,8 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
     private static final String MSG_PFX = "AST";
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private ASTBlockDecoder blockDecoder;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -28,8 +30,10 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
         this.log = log;
-        ASTBlockDecoder blockDecoder = new ASTBlockDecoder(d, config);
-        blockDecoder.setBlockDecoderListener(this);
+        if (reuse.isReusable(d, config) == false) {
+            blockDecoder = new ASTBlockDecoder(d, config);
+            blockDecoder.setBlockDecoderListener(this);
+        }
 
 
         /*Arrays for header and data*/
@@ -113,19 +117,10 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, firstFileSample, config.genPrependSampleNumber);
 
-        File f = new File(fspec);
-        f.delete();
-
         /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos;
-        DataOutputStream dos = null;
-
-        try {
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-            dos = new DataOutputStream(bos);
+            DataOutputStream dos = new DataOutputStream(out);
 
             /*Binary file*/
             dos.writeByte(255);
@@ -149,9 +144,7 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
                 dos.writeByte(endAddr / 256);
 
                 /*Write segment data*/
-                for (int j = 0; j < segmentData[i].length; j++) {
-                    dos.writeByte(segmentData[i][j]);
-                }
+                Utils.writeBytes(dos, segmentData[i], 0, segmentData[i].length);
 
                 /*Next pair of start address and length*/
                 saIndex += 4;
@@ -160,21 +153,17 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
             }
             /*Finish file operation*/
             dos.flush();
-            dos.close();
+            out.commit(fspec);
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR), true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally left blank*/
-            }
             return true;
         }
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), getHeaderString(header), bdr, fspec), true);
         return true;
     }
 
@@ -224,9 +213,13 @@ public class ASTFileDecoder implements FileDecoder, BlockDecoderListener {
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -0,0 +1,535 @@
+package turbodecoder.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import turbodecoder.TurboDecoder;
+import turbodecoder.Utils;
+import turbodecoder.decoder.pulse.PulseDecoder;
+import turbodecoder.decoder.pulse.WavePulseDecoder;
+
+/**
+ * Headless decoding of WAVE files. Each WAVE file is decoded by its own pulse
+ * decoder and file decoder, several files are decoded in parallel.
+ */
+public class BatchDecoder {
+
+    private static final String MSG_PFX = "BATCH";
+
+    private int turboType = -1;
+    private boolean detect = false;
+    private boolean monitorMode = false;
+    private String outdir = ".";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int channel = PulseDecoder.CHANNEL_MONO;
+    private double splitGap = 0.0;
+    private File reportFile = null;
+    private DecodeReport report;
+    private File metricsFile = null;
+    private MetricsDump metricsDump;
+    private ForkJoinPool segmentPool;
+    private ExecutorService detectExecutor;
+    private final DecoderConfig config;
+    private final ArrayList<File> waveFiles;
+    private final PrintStream out;
+
+    /**
+     *
+     * @param out Stream for log messages
+     */
+    public BatchDecoder(PrintStream out) {
+        this.out = out;
+        config = new DecoderConfig();
+        config.genVerboseMessages = false;
+        waveFiles = new ArrayList<>();
+    }
+
+    /**
+     * Decode WAVE files given on command line
+     *
+     * @param args Command line arguments
+     * @return Exit code
+     */
+    public static int run(String[] args) {
+
+        BatchDecoder bd = new BatchDecoder(System.out);
+        DecoderMetrics.register();
+
+        try {
+            bd.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage(System.err);
+            return 2;
+        }
+
+        return bd.decodeAll() ? 0 : 1;
+
+    }
+
+    /**
+     * Print command line usage
+     *
+     * @param ps Output stream
+     */
+    static void printUsage(PrintStream ps) {
+        ps.println("Usage: java -jar turbodecoder.jar -s <system> [options] <WAVE file or directory>...");
+        ps.println("Turbo systems: " + String.join(", ", FileDecoder.turboSystemBriefNames));
+        ps.println("Options:");
+        ps.println("  -s <system>    Turbo system, auto to find out turbo systems used");
+        ps.println("  -o <dir>       Output directory, one subdirectory per WAVE file is created");
+        ps.println("  -j <threads>   Number of WAVE files decoded in parallel");
+        ps.println("  -c <channel>   mono, left or right");
+        ps.println("  -m             Monitor mode");
+        ps.println("  -split <sec>   Split WAVE files at silence of given length and decode parts in parallel");
+        ps.println("  -nodc          Do not use DC blocker");
+        ps.println("  -schmitt <n>   Schmitt trigger hysteresis, auto to measure it from noise");
+        ps.println("  -lowpass <hz>  Low-pass filter with given cut-off frequency");
+        ps.println("  -bandpass <hz> Band-pass filter with given center frequency");
+        ps.println("  -average <n>   Moving average of given number of samples");
+        ps.println("  -agc           Automatic gain control");
+        ps.println("  -threshold     Adaptive threshold");
+        ps.println("  -adaptive      Prefer adaptive transfer speed detection");
+        ps.println("  -ignorebadsum  Ignore bad checksums");
+        ps.println("  -verbose       Verbose messages");
+        ps.println("  -report <file> Write report of decoded blocks and files in JSON Lines format,");
+        ps.println("                 not with -s auto");
+        ps.println("  -metrics <csv> Write decoder throughput to CSV file every second");
+    }
+
+    /**
+     * Parse command line arguments
+     *
+     * @param args Arguments
+     */
+    void parseArguments(String[] args) {
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a) {
+                case "-s": {
+                    String name = requireValue(args, ++i, a);
+                    detect = name.equalsIgnoreCase("auto");
+                    turboType = detect ? -1 : FileDecoderFactory.getTurboType(name);
+                    if (turboType < 0 && detect == false) {
+                        throw new IllegalArgumentException("Unknown turbo system: " + name);
+                    }
+                    break;
+                }
+                case "-o": {
+                    outdir = requireValue(args, ++i, a);
+                    break;
+                }
+                case "-j": {
+                    threads = parseNumber(requireValue(args, ++i, a), a);
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("Number of threads must be at least 1");
+                    }
+                    break;
+                }
+                case "-c": {
+                    String ch = requireValue(args, ++i, a);
+                    int idx = Arrays.asList("mono", "left", "right").indexOf(ch.toLowerCase());
+                    if (idx < 0) {
+                        throw new IllegalArgumentException("Unknown channel: " + ch);
+                    }
+                    channel = idx;
+                    break;
+                }
+                case "-m": {
+                    monitorMode = true;
+                    break;
+                }
+                case "-split": {
+                    String gap = requireValue(args, ++i, a);
+                    try {
+                        splitGap = Double.parseDouble(gap);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid number for option " + a + ": " + gap);
+                    }
+                    if (!(splitGap > 0.0)) {
+                        throw new IllegalArgumentException("Length of silence must be positive");
+                    }
+                    break;
+                }
+                case "-nodc": {
+                    config.dspBlockDCOffset = false;
+                    break;
+                }
+                case "-schmitt": {
+                    String tolerance = requireValue(args, ++i, a);
+                    if (tolerance.equalsIgnoreCase("auto")) {
+                        config.dspSchmittAdaptive = true;
+                    } else {
+                        config.dspSchmittHysteresis = parseNumber(tolerance, a);
+                    }
+                    break;
+                }
+                case "-lowpass": {
+                    config.dspFilterType = DecoderConfig.DSP_FILTER_LOW_PASS;
+                    config.dspFilterFrequency = parseNumber(requireValue(args, ++i, a), a);
+                    break;
+                }
+                case "-bandpass": {
+                    config.dspFilterType = DecoderConfig.DSP_FILTER_BAND_PASS;
+                    config.dspFilterFrequency = parseNumber(requireValue(args, ++i, a), a);
+                    break;
+                }
+                case "-average": {
+                    config.dspMovingAverage = parseNumber(requireValue(args, ++i, a), a);
+                    break;
+                }
+                case "-agc": {
+                    config.dspAutomaticGain = true;
+                    break;
+                }
+                case "-threshold": {
+                    config.dspAdaptiveThreshold = true;
+                    break;
+                }
+                case "-adaptive": {
+                    config.genPreferAdaptiveSpeedDetection = true;
+                    break;
+                }
+                case "-ignorebadsum": {
+                    config.genIgnoreBadSum = true;
+                    break;
+                }
+                case "-verbose": {
+                    config.genVerboseMessages = true;
+                    break;
+                }
+                case "-report": {
+                    reportFile = new File(requireValue(args, ++i, a));
+                    config.genBlockRecords = true;
+                    break;
+                }
+                case "-metrics": {
+                    metricsFile = new File(requireValue(args, ++i, a));
+                    break;
+                }
+                default: {
+                    if (a.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + a);
+                    }
+                    addInput(new File(a));
+                }
+            }
+        }
+
+        if (turboType < 0 && detect == false) {
+            throw new IllegalArgumentException("No turbo system specified");
+        }
+        if (detect == true && reportFile != null) {
+            throw new IllegalArgumentException("Report cannot be written when turbo systems are detected");
+        }
+        if (waveFiles.isEmpty()) {
+            throw new IllegalArgumentException("No WAVE files specified");
+        }
+    }
+
+    static String requireValue(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for option " + option);
+        }
+        return args[i];
+    }
+
+    static int parseNumber(String s, String option) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for option " + option + ": " + s);
+        }
+    }
+
+    private void addInput(File f) {
+        if (f.isDirectory()) {
+            File[] files = f.listFiles();
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files);
+            for (File wf : files) {
+                if (wf.isFile() && wf.getName().toLowerCase().endsWith(".wav")) {
+                    waveFiles.add(wf);
+                }
+            }
+        } else {
+            waveFiles.add(f);
+        }
+    }
+
+    /**
+     * Decode all WAVE files
+     *
+     * @return true if all WAVE files were decoded without failure
+     */
+    boolean decodeAll() {
+
+        if (reportFile != null) {
+            try {
+                report = new DecodeReport(reportFile);
+            } catch (IOException e) {
+                printMessage(null, new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR));
+                return false;
+            }
+        }
+
+        /*Interval of the dump can be tuned by a property*/
+        if (metricsFile != null) {
+            try {
+                metricsDump = new MetricsDump(metricsFile, DecoderMetrics.getInstance(), Math.max(1, Integer.getInteger("turbodecoder.metricsInterval", 1)));
+            } catch (IOException e) {
+                printMessage(null, new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR));
+                closeReport();
+                return false;
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, waveFiles.size()));
+        if (splitGap > 0.0) {
+            segmentPool = new ForkJoinPool(threads);
+        }
+        if (detect == true) {
+            detectExecutor = Executors.newFixedThreadPool(threads);
+        }
+        ArrayList<Future<Integer>> results = new ArrayList<>();
+
+        String[] dirNames = getOutputNames();
+        for (int i = 0; i < waveFiles.size(); i++) {
+            final File wf = waveFiles.get(i);
+            final String dirName = dirNames[i];
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return decodeWaveFile(wf, dirName);
+                }
+            }));
+        }
+
+        executor.shutdown();
+
+        int savedFiles = 0;
+        int failures = 0;
+
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                savedFiles += results.get(i).get();
+            } catch (Exception e) {
+                failures++;
+                printMessage(waveFiles.get(i).getName(), new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR));
+            }
+        }
+
+        if (segmentPool != null) {
+            segmentPool.shutdown();
+        }
+        if (detectExecutor != null) {
+            detectExecutor.shutdown();
+        }
+        if (closeReport() == false) {
+            failures++;
+        }
+        if (metricsDump != null) {
+            try {
+                metricsDump.close();
+            } catch (IOException e) {
+                failures++;
+                printMessage(null, new DecoderMessage(MSG_PFX, "METRICS: " + Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR));
+            }
+        }
+
+        /*Detected files are reported per WAVE file, nothing is saved*/
+        String summary = String.format("WAVE files: %d, Failed: %d", waveFiles.size(), failures);
+        if (detect == false) {
+            summary += String.format(", Files saved: %d", savedFiles);
+        }
+        printMessage(null, new DecoderMessage(MSG_PFX, summary,
+                failures == 0 ? DecoderMessage.SEV_INFO : DecoderMessage.SEV_ERROR));
+
+        return failures == 0;
+    }
+
+    /**
+     * Close report of the decoding
+     *
+     * @return false if the report could not be written
+     */
+    private boolean closeReport() {
+        if (report == null) {
+            return true;
+        }
+        try {
+            report.close();
+        } catch (IOException e) {
+            printMessage(null, new DecoderMessage(MSG_PFX, "REPORT: " + Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get names of output directories of the WAVE files. WAVE files of the
+     * same name from different directories get a numeric suffix, so that
+     * they are not decoded into the same directory. Names differing only in
+     * case are considered equal
+     *
+     * @return Names in order of the WAVE files
+     */
+    private String[] getOutputNames() {
+
+        String[] names = new String[waveFiles.size()];
+        HashSet<String> used = new HashSet<>();
+
+        for (int i = 0; i < names.length; i++) {
+            String name = waveFiles.get(i).getName();
+            String baseName = name.toLowerCase().endsWith(".wav") ? name.substring(0, name.length() - 4) : name;
+            String dirName = baseName;
+            for (int n = 2; used.add(dirName.toLowerCase()) == false; n++) {
+                dirName = baseName + "_" + n;
+            }
+            names[i] = dirName;
+        }
+        return names;
+    }
+
+    /**
+     * Decode all files stored in one WAVE file
+     *
+     * @param wf WAVE file
+     * @param dirName Name of the output directory
+     * @return Number of files saved
+     * @throws Exception
+     */
+    int decodeWaveFile(File wf, String dirName) throws Exception {
+
+        final String name = wf.getName();
+
+        if (detect == true) {
+            detectTurboSystems(wf);
+            return 0;
+        }
+
+        /*Every WAVE file has its own output directory*/
+        File od = new File(outdir, dirName);
+        if (!od.isDirectory() && !od.mkdirs()) {
+            throw new IOException("Unable to create output directory " + od.getPath());
+        }
+
+        BatchLog log = new BatchLog(name);
+
+        /*Parts of the WAVE file are decoded in parallel*/
+        if (segmentPool != null) {
+            SegmentedDecoder sd = new SegmentedDecoder(turboType, monitorMode, channel, config, segmentPool, splitGap);
+            sd.decode(wf.getPath(), od.getPath(), log);
+            return log.getSavedFiles();
+        }
+
+        PulseDecoder pd = new WavePulseDecoder();
+        FileDecoder fd = FileDecoderFactory.createFileDecoder(turboType, monitorMode);
+
+        try {
+            pd.setSampleFilters(config.createSampleFilters());
+            pd.setAdaptiveHysteresis(config.dspSchmittAdaptive);
+            pd.init(wf.getPath(), 0, channel, 0, config.dspBlockDCOffset, config.dspSchmittHysteresis, log);
+            while (fd.decodeFile(od.getPath(), log, pd, config) == true) {
+                /*Decode until end of file*/
+            }
+        } finally {
+            pd.close(null);
+        }
+
+        return log.getSavedFiles();
+    }
+
+    /**
+     * Report turbo systems used in a WAVE file
+     *
+     * @param wf WAVE file
+     * @throws Exception
+     */
+    void detectTurboSystems(File wf) throws Exception {
+
+        BatchLog log = new BatchLog(wf.getName());
+        TurboSystemDetector detector = new TurboSystemDetector(channel, config, detectExecutor);
+        int[] savedFiles = detector.detect(wf.getPath(), log);
+
+        boolean found = false;
+        for (int i = 0; i < savedFiles.length; i++) {
+            if (savedFiles[i] > 0) {
+                found = true;
+                log.addMessage(new DecoderMessage(MSG_PFX,
+                        String.format("DETECT: %s, Files: %d", FileDecoder.turboSystemBriefNames[i], savedFiles[i]),
+                        DecoderMessage.SEV_INFO), false);
+            }
+        }
+        if (found == false) {
+            log.addMessage(new DecoderMessage(MSG_PFX, "DETECT: No turbo system found", DecoderMessage.SEV_WARNING), false);
+        }
+    }
+
+    private synchronized void printMessage(String waveName, DecoderMessage msg) {
+        StringBuilder sb = new StringBuilder();
+        if (waveName != null) {
+            sb.append(waveName);
+            sb.append(": ");
+        }
+        sb.append(msg.getMessage());
+        out.print(sb.toString());
+        out.print(TurboDecoder.LN);
+    }
+
+    /**
+     * Log that prints messages prefixed with name of the WAVE file
+     */
+    private class BatchLog implements DecoderLog {
+
+        private final String waveName;
+        private int savedFiles;
+
+        BatchLog(String waveName) {
+            this.waveName = waveName;
+            savedFiles = 0;
+        }
+
+        @Override
+        public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+            if (msg.getSeverity() == DecoderMessage.SEV_SAVE) {
+                savedFiles++;
+            }
+            if (msg.getSeverity() == DecoderMessage.SEV_DETAIL && config.genVerboseMessages == false) {
+                return;
+            }
+            printMessage(waveName, msg);
+        }
+
+        @Override
+        public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+            if (report != null) {
+                report.write(waveName, FileDecoder.turboSystemBriefNames[turboType], record);
+            }
+        }
+
+        @Override
+        public void clearAllMessages(boolean fromExternalThread) {
+        }
+
+        @Override
+        public void impulse(boolean fromExternalThread) {
+        }
+
+        int getSavedFiles() {
+            return savedFiles;
+        }
+    }
+
+}
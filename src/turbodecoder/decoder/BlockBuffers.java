@@ -0,0 +1,154 @@
+package turbodecoder.decoder;
+
+import java.util.Arrays;
+import turbodecoder.decoder.pulse.PulseDecoder;
+
+/**
+ * Data buffers and result of a block decoder. While blocks are rejected, the
+ * same buffers and the same result are reused, so that scanning of a noisy
+ * tape does not allocate. A buffer of an accepted block is handed over to its
+ * result and a new buffer is allocated for the next block. A rejected result
+ * is valid only until the next call of the block decoder
+ */
+final class BlockBuffers {
+
+    private static final DecoderMetrics METRICS = DecoderMetrics.getInstance();
+
+    private final int[][] buffers;
+    /*Bytes possibly written to the buffers by rejected blocks*/
+    private final int[] dirty;
+    private BlockDecodeResult rejected;
+    private long blockStart;
+    private BlockDecoderListener listener;
+    /*Time the block decoder started at and found the last pilot tone at*/
+    private long searchStart;
+    private long pilotFound;
+
+    /**
+     * Create buffers
+     *
+     * @param count Number of buffers
+     */
+    BlockBuffers(int count) {
+        buffers = new int[count][];
+        dirty = new int[count];
+    }
+
+    /**
+     * Get buffer for block data
+     *
+     * @param index Buffer index
+     * @param length Data length
+     * @return Buffer
+     */
+    int[] get(int index, int length) {
+        int[] b = buffers[index];
+        if (b == null || b.length != length) {
+            b = new int[length];
+            buffers[index] = b;
+            dirty[index] = 0;
+        }
+        return b;
+    }
+
+    /**
+     * Start decoding of a block. Results of blocks with some data decoded are
+     * passed to the listener as records and counted in decoder metrics
+     *
+     * @param sample Current sample
+     * @param listener Listener of the block decoder, null when no records are
+     * wanted
+     */
+    void begin(long sample, BlockDecoderListener listener) {
+        blockStart = sample;
+        this.listener = listener;
+        searchStart = System.nanoTime();
+        pilotFound = 0L;
+    }
+
+    /**
+     * Pilot tone found. Search for the block lasts from begin() to the last
+     * pilot tone found
+     */
+    void pilotFound() {
+        pilotFound = System.nanoTime();
+    }
+
+    /**
+     * Get result of block decoding
+     *
+     * @param data Data buffer or null
+     * @param validBytes Valid bytes read
+     * @param errCode Error code
+     * @param smp Sample
+     * @param pd Pulse decoder
+     * @return Result
+     */
+    BlockDecodeResult result(int[] data, int validBytes, int errCode, long smp, PulseDecoder pd) {
+        return result(data, validBytes, errCode, smp, pd, 0);
+    }
+
+    /**
+     * Get result of block decoding
+     *
+     * @param data Data buffer or null
+     * @param validBytes Valid bytes read
+     * @param errCode Error code
+     * @param smp Sample
+     * @param pd Pulse decoder
+     * @param aux Auxiliary byte
+     * @return Result
+     */
+    BlockDecodeResult result(int[] data, int validBytes, int errCode, long smp, PulseDecoder pd, int aux) {
+
+        int index = -1;
+        for (int i = 0; i < buffers.length; i++) {
+            if (data != null && buffers[i] == data) {
+                index = i;
+                break;
+            }
+        }
+
+        /*Rejected block, buffer and result will be reused*/
+        if (BlockDecodeResult.isCodeImmediateBreak(errCode) || BlockDecodeResult.isCodePhysicalError(errCode)) {
+            if (index >= 0 && validBytes > dirty[index]) {
+                dirty[index] = validBytes;
+            }
+            if (rejected == null) {
+                rejected = new BlockDecodeResult(data, validBytes, errCode, smp, pd, aux);
+            } else {
+                rejected.set(data, validBytes, errCode, smp, pd, aux);
+            }
+            finish(rejected);
+            return rejected;
+        }
+
+        /*Accepted block, bytes left by rejected blocks are cleared and the buffer is handed over*/
+        if (index >= 0) {
+            if (dirty[index] > validBytes) {
+                Arrays.fill(data, validBytes, dirty[index], 0);
+            }
+            buffers[index] = null;
+            dirty[index] = 0;
+        }
+        BlockDecodeResult accepted = new BlockDecodeResult(data, validBytes, errCode, smp, pd, aux);
+        finish(accepted);
+        return accepted;
+    }
+
+    /*Searches that found no data are not blocks*/
+    private void finish(BlockDecodeResult r) {
+        if (pilotFound != 0L) {
+            METRICS.addPilotSearch(pilotFound - searchStart, true);
+        } else {
+            METRICS.addPilotSearch(System.nanoTime() - searchStart, false);
+        }
+        if (r.getValidBytes() > 0) {
+            METRICS.addBlock(r.getValidBytes(), r.getErrorCode());
+            if (listener != null) {
+                listener.blockDecodeEvent(DecodeRecord.block(blockStart, r));
+            }
+        }
+    }
+
+}
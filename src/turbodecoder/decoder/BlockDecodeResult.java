@@ -177,6 +177,11 @@ public class BlockDecodeResult {
     }
 
     BlockDecodeResult(int[] data, int validBytes, int errCode, long smp, PulseDecoder pd, int aux) {
+        set(data, validBytes, errCode, smp, pd, aux);
+    }
+
+    /*Reuse of the result for another block*/
+    void set(int[] data, int validBytes, int errCode, long smp, PulseDecoder pd, int aux) {
         blockData = data;
         errorCode = errCode;
         this.validBytes = validBytes;
@@ -11,7 +11,8 @@ package turbodecoder.decoder;
 public interface BlockDecoder {
 
     /**
-     * Decode block using pulse decoder
+     * Decode block using pulse decoder. Result of a rejected block is reused
+     * by the next call
      *
      * @param length Expected length of the block
      * @param constraint
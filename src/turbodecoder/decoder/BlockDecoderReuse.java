@@ -0,0 +1,35 @@
+package turbodecoder.decoder;
+
+import turbodecoder.decoder.pulse.PulseDecoder;
+
+/**
+ * Tells a file decoder whether block decoders created by its previous call can
+ * be used again, so that their buffers survive from one file to the next. A
+ * block decoder is bound to a pulse decoder, to a configuration and to the
+ * sample rate its pulse widths were calculated for
+ */
+final class BlockDecoderReuse {
+
+    private PulseDecoder decoder;
+    private DecoderConfig config;
+    private int sampleRate;
+
+    /**
+     * Check whether block decoders can be reused and remember the current
+     * pulse decoder and configuration
+     *
+     * @param d Pulse decoder
+     * @param config Decoder configuration
+     * @return true if block decoders created for the previous call can be used
+     */
+    boolean isReusable(PulseDecoder d, DecoderConfig config) {
+        if (d == decoder && config == this.config && d.getSampleRate() == sampleRate) {
+            return true;
+        }
+        decoder = d;
+        this.config = config;
+        sampleRate = d.getSampleRate();
+        return false;
+    }
+
+}
@@ -0,0 +1,154 @@
+package turbodecoder.decoder;
+
+import java.io.File;
+
+/**
+ * Machine-readable result of decoding of a block or of a file. Records are
+ * passed from the decoders to the log, which may write them to a report. The
+ * record copies everything it needs, so it stays valid when the block decode
+ * result is reused
+ */
+public final class DecodeRecord {
+
+    /**
+     * Record of a decoded block
+     */
+    public static final int TYPE_BLOCK = 0;
+
+    /**
+     * Record of a saved file
+     */
+    public static final int TYPE_FILE = 1;
+
+    private final int type;
+    private final long sampleStart;
+    private final long sampleEnd;
+    private final int validBytes;
+    private final int errorCode;
+    private final String errorMessage;
+    private final String header;
+    private final String output;
+
+    private DecodeRecord(int type, long sampleStart, long sampleEnd, int validBytes, int errorCode, String errorMessage, String header, String output) {
+        this.type = type;
+        this.sampleStart = sampleStart;
+        this.sampleEnd = sampleEnd;
+        this.validBytes = validBytes;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        this.header = header;
+        this.output = output;
+    }
+
+    /**
+     * Create record of a block. The block spans the samples the block decoder
+     * consumed, from the start of search for the block to its end
+     *
+     * @param sampleStart Sample the block decoder started at
+     * @param bdr Result of the block decoder
+     * @return Record
+     */
+    static DecodeRecord block(long sampleStart, BlockDecodeResult bdr) {
+        return new DecodeRecord(TYPE_BLOCK, sampleStart, bdr.getSample(), bdr.getValidBytes(), bdr.getErrorCode(), bdr.getErrorMessage(), null, null);
+    }
+
+    /**
+     * Create record of a saved file
+     *
+     * @param sampleStart Sample the file decoder started at
+     * @param sampleEnd Sample the file ended at
+     * @param header Header fields or null
+     * @param bdr Result of the last block of the file
+     * @param output File specifier of the saved file
+     * @return Record
+     */
+    static DecodeRecord file(long sampleStart, long sampleEnd, String header, BlockDecodeResult bdr, String output) {
+        return file(sampleStart, sampleEnd, header, bdr.getErrorCode(), bdr.getErrorMessage(), output);
+    }
+
+    /**
+     * Create record of a saved file. Number of bytes is the size of the saved
+     * file
+     *
+     * @param sampleStart Sample the file decoder started at
+     * @param sampleEnd Sample the file ended at
+     * @param header Header fields or null
+     * @param errorCode Error code
+     * @param errorMessage Error message
+     * @param output File specifier of the saved file
+     * @return Record
+     */
+    static DecodeRecord file(long sampleStart, long sampleEnd, String header, int errorCode, String errorMessage, String output) {
+        return new DecodeRecord(TYPE_FILE, sampleStart, sampleEnd, (int) new File(output).length(), errorCode, errorMessage, header, output);
+    }
+
+    /**
+     * Create copy of the record with another output file specifier
+     *
+     * @param newOutput File specifier
+     * @return Record
+     */
+    DecodeRecord withOutput(String newOutput) {
+        return new DecodeRecord(type, sampleStart, sampleEnd, validBytes, errorCode, errorMessage, header, newOutput);
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getSampleStart() {
+        return sampleStart;
+    }
+
+    public long getSampleEnd() {
+        return sampleEnd;
+    }
+
+    /**
+     *
+     * @return Valid bytes of a block or size of a saved file
+     */
+    public int getValidBytes() {
+        return validBytes;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     *
+     * @return Header fields or null
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     *
+     * @return File specifier of the saved file or null
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Get status of the checksum
+     *
+     * @return "ok", "bad" or null when the checksum was not verified
+     */
+    public String getChecksumStatus() {
+        if (errorCode == BlockDecodeResult.OK) {
+            return "ok";
+        }
+        if (errorCode == BlockDecodeResult.BAD_CHSUM || errorCode == BlockDecodeResult.OK_CHSUM_WARNING) {
+            return "bad";
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,141 @@
+package turbodecoder.decoder;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Report of a decode run in JSON Lines format. Every record is written as one
+ * JSON object on its own line as soon as it arrives, the report is flushed
+ * after every saved file. Records of several WAVE files decoded in parallel
+ * are interleaved, every record carries name of its WAVE file
+ */
+public class DecodeReport implements Closeable {
+
+    private static final int BUFFER_SIZE = 65_536;
+    private static final String[] TYPE_NAMES = {"block", "file"};
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private IOException failure;
+
+    /**
+     * Create report
+     *
+     * @param f Report file
+     * @throws IOException
+     */
+    public DecodeReport(File f) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8), BUFFER_SIZE);
+        failure = null;
+    }
+
+    /**
+     * Write record. Write errors are kept and reported when the report is
+     * closed, so that they do not break decoding
+     *
+     * @param wave Name of the WAVE file
+     * @param system Brief name of the turbo system
+     * @param r Record
+     */
+    public synchronized void write(String wave, String system, DecodeRecord r) {
+
+        if (failure != null) {
+            return;
+        }
+
+        line.setLength(0);
+        line.append('{');
+        appendField("type", TYPE_NAMES[r.getType()]);
+        line.append(',');
+        appendField("wave", wave);
+        line.append(',');
+        appendField("system", system);
+        line.append(",\"sampleStart\":").append(r.getSampleStart());
+        line.append(",\"sampleEnd\":").append(r.getSampleEnd());
+        line.append(",\"bytes\":").append(r.getValidBytes());
+        line.append(",\"errorCode\":").append(r.getErrorCode());
+        line.append(',');
+        appendField("error", r.getErrorMessage());
+        line.append(',');
+        appendField("checksum", r.getChecksumStatus());
+        if (r.getType() == DecodeRecord.TYPE_FILE) {
+            line.append(',');
+            appendField("header", r.getHeader());
+            line.append(',');
+            appendField("output", r.getOutput());
+        }
+        line.append('}').append('\n');
+
+        try {
+            writer.append(line);
+            /*Saved files are visible to the readers of the report at once*/
+            if (r.getType() == DecodeRecord.TYPE_FILE) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Close report
+     *
+     * @throws IOException When writing of some record failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void appendField(String name, String value) {
+        line.append('"').append(name).append("\":");
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+}
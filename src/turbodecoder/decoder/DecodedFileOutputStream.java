@@ -0,0 +1,100 @@
+package turbodecoder.decoder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Output of a decoded file. Data are written to a temporary file in the output
+ * directory as the blocks are decoded. When the file is complete, the temporary
+ * file is renamed to the final name. When the stream is closed without commit,
+ * the temporary file is deleted, so that no partial file is left behind
+ */
+public class DecodedFileOutputStream extends BufferedOutputStream {
+
+    private static final String TEMP_PREFIX = ".decoding";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 65_536;
+
+    private final File tempFile;
+    private boolean closed;
+
+    /**
+     * Create new stream
+     *
+     * @param outdir Output directory
+     * @throws IOException
+     */
+    public DecodedFileOutputStream(String outdir) throws IOException {
+        this(File.createTempFile(TEMP_PREFIX, TEMP_SUFFIX, new File(outdir)));
+    }
+
+    private DecodedFileOutputStream(File tempFile) throws IOException {
+        super(new FileOutputStream(tempFile), BUFFER_SIZE);
+        this.tempFile = tempFile;
+        closed = false;
+    }
+
+    /**
+     * Get temporary file. Data written so far are in the file after flush
+     *
+     * @return Temporary file
+     */
+    public File getTempFile() {
+        return tempFile;
+    }
+
+    /**
+     * Finish the file and rename it to the final name. Existing file of the
+     * same name is replaced
+     *
+     * @param fspec Final file specifier
+     * @throws IOException
+     */
+    public void commit(String fspec) throws IOException {
+
+        try {
+            flush();
+            closed = true;
+            super.close();
+
+            Path source = tempFile.toPath();
+            Path target = new File(fspec).toPath();
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Close the stream. If the file was not committed, it is discarded
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed == true) {
+            return;
+        }
+        closed = true;
+
+        /*Buffered data are not flushed, they would be deleted anyway*/
+        try {
+            out.close();
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+}
@@ -1,6 +1,13 @@
 package turbodecoder.decoder;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import turbodecoder.decoder.dsp.AdaptiveThreshold;
+import turbodecoder.decoder.dsp.AutomaticGain;
+import turbodecoder.decoder.dsp.BiquadFilter;
+import turbodecoder.decoder.dsp.MovingAverage;
+import turbodecoder.decoder.dsp.SampleFilter;
 
 /**
  *
@@ -8,6 +15,9 @@ import java.io.Serializable;
  */
 public class DecoderConfig implements Serializable {
 
+    /*Settings saved by earlier versions remain readable*/
+    private static final long serialVersionUID = 777790045339813665L;
+
     /*Turbo ROM*/
 
     /**
@@ -52,6 +62,16 @@ public class DecoderConfig implements Serializable {
      */
     public static final int PL_KSO_TURBO_2000_FORMAT_WITH_LOADER = 1;
 
+    /*DSP filter types*/
+    public static final int DSP_FILTER_NONE = 0;
+    public static final int DSP_FILTER_LOW_PASS = 1;
+    public static final int DSP_FILTER_BAND_PASS = 2;
+
+    /*Quality factors of the DSP filters. Band-pass filter must be wide
+     *enough to pass both pulse widths of a turbo system*/
+    private static final double DSP_LOW_PASS_Q = 0.707;
+    private static final double DSP_BAND_PASS_Q = 0.3;
+
 
     /*General settings*/
 
@@ -76,6 +96,9 @@ public class DecoderConfig implements Serializable {
      */
     public boolean genVerboseMessages;
 
+    /*Records of decoded blocks are built only for a report, not saved with settings*/
+    public transient boolean genBlockRecords;
+
     /*Monitor mode settings*/
 
     /**
@@ -92,6 +115,12 @@ public class DecoderConfig implements Serializable {
     
     public boolean dspBlockDCOffset;
     public int dspSchmittHysteresis;
+    public boolean dspSchmittAdaptive;
+    public int dspFilterType;
+    public int dspFilterFrequency;
+    public int dspMovingAverage;
+    public boolean dspAutomaticGain;
+    public boolean dspAdaptiveThreshold;
 
     public boolean csTurboSaveHeaderToExtraFile;
 
@@ -170,6 +199,37 @@ public class DecoderConfig implements Serializable {
     public void dspDefaults() {
         dspBlockDCOffset=true;
         dspSchmittHysteresis=0;
+        dspSchmittAdaptive=false;
+        dspFilterType=DSP_FILTER_NONE;
+        dspFilterFrequency=6_000;
+        dspMovingAverage=0;
+        dspAutomaticGain=false;
+        dspAdaptiveThreshold=false;
+    }
+
+    /**
+     * Create filters applied to samples between DC blocker and Schmitt
+     * trigger, according to DSP settings
+     *
+     * @return New filters, in order of processing
+     */
+    public SampleFilter[] createSampleFilters() {
+        List<SampleFilter> filters = new ArrayList<>();
+        if (dspFilterType == DSP_FILTER_LOW_PASS && dspFilterFrequency > 0) {
+            filters.add(new BiquadFilter(BiquadFilter.LOW_PASS, dspFilterFrequency, DSP_LOW_PASS_Q));
+        } else if (dspFilterType == DSP_FILTER_BAND_PASS && dspFilterFrequency > 0) {
+            filters.add(new BiquadFilter(BiquadFilter.BAND_PASS, dspFilterFrequency, DSP_BAND_PASS_Q));
+        }
+        if (dspMovingAverage > 1) {
+            filters.add(new MovingAverage(dspMovingAverage));
+        }
+        if (dspAutomaticGain == true) {
+            filters.add(new AutomaticGain());
+        }
+        if (dspAdaptiveThreshold == true) {
+            filters.add(new AdaptiveThreshold());
+        }
+        return filters.toArray(new SampleFilter[filters.size()]);
     }
 
     /**
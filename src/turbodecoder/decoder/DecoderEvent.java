@@ -0,0 +1,261 @@
+package turbodecoder.decoder;
+
+/**
+ * Verbose event of a block decoder. The event holds only its kind, sample
+ * position and numbers. Text is formatted when the event is rendered, so
+ * events that are never shown cost no string building
+ */
+public final class DecoderEvent {
+
+    /**
+     * Pulse ranges of the block decoder
+     */
+    public static final int PULSE_RANGES = 0;
+
+    /**
+     * Pilot tone found
+     */
+    public static final int PILOT_TONE = 1;
+
+    /**
+     * Sync pulse found
+     */
+    public static final int SYNC_PULSE = 2;
+
+    /**
+     * First data bit found
+     */
+    public static final int FIRST_DATA_BIT = 3;
+
+    /**
+     * Decoding of data failed
+     */
+    public static final int DATA_FAILED = 4;
+
+    /**
+     * Block decoded
+     */
+    public static final int BLOCK_DECODED = 5;
+
+    private final int kind;
+    private final long sample;
+    private final int[] values;
+
+    private DecoderEvent(int kind, long sample, int... values) {
+        this.kind = kind;
+        this.sample = sample;
+        this.values = values;
+    }
+
+    /**
+     * Recreate event from its parts
+     *
+     * @param kind Kind of the event
+     * @param sample Sample
+     * @param values Numbers of the event
+     * @return Event
+     */
+    static DecoderEvent of(int kind, long sample, int[] values) {
+        return new DecoderEvent(kind, sample, values);
+    }
+
+    /**
+     * Pulse ranges of a decoder with sync and pilot tone ranges
+     *
+     * @param syncLo Sync pulse low bound
+     * @param syncHi Sync pulse high bound
+     * @param narrowLo Narrow pulse low bound
+     * @param wideLo Wide pulse low bound
+     * @param wideHi Wide pulse high bound
+     * @param pilotLo Pilot tone pulse low bound
+     * @param pilotHi Pilot tone pulse high bound
+     * @param maxPulse Maximum pulse
+     * @return Event
+     */
+    static DecoderEvent pulseRanges(int syncLo, int syncHi, int narrowLo, int wideLo, int wideHi, int pilotLo, int pilotHi, int maxPulse) {
+        return new DecoderEvent(PULSE_RANGES, 0L, syncLo, syncHi, narrowLo, wideLo, wideHi, pilotLo, pilotHi, maxPulse);
+    }
+
+    /**
+     * Pulse ranges of a decoder with pilot tone range
+     *
+     * @param narrowLo Narrow pulse low bound
+     * @param wideLo Wide pulse low bound
+     * @param wideHi Wide pulse high bound
+     * @param pilotLo Pilot tone pulse low bound
+     * @param pilotHi Pilot tone pulse high bound
+     * @param maxPulse Maximum pulse
+     * @return Event
+     */
+    static DecoderEvent pulseRanges(int narrowLo, int wideLo, int wideHi, int pilotLo, int pilotHi, int maxPulse) {
+        return new DecoderEvent(PULSE_RANGES, 0L, narrowLo, wideLo, wideHi, pilotLo, pilotHi, maxPulse);
+    }
+
+    /**
+     * Pulse ranges of a decoder with data pulse ranges only
+     *
+     * @param narrowLo Narrow pulse low bound
+     * @param wideLo Wide pulse low bound
+     * @param wideHi Wide pulse high bound
+     * @param maxPulse Maximum pulse
+     * @return Event
+     */
+    static DecoderEvent pulseRanges(int narrowLo, int wideLo, int wideHi, int maxPulse) {
+        return new DecoderEvent(PULSE_RANGES, 0L, narrowLo, wideLo, wideHi, maxPulse);
+    }
+
+    /**
+     * Pilot tone found
+     *
+     * @param sample Sample
+     * @return Event
+     */
+    static DecoderEvent pilotTone(long sample) {
+        return new DecoderEvent(PILOT_TONE, sample);
+    }
+
+    /**
+     * Pilot tone found, pulse boundaries derived from the pilot tone
+     *
+     * @param sample Sample
+     * @param boundaries Three pulse boundaries
+     * @return Event
+     */
+    static DecoderEvent pilotTone(long sample, int[] boundaries) {
+        return new DecoderEvent(PILOT_TONE, sample, boundaries[0], boundaries[1], boundaries[2]);
+    }
+
+    /**
+     * Sync pulse found
+     *
+     * @param sample Sample
+     * @return Event
+     */
+    static DecoderEvent syncPulse(long sample) {
+        return new DecoderEvent(SYNC_PULSE, sample);
+    }
+
+    /**
+     * First data bit found
+     *
+     * @param sample Sample
+     * @return Event
+     */
+    static DecoderEvent firstDataBit(long sample) {
+        return new DecoderEvent(FIRST_DATA_BIT, sample);
+    }
+
+    /**
+     * Decoding of data failed
+     *
+     * @param sample Sample
+     * @param bytes Bytes decoded
+     * @return Event
+     */
+    static DecoderEvent dataFailed(long sample, int bytes) {
+        return new DecoderEvent(DATA_FAILED, sample, bytes);
+    }
+
+    /**
+     * Decoding of data failed
+     *
+     * @param sample Sample
+     * @param bytes Bytes decoded
+     * @param bits Bits decoded
+     * @return Event
+     */
+    static DecoderEvent dataFailed(long sample, int bytes, int bits) {
+        return new DecoderEvent(DATA_FAILED, sample, bytes, bits);
+    }
+
+    /**
+     * Block decoded
+     *
+     * @param sample Sample
+     * @param bytes Bytes decoded
+     * @param bits Bits decoded
+     * @return Event
+     */
+    static DecoderEvent blockDecoded(long sample, int bytes, int bits) {
+        return new DecoderEvent(BLOCK_DECODED, sample, bytes, bits);
+    }
+
+    /**
+     *
+     * @return Kind of the event
+     */
+    public int getKind() {
+        return kind;
+    }
+
+    /**
+     *
+     * @return Sample where the event occurred
+     */
+    public long getSample() {
+        return sample;
+    }
+
+    /**
+     *
+     * @return Numbers of the event, not to be modified
+     */
+    int[] getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder(64);
+
+        switch (kind) {
+            case PULSE_RANGES: {
+                /*Decoders report only the ranges they use*/
+                int i = 0;
+                sb.append("Pulse ranges: ");
+                if (values.length == 8) {
+                    sb.append("SL ").append(values[i++]).append(",SH ").append(values[i++]).append(',');
+                }
+                sb.append("NL ").append(values[i++]).append(",WL ").append(values[i++]).append(", WH ").append(values[i++]);
+                if (values.length >= 6) {
+                    sb.append(",PL ").append(values[i++]).append(", PH ").append(values[i++]);
+                }
+                sb.append(", MP ").append(values[i]);
+                return sb.toString();
+            }
+            case PILOT_TONE: {
+                if (values.length == 3) {
+                    sb.append("Pilot tone found. Pulse boundaries: ").append(values[0]).append(',').append(values[1]).append(',').append(values[2]).append(". ");
+                } else {
+                    sb.append("Pilot tone found ");
+                }
+                break;
+            }
+            case SYNC_PULSE: {
+                sb.append("Sync pulse found ");
+                break;
+            }
+            case FIRST_DATA_BIT: {
+                sb.append("First data bit found ");
+                break;
+            }
+            case DATA_FAILED: {
+                sb.append("Decoding of data failed. Bytes decoded:").append(values[0]);
+                if (values.length == 2) {
+                    sb.append('/').append(values[1]);
+                }
+                sb.append(' ');
+                break;
+            }
+            case BLOCK_DECODED: {
+                sb.append("Block decoded:").append(values[0]).append('/').append(values[1]).append(' ');
+                break;
+            }
+        }
+
+        sb.append('{').append(sample).append('}');
+        return sb.toString();
+    }
+
+}
@@ -3,6 +3,7 @@ package turbodecoder.decoder;
 import turbodecoder.decoder.pulse.PulseDecoder;
 import turbodecoder.decoder.pulse.WavePulseDecoder;
 import turbodecoder.decoder.pulse.AudioPulseDecoder;
+import turbodecoder.decoder.pulse.EdgeListPulseDecoder;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Font;
@@ -12,9 +13,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ItemEvent;
 import java.io.File;
 import java.io.Serializable;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.*;
 import turbodecoder.DialogManager;
 import turbodecoder.ParallelGUIUpdater;
@@ -31,6 +34,7 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
 
     private final WavePulseDecoder waveDecoder;
     private final AudioPulseDecoder audioDecoder;
+    private final EdgeListPulseDecoder edgeListDecoder;
     private PulseDecoder decoder;
     private final JComponent[] decodingInvocationComponents;
     private final JComponent[] decodingCancelationComponents;
@@ -40,12 +44,38 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
     private final Object decoderSyncronizer = new Object();
     private DecoderLogModel logModel;
 
+    /*Messages of the decoding thread are queued and drained by the event
+     *dispatch thread in batches. The decoding thread waits only when the
+     *queue is full, so that the queue does not grow without limit*/
+    private static final int MAX_MESSAGE_BATCH = 4_096;
+    private static final int MAX_PENDING_MESSAGES = 16 * MAX_MESSAGE_BATCH;
+    private static final long PENDING_WAIT_NANOS = 1_000_000L;
+    private static final DecoderMessage CLEAR_MESSAGES = new DecoderMessage("", "", DecoderMessage.SEV_DETAIL);
+    private final ConcurrentLinkedQueue<DecoderMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final ArrayList<DecoderMessage> messageBatch = new ArrayList<>();
+    private final Runnable messageDrainer = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled.set(false);
+            drainMessages(MAX_MESSAGE_BATCH);
+            if (!pendingMessages.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    };
+
     private Font[] logFonts;
     private static final int LOG_FONT_NORMAL = 0;
     private static final int LOG_FONT_MEDIUM = 1;
     private static final int LOG_FONT_LARGE = 2;
     private static final int LOG_FONT_EXTRA_LARGE = 3;
 
+    /*Cells of the log have fixed size, so the list does not measure all
+     *messages when the log grows*/
+    private static final DecoderMessage LOG_PROTOTYPE_MESSAGE = new DecoderMessage(String.format("%160s", ""), DecoderMessage.SEV_INFO);
+
     /**
      * Creates new form DecoderFrame
      */
@@ -58,7 +88,10 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
         handleComponentDependencies();
 
         waveDecoder = new WavePulseDecoder();
+        /*Decoding is repeated from different positions, keep levels in memory*/
+        waveDecoder.setLevelMapEnabled(true);
         audioDecoder = new AudioPulseDecoder();
+        edgeListDecoder = new EdgeListPulseDecoder();
         decoder = null;
 
         decodingInvocationComponents = new JComponent[]{
@@ -147,6 +180,15 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
         jcbBlockDCOffset = new javax.swing.JCheckBox();
         jspSchmitt = new javax.swing.JSpinner();
         jLabel3 = new javax.swing.JLabel();
+        jlbDSPFilter = new javax.swing.JLabel();
+        jcoDSPFilter = new javax.swing.JComboBox<>();
+        jlbDSPFilterFrequency = new javax.swing.JLabel();
+        jspDSPFilterFrequency = new javax.swing.JSpinner();
+        jlbDSPMovingAverage = new javax.swing.JLabel();
+        jspDSPMovingAverage = new javax.swing.JSpinner();
+        jcbDSPAutomaticGain = new javax.swing.JCheckBox();
+        jcbDSPAdaptiveThreshold = new javax.swing.JCheckBox();
+        jcbDSPAdaptiveSchmitt = new javax.swing.JCheckBox();
         jspOtherSettings = new javax.swing.JScrollPane();
         pOtherSettingsCover = new javax.swing.JPanel();
         filler4 = new javax.swing.Box.Filler(new java.awt.Dimension(0, 0), new java.awt.Dimension(0, 0), new java.awt.Dimension(0, 32767));
@@ -253,7 +295,7 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
         gridBagConstraints.insets = new java.awt.Insets(0, 0, 5, 0);
         pFiles.add(jbtBrowseDir, gridBagConstraints);
 
-        jcoSignalSource.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "WAVE file", "Audio IN" }));
+        jcoSignalSource.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "WAVE file", "Audio IN", "WAVE file (edge list)" }));
         jcoSignalSource.addItemListener(new java.awt.event.ItemListener() {
             public void itemStateChanged(java.awt.event.ItemEvent evt) {
                 onSignalSourceChanged(evt);
@@ -470,6 +512,7 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
 
         jlsMessages.setModel(this.logModel);
         jlsMessages.setCellRenderer(new LogListCellRenderer<DecoderMessage>());
+        jlsMessages.setPrototypeCellValue(LOG_PROTOTYPE_MESSAGE);
         jScrollPane1.setViewportView(jlsMessages);
 
         pLog.add(jScrollPane1, java.awt.BorderLayout.CENTER);
@@ -632,6 +675,84 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
         gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
         pDSP.add(jLabel3, gridBagConstraints);
 
+        jlbDSPFilter.setText("Filter:");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 2;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jlbDSPFilter, gridBagConstraints);
+
+        jcoDSPFilter.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "None", "Low-pass", "Band-pass" }));
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 1;
+        gridBagConstraints.gridy = 2;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.weightx = 1.0;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jcoDSPFilter, gridBagConstraints);
+
+        jlbDSPFilterFrequency.setText("Filter frequency (Hz):");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 3;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jlbDSPFilterFrequency, gridBagConstraints);
+
+        jspDSPFilterFrequency.setModel(new javax.swing.SpinnerNumberModel(6000, 100, 20000, 100));
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 1;
+        gridBagConstraints.gridy = 3;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.weightx = 1.0;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jspDSPFilterFrequency, gridBagConstraints);
+
+        jlbDSPMovingAverage.setText("Moving average length:");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 4;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jlbDSPMovingAverage, gridBagConstraints);
+
+        jspDSPMovingAverage.setModel(new javax.swing.SpinnerNumberModel(0, 0, 64, 1));
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 1;
+        gridBagConstraints.gridy = 4;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.weightx = 1.0;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jspDSPMovingAverage, gridBagConstraints);
+
+        jcbDSPAutomaticGain.setText("Automatic gain control");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 5;
+        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jcbDSPAutomaticGain, gridBagConstraints);
+
+        jcbDSPAdaptiveThreshold.setText("Adaptive threshold");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 6;
+        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jcbDSPAdaptiveThreshold, gridBagConstraints);
+
+        jcbDSPAdaptiveSchmitt.setText("Adaptive Schmitt trigger hysteresis");
+        gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 7;
+        gridBagConstraints.fill = java.awt.GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(0, 4, 0, 0);
+        pDSP.add(jcbDSPAdaptiveSchmitt, gridBagConstraints);
+
         gridBagConstraints = new java.awt.GridBagConstraints();
         gridBagConstraints.gridx = 0;
         gridBagConstraints.gridy = 2;
@@ -831,14 +952,18 @@ public class DecoderFrame extends javax.swing.JFrame implements DecoderLog, UIPe
         /*Initialize either decoder*/
         try {
             /*Audio decoder*/
-            if (!(source.equals("WAVE file"))) {
+            if (!(source.startsWith("WAVE file"))) {
 
                 /*Initialize decoder*/
                 decoder = audioDecoder;
+                decoder.setSampleFilters(getConfigFromDialog().createSampleFilters());
+                decoder.setAdaptiveHysteresis(jcbDSPAdaptiveSchmitt.isSelected());
                 decoder.init("", Integer.parseInt((String)jcoSampleRate.getSelectedItem()),jcoSourceChannel.getSelectedIndex(),Integer.parseInt((String)jcoBitsPerSample.getSelectedItem()),jcbBlockDCOffset.isSelected(),(Integer)jspSchmitt.getValue(),this);
                 
             } /*Wave file decoder*/ else {
-                decoder = waveDecoder;
+                decoder = source.equals("WAVE file") ? waveDecoder : edgeListDecoder;
+                decoder.setSampleFilters(getConfigFromDialog().createSampleFilters());
+                decoder.setAdaptiveHysteresis(jcbDSPAdaptiveSchmitt.isSelected());
                 decoder.init(jtfWaveFile.getText().trim(), 0,jcoSourceChannel.getSelectedIndex(),0,jcbBlockDCOffset.isSelected(),(Integer)jspSchmitt.getValue(),this);
             }
         } /*Failure - close and issue message*/ catch (Exception e) {
@@ -892,7 +1017,7 @@ private void jbtDecodeActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
 }//GEN-LAST:event_jbtDecodeActionPerformed
 
 private void btnClearLogActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnClearLogActionPerformed
-    logModel.clearAllMessages();
+    clearAllMessages(false);
 }//GEN-LAST:event_btnClearLogActionPerformed
 
 private void jbtJumpActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jbtJumpActionPerformed
@@ -960,7 +1085,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
 
         String s = (String) evt.getItem();
 
-        if (s.equalsIgnoreCase("WAVE file")) {
+        if (s.startsWith("WAVE file")) {
             if (evt.getStateChange() == ItemEvent.SELECTED) {
                 setWaveInputSourceComponentsEnabled(true);
             } else {
@@ -975,12 +1100,12 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
         JTextArea tempArea = new JTextArea();
         String ln = System.getProperty("line.separator");
 
-        ArrayList<DecoderMessage> messages = logModel.getMessages();
-        Iterator<DecoderMessage> it = messages.iterator();
+        drainMessages(Integer.MAX_VALUE);
+        int count = logModel.getSize();
 
         tempArea.setText("");
-        while (it.hasNext()) {
-            tempArea.append(it.next().getMessage());
+        for (int i = 0; i < count; i++) {
+            tempArea.append(logModel.getElementAt(i).getMessage());
             tempArea.append(ln);
         }
 
@@ -996,6 +1121,8 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
 
         int index = jcbFontSize.getSelectedIndex();
         ((Component) jlsMessages.getCellRenderer()).setFont(logFonts[index]);
+        /*Recompute the fixed cell size*/
+        jlsMessages.setPrototypeCellValue(LOG_PROTOTYPE_MESSAGE);
 
     }//GEN-LAST:event_onFontChange
 
@@ -1048,6 +1175,9 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     private javax.swing.JCheckBox jcbBlockDCOffset;
     private javax.swing.JCheckBox jcbCsTurboAlwaysSaveAsBinaryFile;
     private javax.swing.JCheckBox jcbCsTurboSaveHeaderToExtraFile;
+    private javax.swing.JCheckBox jcbDSPAdaptiveSchmitt;
+    private javax.swing.JCheckBox jcbDSPAdaptiveThreshold;
+    private javax.swing.JCheckBox jcbDSPAutomaticGain;
     private javax.swing.JComboBox<String> jcbFontSize;
     private javax.swing.JCheckBox jcbIgnoreBadChecksums;
     private javax.swing.JCheckBox jcbMonitorMode;
@@ -1057,6 +1187,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     private javax.swing.JCheckBox jcbVerboseMessages;
     private javax.swing.JComboBox<String> jcoASTFormat;
     private javax.swing.JComboBox<String> jcoBitsPerSample;
+    private javax.swing.JComboBox<String> jcoDSPFilter;
     private javax.swing.JComboBox<String> jcoDecoders;
     private javax.swing.JComboBox<String> jcoKSOTurbo2000Format;
     private javax.swing.JComboBox<String> jcoLowerSilesiaTurbo2000Format;
@@ -1066,6 +1197,9 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     private javax.swing.JComboBox<String> jcoTurboROMFormat;
     private javax.swing.JLabel jlbASTFormat;
     private javax.swing.JLabel jlbBits;
+    private javax.swing.JLabel jlbDSPFilter;
+    private javax.swing.JLabel jlbDSPFilterFrequency;
+    private javax.swing.JLabel jlbDSPMovingAverage;
     private javax.swing.JLabel jlbDecoder;
     private javax.swing.JLabel jlbImpulse;
     private javax.swing.JLabel jlbKSOTurbo2000Format;
@@ -1081,6 +1215,8 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     private javax.swing.JMenuItem jmiAbout;
     private javax.swing.JMenuItem jmiExit;
     private javax.swing.JSlider jslNavigation;
+    private javax.swing.JSpinner jspDSPFilterFrequency;
+    private javax.swing.JSpinner jspDSPMovingAverage;
     private javax.swing.JScrollPane jspGeneralSettings;
     private javax.swing.JScrollPane jspOtherSettings;
     private javax.swing.JSpinner jspSchmitt;
@@ -1132,60 +1268,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
         }
 
         /*What turbo system?*/
-        if (jcbMonitorMode.isSelected()) {
-            _decoder = new TurboMonitorDecoder(turboType);
-        } else {
-
-            switch (turboType) {
-                case FileDecoder.CS_TURBO_2000: {
-                    _decoder = new Turbo2000FileDecoder();
-                    break;
-                }
-                case FileDecoder.CS_TURBO_2000_KB: {
-                    _decoder = new KBlockFileDecoder();
-                    break;
-                }
-                case FileDecoder.CS_SUPER_TURBO: {
-                    _decoder = new UniversalTurboFileDecoder();
-                    break;
-                }
-
-                case FileDecoder.CS_TURBO_TAPE: {
-                    _decoder = new TurboTapeDecoder();
-                    break;
-                }
-
-                case FileDecoder.PL_KSO_TURBO_2000: {
-                    _decoder = new KSOTurbo2000FileDecoder();
-                    break;
-                }
-                case FileDecoder.PL_TURBO_BLIZZARD: {
-                    _decoder = new TurboBlizzardFileDecoder();
-                    break;
-                }
-                case FileDecoder.PL_TURBO_ROM: {
-                    _decoder = new TurboRomFileDecoder();
-                    break;
-                }
-                case FileDecoder.PL_ATARI_SUPER_TURBO: {
-                    _decoder = new ASTFileDecoder();
-                    break;
-                }
-
-                case FileDecoder.PL_HARD_TURBO: {
-                    _decoder = new HardTurboFileDecoder();
-                    break;
-                }
-                case FileDecoder.PL_LOWER_SILESIA_TURBO_2000: {
-                    _decoder = new LowerSilesianTurbo2000FileDecoder();
-                    break;
-                }
-
-                default: {
-                    _decoder = null;
-                }
-            }
-        }
+        _decoder = FileDecoderFactory.createFileDecoder(turboType, jcbMonitorMode.isSelected());
 
         /*Try to set parameters of the decoder. Always get a copy for given
          decoder invocation*/
@@ -1259,6 +1342,12 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     void flushDSPCofig(DecoderConfig d) {
         d.dspBlockDCOffset=jcbBlockDCOffset.isSelected();
         d.dspSchmittHysteresis=(Integer)jspSchmitt.getValue();
+        d.dspSchmittAdaptive=jcbDSPAdaptiveSchmitt.isSelected();
+        d.dspFilterType=jcoDSPFilter.getSelectedIndex();
+        d.dspFilterFrequency=(Integer)jspDSPFilterFrequency.getValue();
+        d.dspMovingAverage=(Integer)jspDSPMovingAverage.getValue();
+        d.dspAutomaticGain=jcbDSPAutomaticGain.isSelected();
+        d.dspAdaptiveThreshold=jcbDSPAdaptiveThreshold.isSelected();
     }
 
     void flushTurbo2000AndSuperTurboConfig(DecoderConfig d) {
@@ -1295,6 +1384,12 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
     private void suckDSPConfig(DecoderConfig d) {
         jcbBlockDCOffset.setSelected(d.dspBlockDCOffset);
         jspSchmitt.setValue(d.dspSchmittHysteresis);
+        jcbDSPAdaptiveSchmitt.setSelected(d.dspSchmittAdaptive);
+        jcoDSPFilter.setSelectedIndex(d.dspFilterType);
+        jspDSPFilterFrequency.setValue(Math.max(100, Math.min(20_000, d.dspFilterFrequency)));
+        jspDSPMovingAverage.setValue(d.dspMovingAverage);
+        jcbDSPAutomaticGain.setSelected(d.dspAutomaticGain);
+        jcbDSPAdaptiveThreshold.setSelected(d.dspAdaptiveThreshold);
     }
 
     void suckTurbo2000AndSuperTurboConfig(DecoderConfig d) {
@@ -1400,7 +1495,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
         }
 
         /*Stop button is pressed - WAVE*/
-        if (decoder instanceof WavePulseDecoder) {
+        if (decoder.isPositionable()) {
             decoder.requestStop(false);
         } /*Stop button for Audio input - SHIFT means emergency STOP*/ else {
             boolean b = false;
@@ -1546,7 +1641,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
         }
 
         String s = (String) jcoSignalSource.getSelectedItem();
-        if (s.equalsIgnoreCase("WAVE file")) {
+        if (s.startsWith("WAVE file")) {
             setWaveInputSourceComponentsEnabled(true);
         } else {
             setWaveInputSourceComponentsEnabled(false);
@@ -1592,30 +1687,85 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
      */
     @Override
     public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
-        final DecoderMessage fmsg = msg;
 
         if (fromExternalThread == false) {
-            logModel.addMessage(fmsg);
+            /*Keep order with messages still queued*/
+            drainMessages(Integer.MAX_VALUE);
+            logModel.addMessage(msg);
         } else {
-            try {
-                SwingUtilities.invokeAndWait(new Runnable() {
-                    @Override
-                    public void run() {
-                        logModel.addMessage(fmsg);
-                    }
-                });
-            } catch (InterruptedException | InvocationTargetException ie) {
-            }
+            enqueueMessage(msg);
         }
     }
 
+    /**
+     * Records are not shown, the log already has the same information
+     *
+     * @param record
+     * @param fromExternalThread
+     */
+    @Override
+    public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+    }
+
     /**
      *
      * @param fromExternalThread
      */
     @Override
     public void clearAllMessages(boolean fromExternalThread) {
-        logModel.clearAllMessages();
+
+        if (fromExternalThread == false) {
+            while (pendingMessages.poll() != null) {
+                pendingCount.decrementAndGet();
+            }
+            logModel.clearAllMessages();
+        } else {
+            enqueueMessage(CLEAR_MESSAGES);
+        }
+    }
+
+    /*Called by the decoding thread only, the event dispatch thread never waits for it*/
+    private void enqueueMessage(DecoderMessage msg) {
+        while (pendingCount.get() >= MAX_PENDING_MESSAGES) {
+            scheduleDrain();
+            LockSupport.parkNanos(PENDING_WAIT_NANOS);
+        }
+        pendingCount.incrementAndGet();
+        pendingMessages.add(msg);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(messageDrainer);
+        }
+    }
+
+    /**
+     * Move queued messages to the log model. Must be called from the event
+     * dispatch thread
+     *
+     * @param maxMessages Maximum number of messages moved
+     */
+    private void drainMessages(int maxMessages) {
+
+        DecoderMessage msg;
+        int count = 0;
+
+        while (count < maxMessages && (msg = pendingMessages.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (msg == CLEAR_MESSAGES) {
+                messageBatch.clear();
+                logModel.clearAllMessages();
+            } else {
+                messageBatch.add(msg);
+            }
+            count++;
+        }
+
+        /*Whole batch is announced to the list at once*/
+        logModel.addMessages(messageBatch);
+        messageBatch.clear();
     }
 
     private void initLogModel() {
@@ -1655,7 +1805,7 @@ private void jtfSampleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
         @Override
         public Component getListCellRendererComponent(JList<? extends DecoderMessage> list, DecoderMessage value, int index, boolean isSelected, boolean cellHasFocus) {
 
-            DecoderMessage msg = (list.getModel().getElementAt(index));
+            DecoderMessage msg = value;
 
             setText(msg.getMessage());
 
@@ -4,6 +4,8 @@ public interface DecoderLog {
 
     public void addMessage(DecoderMessage msg, boolean fromExternalThread);
 
+    public void addRecord(DecodeRecord record, boolean fromExternalThread);
+
     public void clearAllMessages(boolean fromExternalThread);
 
     public void impulse(boolean fromExternalThread);
@@ -5,16 +5,38 @@
  */
 package turbodecoder.decoder;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.AbstractListModel;
+import turbodecoder.Utils;
 
 /**
+ * List model of the decoder log. Most recent messages are kept in memory in a
+ * ring, older messages are spilled to disk and read back in pages when the
+ * list shows them. Memory use does not depend on the number of messages
  *
  * @author  
  */
 public class DecoderLogModel extends AbstractListModel<DecoderMessage> {
 
-    private final ArrayList<DecoderMessage> messages = new ArrayList<>();
+    private static final int MEMORY_CAPACITY = 16_384;
+    private static final int PAGE_SIZE = 256;
+    private static final int PAGE_CACHE_SIZE = 8;
+
+    private final DecoderMessage[] recent = new DecoderMessage[MEMORY_CAPACITY];
+    private int size = 0;
+
+    private final MessageSpool spool = new MessageSpool();
+    private boolean spoolFailed = false;
+    private final Map<Integer, DecoderMessage[]> pages = new LinkedHashMap<Integer, DecoderMessage[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, DecoderMessage[]> eldest) {
+            return size() > PAGE_CACHE_SIZE;
+        }
+    };
 
     /**
      *
@@ -22,7 +44,7 @@ public class DecoderLogModel extends AbstractListModel<DecoderMessage> {
      */
     @Override
     public int getSize() {
-        return messages.size();
+        return size;
     }
 
     /**
@@ -32,22 +54,83 @@ public class DecoderLogModel extends AbstractListModel<DecoderMessage> {
      */
     @Override
     public DecoderMessage getElementAt(int index) {
-        return messages.get(index);
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        /*Message still in memory*/
+        if (index >= size - MEMORY_CAPACITY) {
+            return recent[index % MEMORY_CAPACITY];
+        }
+
+        /*Message spilled to disk*/
+        if (spoolFailed == true) {
+            return new DecoderMessage("LOG", "Message is not available", DecoderMessage.SEV_ERROR);
+        }
+
+        int pageIndex = index / PAGE_SIZE;
+        DecoderMessage[] page = pages.get(pageIndex);
+        if (page == null) {
+            int first = pageIndex * PAGE_SIZE;
+            try {
+                page = spool.read(first, Math.min(PAGE_SIZE, spool.getCount() - first));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return new DecoderMessage("LOG", Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR);
+            }
+            /*Last page may be still growing, only complete pages are cached*/
+            if (page.length == PAGE_SIZE) {
+                pages.put(pageIndex, page);
+            }
+        }
+        return page[index - pageIndex * PAGE_SIZE];
     }
 
     void addMessage(DecoderMessage msg) {
-        messages.add(msg);
-        fireIntervalAdded(this, messages.size() - 1, messages.size() - 1);
+        store(msg);
+        fireIntervalAdded(this, size - 1, size - 1);
+    }
+
+    void addMessages(List<DecoderMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int first = size;
+        for (DecoderMessage msg : batch) {
+            store(msg);
+        }
+        fireIntervalAdded(this, first, size - 1);
     }
 
     void clearAllMessages() {
-        int formerSize = messages.size();
-        if (formerSize==0) return;
-        messages.clear();
+        int formerSize = size;
+        if (formerSize == 0) {
+            return;
+        }
+        Arrays.fill(recent, null);
+        size = 0;
+        pages.clear();
+        spool.clear();
+        spoolFailed = false;
         fireIntervalRemoved(this, 0, formerSize - 1);
     }
 
-    ArrayList<DecoderMessage> getMessages() {
-        return messages;
+    private void store(DecoderMessage msg) {
+
+        int slot = size % MEMORY_CAPACITY;
+
+        /*Oldest message in memory is spilled to disk*/
+        if (size >= MEMORY_CAPACITY && spoolFailed == false) {
+            try {
+                spool.append(recent[slot]);
+            } catch (IOException e) {
+                e.printStackTrace();
+                spoolFailed = true;
+            }
+        }
+
+        recent[slot] = msg;
+        size++;
     }
 }
@@ -32,10 +32,40 @@ public class DecoderMessage {
     public static final int SEV_SAVE = 4;
 
     private final int severity;
-    private final String messageText;
+    private final String prefix;
+    private final Object message;
+    private String messageText;
 
     public DecoderMessage(String prefix, String message, int severity) {
-        messageText = "[" + prefix + "] " + message;
+        this.prefix = prefix;
+        this.message = message;
+        this.severity = severity;
+    }
+
+    /**
+     * Create message of a block decoder event. The text is formatted when the
+     * message is first displayed
+     *
+     * @param prefix Prefix
+     * @param event Event
+     * @param severity Severity
+     */
+    public DecoderMessage(String prefix, DecoderEvent event, int severity) {
+        this.prefix = prefix;
+        this.message = event;
+        this.severity = severity;
+    }
+
+    /**
+     * Create message with complete text, including prefix
+     *
+     * @param messageText Message text
+     * @param severity Severity
+     */
+    DecoderMessage(String messageText, int severity) {
+        this.prefix = null;
+        this.message = null;
+        this.messageText = messageText;
         this.severity = severity;
     }
 
@@ -43,8 +73,28 @@ public class DecoderMessage {
         return severity;
     }
 
+    /**
+     * Get event of a message whose text was not formatted yet
+     *
+     * @return Event or null
+     */
+    DecoderEvent getPendingEvent() {
+        return messageText == null && message instanceof DecoderEvent ? (DecoderEvent) message : null;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
     public String getMessage() {
-        return messageText;
+        /*Formatting is deferred until the text is needed. Concurrent callers
+        may format it twice, but always get the same text*/
+        String text = messageText;
+        if (text == null) {
+            text = "[" + prefix + "] " + message;
+            messageText = text;
+        }
+        return text;
     }
 
 }
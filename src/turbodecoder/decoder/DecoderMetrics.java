@@ -0,0 +1,244 @@
+package turbodecoder.decoder;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Throughput counters of all decoders of the process. Pulse decoders and
+ * block decoders add their counts once per block of samples or per decoded
+ * block, so that counting costs nothing in the sample loops. The counters
+ * can be watched live through JMX, under the name
+ * turbodecoder:type=DecoderMetrics
+ */
+public final class DecoderMetrics implements DecoderMetricsMBean {
+
+    /**
+     * Name of the MBean
+     */
+    public static final String OBJECT_NAME = "turbodecoder:type=DecoderMetrics";
+
+    private static final DecoderMetrics INSTANCE = new DecoderMetrics();
+    private static boolean registered = false;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder edges = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder dspNanos = new LongAdder();
+    private final LongAdder pilotTones = new LongAdder();
+    private final LongAdder pilotSearchNanos = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder checksumsVerified = new LongAdder();
+    private final LongAdder checksumFailures = new LongAdder();
+    private final LongAdder audioOverruns = new LongAdder();
+    private final LongAdder lostSamples = new LongAdder();
+    private volatile long startNanos;
+
+    private DecoderMetrics() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     *
+     * @return Metrics of the process
+     */
+    public static DecoderMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make the metrics available to JMX clients. Failure to register is not
+     * fatal, the metrics are still counted
+     */
+    public static synchronized void register() {
+        if (registered == true) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Add block of samples read by a pulse decoder
+     *
+     * @param count Number of samples
+     * @param readTime Time spent reading the samples, in nanoseconds
+     * @param dspTime Time spent converting the samples to logical levels, in
+     * nanoseconds
+     */
+    public void addSamples(long count, long readTime, long dspTime) {
+        samples.add(count);
+        readNanos.add(readTime);
+        dspNanos.add(dspTime);
+    }
+
+    /**
+     * Add edges found by a pulse decoder
+     *
+     * @param count Number of edges
+     */
+    public void addEdges(long count) {
+        if (count != 0L) {
+            edges.add(count);
+        }
+    }
+
+    /**
+     * Add audio capture overruns
+     *
+     * @param overruns Number of overruns
+     * @param lost Number of samples lost
+     */
+    public void addOverruns(long overruns, long lost) {
+        audioOverruns.add(overruns);
+        lostSamples.add(lost);
+    }
+
+    /**
+     * Add search for pilot tone
+     *
+     * @param time Time of the search, in nanoseconds
+     * @param found Whether pilot tone was found
+     */
+    void addPilotSearch(long time, boolean found) {
+        pilotSearchNanos.add(time);
+        if (found == true) {
+            pilotTones.increment();
+        }
+    }
+
+    /**
+     * Add block with some data decoded
+     *
+     * @param validBytes Valid bytes of the block
+     * @param errorCode Error code of the block
+     */
+    void addBlock(int validBytes, int errorCode) {
+        blocks.increment();
+        bytes.add(validBytes);
+        if (errorCode == BlockDecodeResult.BAD_CHSUM || errorCode == BlockDecodeResult.OK_CHSUM_WARNING) {
+            checksumsVerified.increment();
+            checksumFailures.increment();
+        } else if (errorCode == BlockDecodeResult.OK) {
+            checksumsVerified.increment();
+        }
+    }
+
+    @Override
+    public long getSamples() {
+        return samples.sum();
+    }
+
+    @Override
+    public double getSamplesPerSecond() {
+        return perSecond(samples.sum());
+    }
+
+    @Override
+    public long getEdges() {
+        return edges.sum();
+    }
+
+    @Override
+    public double getEdgesPerSecond() {
+        return perSecond(edges.sum());
+    }
+
+    @Override
+    public long getReadTimeMillis() {
+        return readNanos.sum() / 1_000_000L;
+    }
+
+    @Override
+    public long getDSPTimeMillis() {
+        return dspNanos.sum() / 1_000_000L;
+    }
+
+    @Override
+    public long getPilotTones() {
+        return pilotTones.sum();
+    }
+
+    @Override
+    public long getPilotToneSearchTimeMillis() {
+        return pilotSearchNanos.sum() / 1_000_000L;
+    }
+
+    @Override
+    public long getBlocks() {
+        return blocks.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return perSecond(bytes.sum());
+    }
+
+    @Override
+    public long getChecksumsVerified() {
+        return checksumsVerified.sum();
+    }
+
+    @Override
+    public long getChecksumFailures() {
+        return checksumFailures.sum();
+    }
+
+    @Override
+    public double getChecksumFailureRate() {
+        long verified = checksumsVerified.sum();
+        return verified == 0L ? 0.0 : (double) checksumFailures.sum() / verified;
+    }
+
+    @Override
+    public long getAudioOverruns() {
+        return audioOverruns.sum();
+    }
+
+    @Override
+    public long getLostSamples() {
+        return lostSamples.sum();
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Clear all counters. Counts added meanwhile by running decoders may be
+     * partly lost
+     */
+    @Override
+    public void reset() {
+        samples.reset();
+        edges.reset();
+        readNanos.reset();
+        dspNanos.reset();
+        pilotTones.reset();
+        pilotSearchNanos.reset();
+        blocks.reset();
+        bytes.reset();
+        checksumsVerified.reset();
+        checksumFailures.reset();
+        audioOverruns.reset();
+        lostSamples.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private double perSecond(long count) {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0.0 ? count / elapsed : 0.0;
+    }
+
+}
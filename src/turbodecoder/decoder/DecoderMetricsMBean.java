@@ -0,0 +1,44 @@
+package turbodecoder.decoder;
+
+/**
+ * Management interface of decoder metrics. Counts are totals since start or
+ * since the last reset, rates are averages over the same period
+ */
+public interface DecoderMetricsMBean {
+
+    public long getSamples();
+
+    public double getSamplesPerSecond();
+
+    public long getEdges();
+
+    public double getEdgesPerSecond();
+
+    public long getReadTimeMillis();
+
+    public long getDSPTimeMillis();
+
+    public long getPilotTones();
+
+    public long getPilotToneSearchTimeMillis();
+
+    public long getBlocks();
+
+    public long getBytes();
+
+    public double getBytesPerSecond();
+
+    public long getChecksumsVerified();
+
+    public long getChecksumFailures();
+
+    public double getChecksumFailureRate();
+
+    public long getAudioOverruns();
+
+    public long getLostSamples();
+
+    public double getElapsedSeconds();
+
+    public void reset();
+}
@@ -0,0 +1,76 @@
+package turbodecoder.decoder;
+
+/**
+ * Creates file decoders for turbo systems
+ */
+class FileDecoderFactory {
+
+    private FileDecoderFactory() {
+    }
+
+    /**
+     * Create file decoder
+     *
+     * @param turboType Turbo system, one of the FileDecoder constants
+     * @param monitorMode Create monitor instead of file decoder
+     * @return File decoder or null for unknown turbo system
+     */
+    static FileDecoder createFileDecoder(int turboType, boolean monitorMode) {
+
+        if (monitorMode) {
+            return new TurboMonitorDecoder(turboType);
+        }
+
+        switch (turboType) {
+            case FileDecoder.CS_TURBO_2000: {
+                return new Turbo2000FileDecoder();
+            }
+            case FileDecoder.CS_TURBO_2000_KB: {
+                return new KBlockFileDecoder();
+            }
+            case FileDecoder.CS_SUPER_TURBO: {
+                return new UniversalTurboFileDecoder();
+            }
+            case FileDecoder.CS_TURBO_TAPE: {
+                return new TurboTapeDecoder();
+            }
+            case FileDecoder.PL_KSO_TURBO_2000: {
+                return new KSOTurbo2000FileDecoder();
+            }
+            case FileDecoder.PL_TURBO_BLIZZARD: {
+                return new TurboBlizzardFileDecoder();
+            }
+            case FileDecoder.PL_TURBO_ROM: {
+                return new TurboRomFileDecoder();
+            }
+            case FileDecoder.PL_ATARI_SUPER_TURBO: {
+                return new ASTFileDecoder();
+            }
+            case FileDecoder.PL_HARD_TURBO: {
+                return new HardTurboFileDecoder();
+            }
+            case FileDecoder.PL_LOWER_SILESIA_TURBO_2000: {
+                return new LowerSilesianTurbo2000FileDecoder();
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Find turbo system by its brief name
+     *
+     * @param briefName Brief name, see FileDecoder.turboSystemBriefNames
+     * @return Turbo system or -1 if there is no such system
+     */
+    static int getTurboType(String briefName) {
+        for (int i = 0; i < FileDecoder.turboSystemBriefNames.length; i++) {
+            if (FileDecoder.turboSystemBriefNames[i].equalsIgnoreCase(briefName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
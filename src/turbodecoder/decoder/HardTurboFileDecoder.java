@@ -14,6 +14,7 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
     private BlockDecoder blockDecoder;
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -28,8 +29,10 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
         this.log = log;
-        blockDecoder = new Turbo2000BlockDecoder(d, config, 256);
-        blockDecoder.setBlockDecoderListener(this);
+        if (reuse.isReusable(d, config) == false) {
+            blockDecoder = new Turbo2000BlockDecoder(d, config, 256);
+            blockDecoder.setBlockDecoderListener(this);
+        }
 
         return decodeNaturalFormat(outdir, d, config);
 
@@ -79,8 +82,6 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
         int errorCode;
 
         int[] mainHeader;
-        int[] segmentHeader;
-        int[] segmentData;
 
         /*Try to decode main header segment (41 bytes)*/
         while (true) {
@@ -118,10 +119,29 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
                 new DecoderMessage(MSG_PFX, "Main header: " + headerFileName + "<" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
+        /*Segments are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeSegments(outdir, mainHeader, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
+
+    }
+
+    private boolean decodeSegments(String outdir, int[] mainHeader, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
+
+        BlockDecodeResult bdr;
+        int errorCode;
+
+        int[] segmentHeader;
+        int[] segmentData;
+
         /*Keep reading segment header and segment data pairs*/
-        FileDataCache cache = new FileDataCache(16_384);
-        cache.add(255);
-        cache.add(255);
+        out.write(255);
+        out.write(255);
 
         /*Decode segment header, segment data pairs*/
         while (true) {
@@ -177,11 +197,11 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
                 return true;
             }
 
-            /*Place segment header to the cache*/
-            cache.add(firstAddr % 256);
-            cache.add(firstAddr / 256);
-            cache.add(lastAddr % 256);
-            cache.add(lastAddr / 256);
+            /*Write segment header*/
+            out.write(firstAddr % 256);
+            out.write(firstAddr / 256);
+            out.write(lastAddr % 256);
+            out.write(lastAddr / 256);
             if (config.genVerboseMessages == true) {
                 log.addMessage(
                         new DecoderMessage(MSG_PFX, "Segment header: " + Integer.toString(firstAddr) + "-" + Integer.toString(lastAddr) + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_DETAIL),
@@ -218,10 +238,8 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
                 return true;
             }
 
-            /*Place segment data to the cache*/
-            for (int i = 1; i < segmentData.length - 1; i++) {
-                cache.add(segmentData[i]);
-            }
+            /*Write segment data*/
+            Utils.writeBytes(out, segmentData, 1, segmentData.length - 2);
             if (config.genVerboseMessages == true) {
                 log.addMessage(
                         new DecoderMessage(MSG_PFX, "Segment data: " + Integer.toString(segmentData.length) + " bytes <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_DETAIL),
@@ -232,41 +250,13 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
 
         String fspec = constructFilespec(outdir, mainHeader, 0, firstFileSample, config.genPrependSampleNumber, true);
 
-        /*Decoding finished - save binary file*/
-        FileOutputStream fos;
-        BufferedOutputStream bos = null;
-
-        int[] data = cache.getBytes();
-
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
-            for (int i = 0; i < data.length; i++) {
-                bos.write(data[i]);
-            }
-
-            /*Finish file operation*/
-            bos.flush();
-            bos.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                if (bos != null) {
-                    bos.close();
-                }
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
-            return true;
-        }
+        /*Decoding finished - move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), null, bdr, fspec), true);
         return true;
 
     }
@@ -277,9 +267,13 @@ public class HardTurboFileDecoder implements FileDecoder, BlockDecoderListener {
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
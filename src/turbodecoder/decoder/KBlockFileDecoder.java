@@ -18,6 +18,7 @@ public class KBlockFileDecoder implements FileDecoder, BlockDecoderListener {
     private BlockDecoder decoder;
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -31,17 +32,18 @@ public class KBlockFileDecoder implements FileDecoder, BlockDecoderListener {
     @Override
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
-        if (config != null && config.genPreferAdaptiveSpeedDetection == true) {
-            decoder = new SuperTurboBlockDecoder(d, config, 256);
-        } else {
-            decoder = new Turbo2000BlockDecoder(d, config, 256);
+        if (reuse.isReusable(d, config) == false) {
+            if (config != null && config.genPreferAdaptiveSpeedDetection == true) {
+                decoder = new SuperTurboBlockDecoder(d, config, 256);
+            } else {
+                decoder = new Turbo2000BlockDecoder(d, config, 256);
+            }
+            decoder.setBlockDecoderListener(this);
         }
 
         this.log = log;
-        decoder.setBlockDecoderListener(this);
 
         int[] header;
-        int[] data;
 
         BlockDecodeResult bdr = null;
         int errCode;
@@ -83,155 +85,131 @@ public class KBlockFileDecoder implements FileDecoder, BlockDecoderListener {
                 new DecoderMessage(MSG_PFX, "HEADER: " + Utils.kblockHeaderToString(header) + "<" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
-        byte[] ba = null;
-        ByteArrayOutputStream baos = null;
-        DataOutputStream dos = null;
+        /*Blocks are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeBlocks(outdir, header, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
 
-        try {
+    }
 
-            baos = new ByteArrayOutputStream();
-            dos = new DataOutputStream(baos);
+    private boolean decodeBlocks(String outdir, int[] header, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
 
-            boolean quitme = false;
-            boolean expectEOF = false;
-            boolean error = false;
+        int[] data;
+        BlockDecodeResult bdr = null;
+        int errCode = 0;
 
-            int blockCount = 0;
+        boolean quitme = false;
+        boolean expectEOF = false;
+        boolean error = false;
 
-            outerLoop:
-            while (quitme == false) {
+        int blockCount = 0;
 
-                /*Read block*/
-                bdr = decoder.decodeBlock(1_026);
-                errCode = bdr.getErrorCode();
+        outerLoop:
+        while (quitme == false) {
 
-                blockCount++;
+            /*Read block*/
+            bdr = decoder.decodeBlock(1_026);
+            errCode = bdr.getErrorCode();
 
-                /*Block not obtained for any reason*/
-                if (!BlockDecodeResult.isCodeOK(errCode)) {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
-                            true);
-                    error = true;
-                    break;
-                }
+            blockCount++;
 
-                /*If not a perfect block, scream*/
-                if (!BlockDecodeResult.isCodePerfect(errCode)) {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
-                            true);
-                }
+            /*Block not obtained for any reason*/
+            if (!BlockDecodeResult.isCodeOK(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
+                        true);
+                error = true;
+                break;
+            }
+
+            /*If not a perfect block, scream*/
+            if (!BlockDecodeResult.isCodePerfect(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                        true);
+            }
 
-                data = bdr.getData();
-
-                /*According to the block type, do the resolution*/
-                switch (data[0]) {
-                    /*Full block*/
-                    case 255: {
-                        if (expectEOF == true) {
-                            log.addMessage(
-                                    new DecoderMessage(MSG_PFX, "ERROR: Expected EOF block, but found FULL block {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
-                                    true);
-                            error = true;
-                            break outerLoop;
-                        }
-                        for (int i = 1; i < 1_025; i++) {
-                            dos.write(data[i]);
-                        }
-                        break;
+            data = bdr.getData();
+
+            /*According to the block type, do the resolution*/
+            switch (data[0]) {
+                /*Full block*/
+                case 255: {
+                    if (expectEOF == true) {
+                        log.addMessage(
+                                new DecoderMessage(MSG_PFX, "ERROR: Expected EOF block, but found FULL block {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
+                                true);
+                        error = true;
+                        break outerLoop;
                     }
-                    /*EOF block*/
-                    case 250: {
-                        quitme = true;
-                        break;
+                    Utils.writeBytes(out, data, 1, 1_024);
+                    break;
+                }
+                /*EOF block*/
+                case 250: {
+                    quitme = true;
+                    break;
+                }
+                /*Others*/
+                default: {
+
+                    if (expectEOF == true) {
+                        log.addMessage(
+                                new DecoderMessage(MSG_PFX, "ERROR: Expected EOF block, but found PARTIAL block {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
+                                true);
+                        error = true;
+                        break outerLoop;
                     }
-                    /*Others*/
-                    default: {
-
-                        if (expectEOF == true) {
-                            log.addMessage(
-                                    new DecoderMessage(MSG_PFX, "ERROR: Expected EOF block, but found PARTIAL block {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
-                                    true);
-                            error = true;
-                            break outerLoop;
-                        }
-
-                        if (data[0] >= 251) {
-                            int hi = data[0] - 251;
-                            int lo = data[1_024];
-                            int ln = hi * 256 + lo;
-                            for (int i = 0; i < ln; i++) {
-                                dos.write(data[1 + i]);
-                            }
-                            expectEOF = true;
-                        } else {
-                            log.addMessage(
-                                    new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
-                                    true);
-                            error = true;
-                            break outerLoop;
-                        }
+
+                    if (data[0] >= 251) {
+                        int hi = data[0] - 251;
+                        int lo = data[1_024];
+                        int ln = hi * 256 + lo;
+                        Utils.writeBytes(out, data, 1, ln);
+                        expectEOF = true;
+                    } else {
+                        log.addMessage(
+                                new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
+                                true);
+                        error = true;
+                        break outerLoop;
                     }
                 }
-
             }
 
+        }
 
-            /*We are out of the outerLoop*/
-            ba = baos.toByteArray();
-            dos.close();
-
-            if (error == true) {
-                if (errCode == PulseDecoder.PD_EOF || errCode == PulseDecoder.PD_ERROR || errCode == WavePulseDecoder.PD_USER_BREAK) {
-                    return false;
-                } else {
-                    return true;
-                }
-            }
 
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR), true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
+        /*We are out of the outerLoop*/
+        if (error == true) {
+            if (errCode == PulseDecoder.PD_EOF || errCode == PulseDecoder.PD_ERROR || errCode == WavePulseDecoder.PD_USER_BREAK) {
+                return false;
+            } else {
+                return true;
             }
-            return true;
         }
 
         /*Construct output filespec*/
-        String fspec = constructFilespec(outdir, header, ba, firstFileSample, config.genPrependSampleNumber);
-
-        /*Flush data to disk*/
-        RandomAccessFile raf = null;
+        out.flush();
+        String fspec = constructFilespec(outdir, header, out.getTempFile(), firstFileSample, config.genPrependSampleNumber);
 
-        try {
-            raf = new RandomAccessFile(fspec, "rw");
-            raf.setLength(0L);
-            raf.write(ba);
-            raf.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                raf.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
-            }
-            return true;
-        }
+        /*Move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec, DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), Utils.kblockHeaderToString(header), bdr, fspec), true);
         return true;
 
     }
 
-    String constructFilespec(String outdir, int[] headerData, byte[] fileData, long sample, boolean prependSample) throws Exception {
+    String constructFilespec(String outdir, int[] headerData, File dataFile, long sample, boolean prependSample) throws Exception {
 
         /*First, we construct namebase, removing all
          *dangerous characters*/
@@ -245,9 +223,9 @@ public class KBlockFileDecoder implements FileDecoder, BlockDecoderListener {
         String xtension = ".kbdat";
 
         /*Check whether file happens to be binary file*/
-        DOS2Binary dtb = new DOS2Binary("");
+        DOS2Binary dtb = new DOS2Binary(dataFile.getPath());
         try {
-            dtb.analyzeFromData(Utils.getAsIntArray(fileData));
+            dtb.analyzeFromFile();
             xtension = ".xex";
         } catch (IOException | DOS2BinaryException e) {
             /*Intentionally blank*/
@@ -278,9 +256,13 @@ public class KBlockFileDecoder implements FileDecoder, BlockDecoderListener {
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -22,6 +22,7 @@ public class KSOTurbo2000BlockDecoder implements BlockDecoder, BlockDecoderListe
     private final PulseDecoder decoder;
     private final DecoderConfig config;
     private int validBytes;
+    private final BlockBuffers buffers = new BlockBuffers(1);
     private BlockDecoderListener blockDecoderListener = null;
     private int firstBlockBit;
     private int validBits;
@@ -48,17 +49,18 @@ public class KSOTurbo2000BlockDecoder implements BlockDecoder, BlockDecoderListe
     public BlockDecodeResult decodeBlock(int dataLength, Object constraint) {
 
         int r;
-        int data[] = new int[dataLength];
+        int data[] = buffers.get(0, dataLength);
         validBytes = 0;
 
         if (blockDecoderListener == null) {
             blockDecoderListener = this;
         }
+        buffers.begin(decoder.getCurrentSample(), config.genBlockRecords ? blockDecoderListener : null);
 
         /*Verbose - Display decoder settings*/
         if (config.genVerboseMessages) {
             blockDecoderListener.blockDecodeEvent(
-                    String.format("Pulse ranges: NL %d,WL %d, WH %d, MP %d",
+                    DecoderEvent.pulseRanges(
                             NARROW_LO,
                             WIDE_LO,
                             WIDE_HI,
@@ -72,21 +74,23 @@ public class KSOTurbo2000BlockDecoder implements BlockDecoder, BlockDecoderListe
             /*Wait for pilot tone*/
             r = waitForPilot();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
             }
 
+            buffers.pilotFound();
+
             /*Verbose - Pilot Tone*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Pilot tone found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.pilotTone(decoder.getCurrentSample()));
             }
 
             /*Wait for first bit*/
             r = waitForFirstBit();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
@@ -94,7 +98,7 @@ public class KSOTurbo2000BlockDecoder implements BlockDecoder, BlockDecoderListe
 
             /*Verbose - Sync pulse*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("First data bit found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.firstDataBit(decoder.getCurrentSample()));
             }
 
             if (blockDecoderListener != null) {
@@ -108,32 +112,32 @@ public class KSOTurbo2000BlockDecoder implements BlockDecoder, BlockDecoderListe
 
                 /*Verbose - What data obtained*/
                 if (config.genVerboseMessages) {
-                    blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + "/"+validBits+" "+ decoder.getCurrentSampleString());
+                    blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes, validBits));
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             } /*Data obtained*/ else {
 
                 /*Not acceptable - too short*/
                 if (data.length < 3) {
-                    return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
+                    return buffers.result(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
                 }
                 /*Checksum verify*/
                 boolean b = Utils.checkKSOBlock(data);
                 
                 if (config.genVerboseMessages) {
-                    blockDecoderListener.blockDecodeEvent("Block decoded:" + validBytes + "/"+validBits+" "+ decoder.getCurrentSampleString());
+                    blockDecoderListener.blockDecodeEvent(DecoderEvent.blockDecoded(decoder.getCurrentSample(), validBytes, validBits));
                 }
 
                 if (b == false) {
                     if (config.genIgnoreBadSum == false) {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
                     } else {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
                     }
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             }
 
         }
@@ -21,6 +21,7 @@ public class KSOTurbo2000FileDecoder implements FileDecoder, BlockDecoderListene
     private BlockDecoder decoder;
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -34,14 +35,14 @@ public class KSOTurbo2000FileDecoder implements FileDecoder, BlockDecoderListene
     @Override
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
-        decoder = new KSOTurbo2000BlockDecoder(d, config);
+        if (reuse.isReusable(d, config) == false) {
+            decoder = new KSOTurbo2000BlockDecoder(d, config);
+            decoder.setBlockDecoderListener(this);
+        }
 
         this.log = log;
-        decoder.setBlockDecoderListener(this);
 
         int[] header;
-        int[] data;
-        int foundBlockType;
 
         BlockDecodeResult bdr = null;
         int errCode;
@@ -83,162 +84,138 @@ public class KSOTurbo2000FileDecoder implements FileDecoder, BlockDecoderListene
                 new DecoderMessage(MSG_PFX, "HEADER: " + headerToString(header) + "<" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
-        byte[] ba = null;
-        ByteArrayOutputStream baos = null;
-        DataOutputStream dos = null;
+        /*Handle file with loader - skip one block*/
+        if (config.ksoTurbo2000FileFormat == DecoderConfig.PL_KSO_TURBO_2000_FORMAT_WITH_LOADER) {
+            bdr = decoder.decodeBlock(3_075);
+            errCode = bdr.getErrorCode();
 
-        try {
+            if (!BlockDecodeResult.isCodeOK(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
+                        true);
+            } else {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, "Loader decoded and skipped", DecoderMessage.SEV_DETAIL), true
+                );
+            }
 
-            baos = new ByteArrayOutputStream();
-            dos = new DataOutputStream(baos);
+            if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
+                return false;
+            }
 
-            boolean quitme = false;
-            boolean error = false;
-            int blockCount = 0;
+        }
 
-            /*Handle file with loader - skip one block*/
-            if (config.ksoTurbo2000FileFormat == DecoderConfig.PL_KSO_TURBO_2000_FORMAT_WITH_LOADER) {
-                bdr = decoder.decodeBlock(3_075);
-                errCode = bdr.getErrorCode();
+        /*Blocks are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeBlocks(outdir, header, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
 
-                if (!BlockDecodeResult.isCodeOK(errCode)) {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
-                            true);
-                } else {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, "Loader decoded and skipped", DecoderMessage.SEV_DETAIL), true
-                    );
-                }
+    }
 
-                if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
-                    return false;
-                }
+    private boolean decodeBlocks(String outdir, int[] header, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
+
+        int[] data;
+        int foundBlockType;
+        BlockDecodeResult bdr = null;
+        int errCode = 0;
+
+        boolean quitme = false;
+        boolean error = false;
+        int blockCount = 0;
 
+        /*Decode the blocks of the file*/
+        outerLoop:
+        while (quitme == false) {
+
+            /*Read block*/
+            bdr = decoder.decodeBlock(3_075);
+            errCode = bdr.getErrorCode();
+
+            blockCount++;
+
+            /*Block not obtained for any reason*/
+            if (!BlockDecodeResult.isCodeOK(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
+                        true);
+                error = true;
+                break;
             }
 
-            /*Decode the blocks of the file*/
-            outerLoop:
-            while (quitme == false) {
+            /*Block perfect ? If not, taunt*/
+            if (!BlockDecodeResult.isCodePerfect(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                        true);
+            }
 
-                /*Read block*/
-                bdr = decoder.decodeBlock(3_075);
-                errCode = bdr.getErrorCode();
+            data = bdr.getData();
+            foundBlockType = getBlockType(data);
 
-                blockCount++;
 
-                /*Block not obtained for any reason*/
-                if (!BlockDecodeResult.isCodeOK(errCode)) {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
-                            true);
-                    error = true;
+            /*According to the block type, do the resolution*/
+            switch (foundBlockType) {
+                /*Full block*/
+                case BLOCK_FULL: {
+                    Utils.writeBytes(out, data, 2, 3_072);
+                    break;
+                }
+                /*EOF block*/
+                case BLOCK_EOF: {
+                    quitme = true;
+                    break;
+                }
+                /*Partial block*/
+                case BLOCK_PART: {
+                    int dataLen = data[0] + (data[1] << 8);
+                    Utils.writeBytes(out, data, 2, dataLen);
+                    quitme = true;
                     break;
                 }
 
-                /*Block perfect ? If not, taunt*/
-                if (!BlockDecodeResult.isCodePerfect(errCode)) {
+                /*Bad block*/
+                default: {
                     log.addMessage(
-                            new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                            new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
                             true);
+                    error = true;
+                    break outerLoop;
                 }
-
-                data = bdr.getData();
-                foundBlockType = getBlockType(data);
-
-
-                /*According to the block type, do the resolution*/
-                switch (foundBlockType) {
-                    /*Full block*/
-                    case BLOCK_FULL: {
-                        for (int i = 2; i < 3_074; i++) {
-                            dos.write(data[i]);
-                        }
-                        break;
-                    }
-                    /*EOF block*/
-                    case BLOCK_EOF: {
-                        quitme = true;
-                        break;
-                    }
-                    /*Partial block*/
-                    case BLOCK_PART: {
-                        int dataLen = data[0] + (data[1] << 8);
-                        for (int i = 0; i < dataLen; i++) {
-                            dos.write(data[2 + i]);
-                        }
-                        quitme = true;
-                        break;
-                    }
-
-                    /*Bad block*/
-                    default: {
-                        log.addMessage(
-                                new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
-                                true);
-                        error = true;
-                        break outerLoop;
-                    }
-                }
-
             }
 
+        }
 
-            /*We are out of the outerLoop*/
-            ba = baos.toByteArray();
-            dos.close();
-
-            if (error == true) {
-                if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
-                    return false;
-                } else {
-                    return true;
-                }
-            }
 
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
+        /*We are out of the outerLoop*/
+        if (error == true) {
+            if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
+                return false;
+            } else {
+                return true;
             }
-            return true;
         }
 
         /*Construct output filespec*/
-        String fspec = constructFilespec(outdir, header, ba, firstFileSample, config.genPrependSampleNumber);
-
-        /*Flush data to disk*/
-        RandomAccessFile raf = null;
+        out.flush();
+        String fspec = constructFilespec(outdir, header, out.getTempFile(), firstFileSample, config.genPrependSampleNumber);
 
-        try {
-            raf = new RandomAccessFile(fspec, "rw");
-            raf.setLength(0L);
-            raf.write(ba);
-            raf.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                raf.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
-            }
-            return true;
-        }
+        /*Move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec, DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), headerToString(header), bdr, fspec), true);
         return true;
 
     }
 
-    String constructFilespec(String outdir, int[] headerData, byte[] fileData, long sample, boolean prependSample) throws Exception {
+    String constructFilespec(String outdir, int[] headerData, File dataFile, long sample, boolean prependSample) throws Exception {
 
         /*First, we construct namebase, removing all
          *dangerous characters*/
@@ -252,9 +229,9 @@ public class KSOTurbo2000FileDecoder implements FileDecoder, BlockDecoderListene
         String xtension = ".ksodat";
 
         /*Check whether file happens to be binary file*/
-        DOS2Binary dtb = new DOS2Binary("");
+        DOS2Binary dtb = new DOS2Binary(dataFile.getPath());
         try {
-            dtb.analyzeFromData(Utils.getAsIntArray(fileData));
+            dtb.analyzeFromFile();
             xtension = ".xex";
         } catch (IOException | DOS2BinaryException e) {
             /*Intentionally blank*/
@@ -285,9 +262,13 @@ public class KSOTurbo2000FileDecoder implements FileDecoder, BlockDecoderListene
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
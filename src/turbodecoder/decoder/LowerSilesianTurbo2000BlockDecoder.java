@@ -33,8 +33,10 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
     private int SYNC_LO = 6;
 
     private final PulseDecoder decoder;
+    private final int[] pulseWidths = new int[8];
     private final DecoderConfig config;
     private int validBytes;
+    private final BlockBuffers buffers = new BlockBuffers(1);
     private BlockDecoderListener blockDecoderListener = null;
     private final int minPilotTonePulses;
     private final int mangleType;
@@ -64,18 +66,19 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
     public BlockDecodeResult decodeBlock(int dataLength, Object constraint) {
 
         int r;
-        int data[] = new int[dataLength];
+        int data[] = buffers.get(0, dataLength);
         validBytes = 0;
 
         if (blockDecoderListener == null) {
             blockDecoderListener = this;
         }
+        buffers.begin(decoder.getCurrentSample(), config.genBlockRecords ? blockDecoderListener : null);
 
         /*Verbose - Display decoder settings*/
  /*Verbose - Display decoder settings*/
         if (config.genVerboseMessages) {
             blockDecoderListener.blockDecodeEvent(
-                    String.format("Pulse ranges: SL %d,SH %d,NL %d,WL %d, WH %d,PL %d, PH %d, MP %d",
+                    DecoderEvent.pulseRanges(
                             SYNC_LO,
                             SYNC_HI,
                             NARROW_LO,
@@ -93,22 +96,24 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
             /*Wait for pilot tone*/
             r = waitForPilot();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
             }
 
+            buffers.pilotFound();
+
             /*Verbose - Pilot Tone*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Pilot tone found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.pilotTone(decoder.getCurrentSample()));
             }
 
 
             /*Wait for sync pulse*/
             r = waitForSync();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
@@ -116,7 +121,7 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
 
             /*Verbose - Sync pulse*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Sync pulse found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.syncPulse(decoder.getCurrentSample()));
             }
 
             if (blockDecoderListener != null) {
@@ -142,8 +147,7 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
                     /*Check if in right format*/
                     DOS2Binary dtb = new DOS2Binary("");
                     try {
-                        int[] userData = new int[validBytes - 2];
-                        System.arraycopy(data, 1, userData, 0, validBytes - 2);
+                        byte[] userData = Utils.getAsByteArray(data, 1, validBytes - 2);
                         dtb.analyzeFromData(userData, ((Boolean) constraint));
                     } catch (IOException | DOS2BinaryException e) {
                         e.printStackTrace();
@@ -152,9 +156,9 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
                     if (formatRight == false) {
                         /*Verbose - What data obtained*/
                         if (config.genVerboseMessages) {
-                            blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + " " + decoder.getCurrentSampleString());
+                            blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes));
                         }
-                        return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
                     }
 
                     /*Format is right, block appears to be OK*/
@@ -167,13 +171,13 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
                     if (r != PulseDecoder.PD_OK) {
                         /*Verbose - What data obtained*/
                         if (config.genVerboseMessages) {
-                            blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + " " + decoder.getCurrentSampleString());
+                            blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes));
                         }
-                        return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
                     }
                     /*Is block too short?*/
                     if (data.length < 3) {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
                     }
                     /*Check sum?*/
                     checkSumRight = Utils.checkT2KBlock(data);
@@ -184,13 +188,13 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
             /*Handle check sum*/
             if (checkSumRight == false) {
                 if (config.genIgnoreBadSum == false) {
-                    return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
+                    return buffers.result(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
                 } else {
-                    return new BlockDecodeResult(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
+                    return buffers.result(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
                 }
             }
 
-            return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+            return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
 
         }
 
@@ -278,52 +282,41 @@ public class LowerSilesianTurbo2000BlockDecoder implements BlockDecoder, BlockDe
     private int decodeData(int[] data) {
 
         /*Data*/
-        int d = 0;
-        int mask = 128;
-        int cur = 0;
         int dataLength = data.length;
 
         /*Result*/
         int r;
 
-        /*Binary file format related*/
-        while (true) {
+        for (int d = 0; d < dataLength; d++) {
 
-            /*Measure length of pulse*/
-            decoder.setCounter(0);
-            r = decoder.measurePulse();
+            /*Measure lengths of pulses of one byte*/
+            r = decoder.measurePulses(pulseWidths, 8, NARROW_LO, WIDE_HI);
 
             /*Any failure results into corrupt data block*/
-            if (r != PulseDecoder.PD_OK) {
+            if (r < 0) {
                 return r;
             }
-            int c = decoder.getCounter();
 
-            /*Determine 0 or 1*/
-            if (c >= WIDE_LO && c <= WIDE_HI) {
-                cur += mask;
-            } else if (c >= NARROW_LO && c < WIDE_LO) {
-                cur += 0;
-            } else {
-                return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
-            }
+            int cur = 0;
+            for (int i = 0; i < r; i++) {
+                int c = pulseWidths[i];
 
-            if (mask == 1) {
-                data[d] = cur;
-                validBytes++;
-                mask = 128;
-                cur = 0;
-                d++;
-            } else {
-                mask >>= 1;
+                /*Determine 0 or 1*/
+                if (c >= WIDE_LO && c <= WIDE_HI) {
+                    cur += 128 >> i;
+                } else if (c >= NARROW_LO && c < WIDE_LO) {
+                    cur += 0;
+                } else {
+                    return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
+                }
             }
 
-            if (d < dataLength) {
-            } else {
-                break;
-            }
+            data[d] = cur;
+            validBytes++;
         }
+
         return PulseDecoder.PD_OK;
+
     }
 
     /**
@@ -16,6 +16,7 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
     private String msgPrefix;
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -31,24 +32,19 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
 
         this.log = log;
 
+        if (reuse.isReusable(d, config) == false) {
+            createBlockDecoders(d, config);
+        }
+
         switch (config.lowerSilesianTurbo2000FileFormat) {
             case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_AUTOTURBO: {
-
-                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
-                blockDecoder.setBlockDecoderListener(this);
                 return decodeAutoTurbo(outdir, d, config);
             }
             case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_UE_PROTECTED:
             case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_UE_UNPROTECTED: {
-                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 24, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
-                blockDecoder.setBlockDecoderListener(this);
                 return decodeUnknownExterminator(outdir, d, config);
             }
             case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_FC10_PROTECTED: {
-                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
-                blockDecoder.setBlockDecoderListener(this);
-                blockDecoder2 = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_FUNNY_COPY_10);
-                blockDecoder2.setBlockDecoderListener(this);
                 return decodeFunnyCopy10Protected(outdir, d, config);
             }
         }
@@ -57,6 +53,31 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
 
     }
 
+    private void createBlockDecoders(PulseDecoder d, DecoderConfig config) {
+
+        switch (config.lowerSilesianTurbo2000FileFormat) {
+            case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_AUTOTURBO: {
+                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
+                break;
+            }
+            case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_UE_PROTECTED:
+            case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_UE_UNPROTECTED: {
+                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 24, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
+                break;
+            }
+            case DecoderConfig.PL_LOWER_SILESIAN_TURBO_2000_FORMAT_FC10_PROTECTED: {
+                blockDecoder = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_NONE);
+                blockDecoder2 = new LowerSilesianTurbo2000BlockDecoder(d, config, 256, LowerSilesianTurbo2000BlockDecoder.MANGLE_FUNNY_COPY_10);
+                blockDecoder2.setBlockDecoderListener(this);
+                break;
+            }
+            default: {
+                return;
+            }
+        }
+        blockDecoder.setBlockDecoderListener(this);
+    }
+
     String constructFilespec(String outdir, int[] data, int tp, long sample, boolean prependSample, boolean hasName) throws Exception {
 
         /*First we prepend sample number. We do this always if there is no file name*/
@@ -181,42 +202,24 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, header[1], firstFileSample, config.genPrependSampleNumber, true);
 
-        File f = new File(fspec);
-        f.delete();
-
         /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos = null;
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
-            for (int i = 1; i < size - 1; i++) {
-                bos.write(data[i]);
-            }
+            Utils.writeBytes(out, data, 1, size - 2);
 
             /*Finish file operation*/
-            bos.flush();
-            bos.close();
+            out.commit(fspec);
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(msgPrefix, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
-            try {
-                if (bos != null) {
-                    bos.close();
-                }
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
             return true;
         }
 
         log.addMessage(
                 new DecoderMessage(msgPrefix, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), Utils.t2kHeaderToString(header), bdr, fspec), true);
         return true;
 
     }
@@ -227,7 +230,6 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
         int errorCode;
 
         int[] dummyRunSegment;
-        int[] segmentHeader;
 
         /*Message prefix*/
         msgPrefix = "LST2000 UE";
@@ -262,10 +264,28 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
                     true);
         }
 
+        /*Segments are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeSegments(outdir, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(msgPrefix, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
+
+    }
+
+    private boolean decodeSegments(String outdir, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
+
+        BlockDecodeResult bdr;
+        int errorCode;
+
+        int[] segmentHeader;
+
         /*Keep reading segment header and segment data pairs*/
-        FileDataCache cache = new FileDataCache(16_384);
-        cache.add(255);
-        cache.add(255);
+        out.write(255);
+        out.write(255);
 
         while (true) {
 
@@ -307,8 +327,8 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
                 return true;
             }
 
-            /*Place segment header to the cache*/
-            cache.add(segmentHeader, 4);
+            /*Write segment header*/
+            Utils.writeBytes(out, segmentHeader, 0, 4);
             if (config.genVerboseMessages == true) {
                 log.addMessage(
                         new DecoderMessage(msgPrefix, "Segment header: " + Integer.toString(firstAddr) + "-" + Integer.toString(lastAddr) + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_DETAIL),
@@ -335,8 +355,8 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
                 return true;
             }
 
-            /*Place segment data to the cache*/
-            cache.add(bdr.getData(), bdr.getData().length - 1);
+            /*Write segment data*/
+            Utils.writeBytes(out, bdr.getData(), 0, bdr.getData().length - 1);
             if (config.genVerboseMessages == true) {
                 log.addMessage(
                         new DecoderMessage(msgPrefix, "Segment data: " + Integer.toString(bdr.getData().length) + " bytes <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_DETAIL),
@@ -347,41 +367,13 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
 
         String fspec = constructFilespec(outdir, null, 0, firstFileSample, config.genPrependSampleNumber, false);
 
-        /*Decoding finished - save binary file*/
-        FileOutputStream fos;
-        BufferedOutputStream bos = null;
-
-        int[] data = cache.getBytes();
-
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
-            for (int i = 0; i < data.length; i++) {
-                bos.write(data[i]);
-            }
-
-            /*Finish file operation*/
-            bos.flush();
-            bos.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(msgPrefix, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                if (bos != null) {
-                    bos.close();
-                }
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
-            return true;
-        }
+        /*Decoding finished - move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
-                new DecoderMessage(msgPrefix, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_INFO),
+                new DecoderMessage(msgPrefix, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), null, bdr, fspec), true);
         return true;
     }
 
@@ -506,9 +498,25 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
                 new DecoderMessage(msgPrefix, "Pre-data block decoded <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
-        /*Load mangled blocks that hold the binary file*/
-        FileDataCache cache = new FileDataCache();
+        /*Mangled blocks are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeMangledBlocks(outdir, header, mangledPartSize, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(msgPrefix, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
+
+    }
 
+    private boolean decodeMangledBlocks(String outdir, int[] header, int mangledPartSize, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
+
+        BlockDecodeResult bdr;
+        int errCode;
+        int[] data;
+
+        /*Load mangled blocks that hold the binary file*/
         int maxPossibleDataSize = mangledPartSize;
         int totalDataBytesDecoded = 0;
 
@@ -543,10 +551,8 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
                     true);
             data = bdr.getData();
 
-            /*Place valid bytes to the data cache*/
-            for (int i = 0; i < validBytes - 2; i++) {
-                cache.add(data[i + 1]);
-            }
+            /*Write valid bytes*/
+            Utils.writeBytes(out, data, 1, validBytes - 2);
 
             if (totalDataBytesDecoded >= mangledPartSize) {
                 break;
@@ -557,44 +563,13 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, header[1], firstFileSample, config.genPrependSampleNumber, true);
 
-        File f = new File(fspec);
-        f.delete();
-
-        /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos = null;
-
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
-            int[] finalData = cache.getBytes();
-
-            for (int i = 0; i < finalData.length; i++) {
-                bos.write(finalData[i]);
-            }
-
-            /*Finish file operation*/
-            bos.flush();
-            bos.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(msgPrefix, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                if (bos != null) {
-                    bos.close();
-                }
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
-            return true;
-        }
+        /*Move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
-                new DecoderMessage(msgPrefix, "SAVE: " + fspec, DecoderMessage.SEV_INFO),
+                new DecoderMessage(msgPrefix, "SAVE: " + fspec, DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), Utils.t2kHeaderToString(header), bdr, fspec), true);
         return true;
     }
 
@@ -604,9 +579,13 @@ public class LowerSilesianTurbo2000FileDecoder implements FileDecoder, BlockDeco
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage("LST2000", (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage("LST2000", (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -0,0 +1,232 @@
+package turbodecoder.decoder;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only disk storage of decoder messages. Records are written to a data
+ * file, offsets of the records to an index file, so that messages can be read
+ * back by their sequence number. Block decoder events that were not displayed
+ * yet are stored as numbers, so that they are formatted only when read back.
+ * Both files are temporary. They are truncated when the spool is cleared and
+ * reused for the next messages, so that clearing does not create new files.
+ * They are deleted when the spool is closed or when the program exits
+ */
+final class MessageSpool {
+
+    private static final int BUFFER_SIZE = 65_536;
+
+    /*Types of records*/
+    private static final int RECORD_TEXT = 0;
+    private static final int RECORD_EVENT = 1;
+
+    private File dataFile;
+    private File indexFile;
+    private DataOutputStream dataOut;
+    private DataOutputStream indexOut;
+    private RandomAccessFile dataIn;
+    private RandomAccessFile indexIn;
+    private long dataLength;
+    private int count;
+    private boolean flushed;
+
+    /**
+     * Create spool. Files are created when the first message is appended
+     */
+    MessageSpool() {
+        count = 0;
+        dataLength = 0;
+        flushed = true;
+    }
+
+    /**
+     * Get number of spooled messages
+     *
+     * @return Number of messages
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Append message
+     *
+     * @param msg Message
+     * @throws IOException
+     */
+    void append(DecoderMessage msg) throws IOException {
+
+        if (dataOut == null) {
+            open();
+        }
+
+        indexOut.writeLong(dataLength);
+        dataOut.writeByte(msg.getSeverity());
+
+        DecoderEvent event = msg.getPendingEvent();
+        if (event != null) {
+            byte[] prefix = msg.getPrefix().getBytes(StandardCharsets.UTF_8);
+            int[] values = event.getValues();
+            dataOut.writeByte(RECORD_EVENT);
+            dataOut.writeInt(prefix.length);
+            dataOut.write(prefix);
+            dataOut.writeByte(event.getKind());
+            dataOut.writeLong(event.getSample());
+            dataOut.writeByte(values.length);
+            for (int v : values) {
+                dataOut.writeInt(v);
+            }
+            dataLength += 16 + prefix.length + 4 * values.length;
+        } else {
+            byte[] text = msg.getMessage().getBytes(StandardCharsets.UTF_8);
+            dataOut.writeByte(RECORD_TEXT);
+            dataOut.writeInt(text.length);
+            dataOut.write(text);
+            dataLength += 6 + text.length;
+        }
+
+        count++;
+        flushed = false;
+    }
+
+    /**
+     * Read consecutive messages
+     *
+     * @param first Sequence number of the first message
+     * @param length Number of messages
+     * @return Messages
+     * @throws IOException
+     */
+    DecoderMessage[] read(int first, int length) throws IOException {
+
+        if (first < 0 || length < 0 || first + length > count) {
+            throw new IndexOutOfBoundsException("Messages " + first + "-" + (first + length) + " of " + count);
+        }
+
+        DecoderMessage[] messages = new DecoderMessage[length];
+        if (length == 0) {
+            return messages;
+        }
+
+        if (flushed == false) {
+            dataOut.flush();
+            indexOut.flush();
+            flushed = true;
+        }
+
+        /*Records are consecutive, only the boundaries are needed*/
+        long start = readOffset(first);
+        long end = first + length < count ? readOffset(first + length) : dataLength;
+
+        byte[] records = new byte[(int) (end - start)];
+        dataIn.seek(start);
+        dataIn.readFully(records);
+
+        ByteBuffer bb = ByteBuffer.wrap(records);
+        for (int i = 0; i < length; i++) {
+            int severity = bb.get();
+            int type = bb.get();
+            int textLength = bb.getInt();
+            String text = new String(records, bb.position(), textLength, StandardCharsets.UTF_8);
+            bb.position(bb.position() + textLength);
+
+            if (type == RECORD_EVENT) {
+                int kind = bb.get();
+                long sample = bb.getLong();
+                int[] values = new int[bb.get()];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = bb.getInt();
+                }
+                messages[i] = new DecoderMessage(text, DecoderEvent.of(kind, sample, values), severity);
+            } else {
+                messages[i] = new DecoderMessage(text, severity);
+            }
+        }
+
+        return messages;
+    }
+
+    /**
+     * Remove all messages. The files are truncated when the next message is
+     * added
+     */
+    void clear() {
+        closeStreams();
+        count = 0;
+        dataLength = 0;
+        flushed = true;
+    }
+
+    /**
+     * Close and delete the files
+     */
+    void close() {
+
+        closeStreams();
+
+        if (dataFile != null) {
+            dataFile.delete();
+            dataFile = null;
+        }
+        if (indexFile != null) {
+            indexFile.delete();
+            indexFile = null;
+        }
+    }
+
+    private void closeStreams() {
+
+        Closeable[] streams = {dataOut, indexOut, dataIn, indexIn};
+        for (Closeable s : streams) {
+            if (s == null) {
+                continue;
+            }
+            try {
+                s.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        dataOut = null;
+        indexOut = null;
+        dataIn = null;
+        indexIn = null;
+    }
+
+    private long readOffset(int index) throws IOException {
+        indexIn.seek(index * 8L);
+        return indexIn.readLong();
+    }
+
+    private void open() throws IOException {
+
+        try {
+            /*Files are registered for deletion on exit only once*/
+            if (dataFile == null) {
+                dataFile = File.createTempFile("turbodecoder", ".log");
+                dataFile.deleteOnExit();
+            }
+            if (indexFile == null) {
+                indexFile = File.createTempFile("turbodecoder", ".idx");
+                indexFile.deleteOnExit();
+            }
+
+            /*Opening the output streams truncates the files*/
+            dataOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile), BUFFER_SIZE));
+            indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), BUFFER_SIZE));
+            dataIn = new RandomAccessFile(dataFile, "r");
+            indexIn = new RandomAccessFile(indexFile, "r");
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+}
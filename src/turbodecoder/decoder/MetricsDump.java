@@ -0,0 +1,152 @@
+package turbodecoder.decoder;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic dump of decoder metrics to a CSV file. Every row holds the totals
+ * and the rates over the interval since the previous row. The last row is
+ * written when the dump is closed
+ */
+class MetricsDump implements Closeable {
+
+    private static final String HEADER = "seconds,samples,samplesPerSecond,edges,edgesPerSecond,readMillis,dspMillis,"
+            + "pilotTones,pilotSearchMillis,blocks,bytes,bytesPerSecond,checksumsVerified,checksumFailures,"
+            + "checksumFailureRate,audioOverruns,lostSamples";
+
+    private final DecoderMetrics metrics;
+    private final Writer writer;
+    private final ScheduledExecutorService timer;
+    private final long startNanos;
+    private long lastNanos;
+    private long lastSamples;
+    private long lastEdges;
+    private long lastBytes;
+    private long lastVerified;
+    private long lastFailures;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Create dump and start writing rows
+     *
+     * @param f CSV file
+     * @param metrics Metrics
+     * @param interval Interval between rows, in seconds
+     * @throws IOException
+     */
+    MetricsDump(File f, DecoderMetrics metrics, int interval) throws IOException {
+        this.metrics = metrics;
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8));
+        try {
+            writer.write(HEADER);
+            writer.write('\n');
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+        lastSamples = metrics.getSamples();
+        lastEdges = metrics.getEdges();
+        lastBytes = metrics.getBytes();
+        lastVerified = metrics.getChecksumsVerified();
+        lastFailures = metrics.getChecksumFailures();
+
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "MetricsDump");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        timer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                writeRow();
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private synchronized void writeRow() {
+
+        if (failure != null || closed == true) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        double seconds = (now - lastNanos) / 1e9;
+        long samples = metrics.getSamples();
+        long edges = metrics.getEdges();
+        long bytes = metrics.getBytes();
+        long verified = metrics.getChecksumsVerified();
+        long failures = metrics.getChecksumFailures();
+
+        /*Failure rate of the blocks verified within the interval*/
+        long intervalVerified = verified - lastVerified;
+        double failureRate = intervalVerified == 0L ? 0.0 : (double) (failures - lastFailures) / intervalVerified;
+
+        String row = String.format(Locale.ROOT, "%.3f,%d,%.0f,%d,%.0f,%d,%d,%d,%d,%d,%d,%.0f,%d,%d,%.4f,%d,%d\n",
+                (now - startNanos) / 1e9,
+                samples, rate(samples - lastSamples, seconds),
+                edges, rate(edges - lastEdges, seconds),
+                metrics.getReadTimeMillis(), metrics.getDSPTimeMillis(),
+                metrics.getPilotTones(), metrics.getPilotToneSearchTimeMillis(),
+                metrics.getBlocks(), bytes, rate(bytes - lastBytes, seconds),
+                verified, failures, failureRate,
+                metrics.getAudioOverruns(), metrics.getLostSamples());
+
+        try {
+            writer.write(row);
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        lastNanos = now;
+        lastSamples = samples;
+        lastEdges = edges;
+        lastBytes = bytes;
+        lastVerified = verified;
+        lastFailures = failures;
+    }
+
+    private static double rate(long count, double seconds) {
+        return seconds > 0.0 ? count / seconds : 0.0;
+    }
+
+    /**
+     * Write the last row and close the file
+     *
+     * @throws IOException When writing of some row failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        timer.shutdownNow();
+        writeRow();
+        closed = true;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+}
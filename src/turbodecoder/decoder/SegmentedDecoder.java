@@ -0,0 +1,396 @@
+package turbodecoder.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import turbodecoder.TurboDecoder;
+import turbodecoder.decoder.pulse.WavePulseDecoder;
+
+/**
+ * Decodes one WAVE file using several threads. The tape is split at long
+ * silent regions and the parts are decoded speculatively, each by its own
+ * pulse decoder, with files and messages held back. The parts are then merged
+ * in tape order. Decoding of a part is taken over only from a point where the
+ * preceding decoding started a file decode at the same sample and with the
+ * same signal state. Where there is no such point, decoding continues
+ * sequentially. Saved files and messages are the same as if the WAVE file was
+ * decoded sequentially.
+ */
+class SegmentedDecoder {
+
+    /*Silence threshold, in 16-bit units*/
+    private static final int SILENCE_LEVEL = 1_024;
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private final int turboType;
+    private final boolean monitorMode;
+    private final int channel;
+    private final DecoderConfig config;
+    private final ForkJoinPool pool;
+    private final double minGap;
+
+    private volatile boolean cancelled;
+
+    /**
+     *
+     * @param turboType Turbo system
+     * @param monitorMode Monitor mode
+     * @param channel Channel of the WAVE file
+     * @param config Decoder configuration
+     * @param pool Pool that decodes the parts
+     * @param minGap Minimum length of silence the tape is split at, in seconds
+     */
+    SegmentedDecoder(int turboType, boolean monitorMode, int channel, DecoderConfig config, ForkJoinPool pool, double minGap) {
+        this.turboType = turboType;
+        this.monitorMode = monitorMode;
+        this.channel = channel;
+        this.config = config;
+        this.pool = pool;
+        this.minGap = minGap;
+    }
+
+    /**
+     * Decode all files stored in a WAVE file
+     *
+     * @param fspec WAVE file
+     * @param outdir Output directory
+     * @param log Log
+     * @throws Exception
+     */
+    void decode(String fspec, String outdir, DecoderLog log) throws Exception {
+
+        cancelled = false;
+
+        /*Find where the tape can be split*/
+        long[] starts;
+        WavePulseDecoder probe = new WavePulseDecoder();
+        try {
+            probe.setSampleFilters(config.createSampleFilters());
+            probe.setAdaptiveHysteresis(config.dspSchmittAdaptive);
+            probe.init(fspec, 0, channel, 0, config.dspBlockDCOffset, config.dspSchmittHysteresis, log);
+            starts = findSegmentStarts(probe);
+        } finally {
+            probe.close(null);
+        }
+
+        File workDir = Files.createTempDirectory(new File(outdir).toPath(), ".segments").toFile();
+        Segment[] segments = new Segment[starts.length];
+
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                final Segment seg = new Segment(i, starts[i], i + 1 < starts.length ? starts[i + 1] : Long.MAX_VALUE);
+                seg.future = pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        decodeSegment(fspec, workDir, seg);
+                        return null;
+                    }
+                });
+                segments[i] = seg;
+            }
+
+            merge(segments, outdir, log);
+
+        } finally {
+            cancelled = true;
+            for (Segment seg : segments) {
+                if (seg != null) {
+                    waitFor(seg);
+                    if (seg.decoder != null) {
+                        seg.decoder.close(null);
+                    }
+                }
+            }
+            deleteTree(workDir);
+        }
+    }
+
+    /**
+     * Choose silent regions the tape is split at. The parts are not shorter
+     * than needed to keep all threads busy
+     */
+    private long[] findSegmentStarts(WavePulseDecoder probe) throws IOException {
+
+        int minLength = (int) Math.max(1L, Math.round(minGap * probe.getSampleRate()));
+        long[] silence = probe.findSilence(minLength, SILENCE_LEVEL);
+        long minSegment = Math.max(1L, probe.getTotalSamples() / ((long) pool.getParallelism() * SEGMENTS_PER_THREAD));
+
+        ArrayList<Long> starts = new ArrayList<>();
+        starts.add(0L);
+
+        for (int i = 0; i < silence.length; i += 2) {
+            long start = silence[i];
+            long end = silence[i + 1];
+            /*Silence at the end of tape is not worth a segment*/
+            if (end >= probe.getTotalSamples()) {
+                break;
+            }
+            if (start - starts.get(starts.size() - 1) >= minSegment && start <= Integer.MAX_VALUE) {
+                starts.add(start);
+            }
+        }
+
+        long[] retVal = new long[starts.size()];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = starts.get(i);
+        }
+        return retVal;
+    }
+
+    /**
+     * Decode part of the tape. Decoding stops when a file decode would start
+     * in the next part
+     */
+    private void decodeSegment(String fspec, File workDir, Segment seg) throws Exception {
+
+        WavePulseDecoder d = new WavePulseDecoder();
+        seg.decoder = d;
+        d.setSampleFilters(config.createSampleFilters());
+        d.setAdaptiveHysteresis(config.dspSchmittAdaptive);
+        d.init(fspec, 0, channel, 0, config.dspBlockDCOffset, config.dspSchmittHysteresis, new BufferedLog());
+        d.setCurrentSample((int) seg.start);
+        seg.fileDecoder = FileDecoderFactory.createFileDecoder(turboType, monitorMode);
+
+        while (cancelled == false) {
+
+            long position = d.getCurrentSample();
+            int[] state = d.getSignalState();
+
+            if (position >= seg.end) {
+                seg.handoff = position;
+                seg.handoffState = state;
+                return;
+            }
+
+            DecodeCall call = new DecodeCall(position, state, new File(workDir, seg.index + "_" + seg.calls.size()));
+            if (!call.tempDir.mkdir()) {
+                throw new IOException("Unable to create directory " + call.tempDir.getPath());
+            }
+
+            try {
+                call.result = seg.fileDecoder.decodeFile(call.tempDir.getPath(), call.log, d, config);
+            } catch (Exception e) {
+                call.exception = e;
+            }
+            seg.calls.add(call);
+
+            if (call.result == false) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merge decoded parts in tape order
+     */
+    private void merge(Segment[] segments, String outdir, DecoderLog log) throws Exception {
+
+        waitFor(segments[0]);
+        if (segments[0].failure != null) {
+            throw segments[0].failure;
+        }
+
+        int current = 0;
+        int first = 0;
+
+        while (true) {
+
+            /*Take over speculatively decoded files*/
+            Segment seg = segments[current];
+            for (int i = first; i < seg.calls.size(); i++) {
+                DecodeCall call = seg.calls.get(i);
+                accept(call, outdir, log);
+                if (call.exception != null) {
+                    throw call.exception;
+                }
+                if (call.result == false) {
+                    return;
+                }
+            }
+
+            /*Continue sequentially until decoding of some following part can be taken over*/
+            WavePulseDecoder d = seg.decoder;
+            long position = seg.handoff;
+            int[] state = seg.handoffState;
+
+            while (true) {
+
+                int next = -1;
+                for (int j = current + 1; j < segments.length && segments[j].start <= position; j++) {
+                    waitFor(segments[j]);
+                    first = segments[j].findCall(position, state);
+                    if (first >= 0) {
+                        next = j;
+                        break;
+                    }
+                }
+
+                if (next >= 0) {
+                    current = next;
+                    break;
+                }
+
+                if (seg.fileDecoder.decodeFile(outdir, log, d, config) == false) {
+                    return;
+                }
+                position = d.getCurrentSample();
+                state = d.getSignalState();
+            }
+        }
+    }
+
+    /**
+     * Move saved files to the output directory and pass messages and records
+     * to the log
+     */
+    private void accept(DecodeCall call, String outdir, DecoderLog log) throws IOException {
+
+        String tempPath = call.tempDir.getCanonicalPath() + TurboDecoder.SP;
+        String outPath = new File(outdir).getCanonicalPath() + TurboDecoder.SP;
+
+        File[] files = call.tempDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                Files.move(f.toPath(), new File(outdir, f.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        for (int i = 0; i < call.log.messages.size(); i++) {
+            DecoderMessage msg = call.log.messages.get(i);
+            if (msg.getMessage().contains(tempPath)) {
+                msg = new DecoderMessage(msg.getMessage().replace(tempPath, outPath), msg.getSeverity());
+            }
+            log.addMessage(msg, call.log.external.get(i));
+        }
+
+        for (DecodeRecord r : call.log.records) {
+            if (r.getOutput() != null && r.getOutput().startsWith(tempPath)) {
+                r = r.withOutput(outPath + r.getOutput().substring(tempPath.length()));
+            }
+            log.addRecord(r, true);
+        }
+    }
+
+    private static void waitFor(Segment seg) {
+        try {
+            seg.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            seg.failure = e;
+        } catch (ExecutionException e) {
+            seg.failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static void deleteTree(File f) {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (File c : files) {
+                deleteTree(c);
+            }
+        }
+        f.delete();
+    }
+
+    /**
+     * Part of the tape decoded by one pulse decoder
+     */
+    private static class Segment {
+
+        final int index;
+        final long start;
+        final long end;
+        final ArrayList<DecodeCall> calls;
+        Future<Void> future;
+        WavePulseDecoder decoder;
+        FileDecoder fileDecoder;
+        long handoff;
+        int[] handoffState;
+        Exception failure;
+
+        Segment(int index, long start, long end) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            calls = new ArrayList<>();
+        }
+
+        /**
+         * Find file decode started at given sample and signal state
+         *
+         * @return Index of the file decode or -1
+         */
+        int findCall(long position, int[] state) {
+            if (failure != null) {
+                return -1;
+            }
+            for (int i = 0; i < calls.size(); i++) {
+                DecodeCall call = calls.get(i);
+                if (call.start == position && Arrays.equals(call.state, state)) {
+                    return i;
+                }
+                if (call.start > position) {
+                    break;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * One call of the file decoder
+     */
+    private static class DecodeCall {
+
+        final long start;
+        final int[] state;
+        final File tempDir;
+        final BufferedLog log;
+        boolean result;
+        Exception exception;
+
+        DecodeCall(long start, int[] state, File tempDir) {
+            this.start = start;
+            this.state = state;
+            this.tempDir = tempDir;
+            log = new BufferedLog();
+        }
+    }
+
+    /**
+     * Log that keeps messages until they are accepted
+     */
+    private static class BufferedLog implements DecoderLog {
+
+        final ArrayList<DecoderMessage> messages = new ArrayList<>();
+        final ArrayList<Boolean> external = new ArrayList<>();
+        final ArrayList<DecodeRecord> records = new ArrayList<>();
+
+        @Override
+        public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+            messages.add(msg);
+            external.add(fromExternalThread);
+        }
+
+        @Override
+        public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+            records.add(record);
+        }
+
+        @Override
+        public void clearAllMessages(boolean fromExternalThread) {
+        }
+
+        @Override
+        public void impulse(boolean fromExternalThread) {
+        }
+    }
+
+}
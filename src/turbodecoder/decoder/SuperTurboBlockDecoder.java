@@ -15,8 +15,11 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
     private static final int HI_IDX = 2;
 
     private PulseDecoder decoder;
+    private final int[] pulseWidths = new int[8];
+    private final int[] plcrate = new int[3];
     private BlockDecoderListener blockDecoderListener = null;
     private int validBytes;
+    private final BlockBuffers buffers = new BlockBuffers(3);
 
     private int MAX_3PILOT = 200;
     private int MAX_PULSE = 50;
@@ -55,39 +58,39 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
 
         int r = 0;
 
-        int[] data = new int[dataLength];
-        int[] t2kHeaderData = new int[19];
-        int[] stHeaderData = new int[29];
+        int[] data = buffers.get(0, dataLength);
 
-        int plcrate[] = new int[3];
         validBytes = 0;
         determinedTurbo = FileDecoder.CS_SUPER_TURBO;
 
         if (blockDecoderListener == null) {
             blockDecoderListener = this;
         }
+        buffers.begin(decoder.getCurrentSample(), config.genBlockRecords ? blockDecoderListener : null);
 
         while (true) {
 
             /*Wait for pilot tone*/
             r = waitForPilot(plcrate);
             if (r == PulseDecoder.PD_ERROR || r == WavePulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
             }
 
+            buffers.pilotFound();
+
             /*Verbose - Pilot Tone*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent(String.format("Pilot tone found. Pulse boundaries: %d,%d,%d. ", plcrate[0], plcrate[1], plcrate[2]) + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.pilotTone(decoder.getCurrentSample(), plcrate));
             }
 
 
             /*Wait for sync pulse*/
             r = waitForSync(plcrate);
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
@@ -95,7 +98,7 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
 
             /*Verbose - Sync pulse*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Sync pulse found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.syncPulse(decoder.getCurrentSample()));
             }
 
             if (blockDecoderListener != null) {
@@ -105,9 +108,9 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
             /*Prepare for data*/
             if (uniTurboDetermination == true) {
                 if (determinedTurbo == FileDecoder.CS_TURBO_2000) {
-                    data = t2kHeaderData;
+                    data = buffers.get(1, 19);
                 } else {
-                    data = stHeaderData;
+                    data = buffers.get(2, 29);
                 }
             }
 
@@ -120,28 +123,28 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
 
                 /*Verbose - What data obtained*/
                 if (config.genVerboseMessages) {
-                    blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + " " + decoder.getCurrentSampleString());
+                    blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes));
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             } /*Data obtained*/ else {
 
                 /*Not acceptable - too short*/
                 if (data.length < 3) {
-                    return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
+                    return buffers.result(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
                 }
                 /*Checksum verify*/
                 boolean b = Utils.checkSTBlock(data);
 
                 if (b == false) {
                     if (config.genIgnoreBadSum == false) {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder, determinedTurbo);
+                        return buffers.result(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder, determinedTurbo);
                     } else {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder, determinedTurbo);
+                        return buffers.result(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder, determinedTurbo);
                     }
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder, determinedTurbo);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder, determinedTurbo);
             }
 
         }
@@ -259,50 +262,36 @@ public class SuperTurboBlockDecoder implements BlockDecoder, BlockDecoderListene
     }
 
     private int decodeData(int[] plcrate, int[] data) {
+
         /*Data*/
-        int d = 0;
-        int mask = 128;
-        int cur = 0;
         int dataLength = data.length;
 
         /*Result*/
-        int r = 0;
+        int r;
 
         decoder.setTimeOut(plcrate[HI_IDX]);
 
-        while (true) {
+        for (int d = 0; d < dataLength; d++) {
 
-            /*Measure length of pulse*/
-            decoder.setCounter(0);
-            r = decoder.measurePulse();
+            /*Measure lengths of pulses of one byte*/
+            r = decoder.measurePulses(pulseWidths, 8, 0, Integer.MAX_VALUE);
 
             /*Any failure results into corrupt data block*/
-            if (r != PulseDecoder.PD_OK) {
+            if (r < 0) {
                 return r;
             }
-            int c = decoder.getCounter();
 
-            /*Determine 0 or 1*/
-            if (c > plcrate[MED_IDX]) {
-                cur += mask;
-            } else {
-                cur += 0;
-            }
+            int cur = 0;
+            for (int i = 0; i < 8; i++) {
 
-            if (mask == 1) {
-                data[d] = cur;
-                validBytes++;
-                mask = 128;
-                cur = 0;
-                d++;
-            } else {
-                mask >>= 1;
+                /*Determine 0 or 1*/
+                if (pulseWidths[i] > plcrate[MED_IDX]) {
+                    cur += 128 >> i;
+                }
             }
 
-            if (d < dataLength) {
-            } else {
-                break;
-            }
+            data[d] = cur;
+            validBytes++;
         }
 
         return PulseDecoder.PD_OK;
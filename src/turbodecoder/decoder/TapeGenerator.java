@@ -0,0 +1,755 @@
+package turbodecoder.decoder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+import turbodecoder.Utils;
+
+/**
+ * Writes WAVE files with synthetic turbo tapes. Blocks are encoded the way
+ * the block decoders expect them, so the tapes can be used for load and
+ * regression testing of the decoders. The WAVE file is written as the files
+ * are added, so tapes can be hours long.
+ */
+public class TapeGenerator implements Closeable {
+
+    /**
+     * Turbo systems that can be generated
+     */
+    public static final int[] TURBO_SYSTEMS = {
+        FileDecoder.CS_TURBO_2000,
+        FileDecoder.CS_SUPER_TURBO,
+        FileDecoder.PL_TURBO_BLIZZARD,
+        FileDecoder.PL_TURBO_ROM,
+        FileDecoder.PL_ATARI_SUPER_TURBO,
+        FileDecoder.PL_KSO_TURBO_2000
+    };
+
+    /*Widths of pulses at 44.1 kHz: pilot tone, sync, one, zero. The widths are
+     *in the middle of the ranges accepted by the block decoders*/
+    /*Turbo2000BlockDecoder: PILOT 25-47, SYNC 2-19, WIDE 20-40, NARROW 6-20*/
+    private static final double[] T2000_PULSES = {36.0, 8.0, 30.0, 12.0};
+    /*SuperTurboBlockDecoder: speed from pilot tone, one above 3/4 of pilot tone*/
+    private static final double[] ST_PULSES = {20.0, 6.0, 18.0, 10.0};
+    /*TurboBlizzardBlockDecoder: PILOT 19-36, WIDE 10-18, NARROW 4-10. Adaptive
+     *detection needs four pilot tone pulses within MAX_3PILOT*/
+    private static final double[] BLIZZARD_PULSES = {24.0, 6.0, 13.0, 7.0};
+    /*TurboRomBlockDecoder: pilot tone wide, WIDE 12-32, NARROW 2-12*/
+    private static final double[] TURBO_ROM_PULSES = {26.0, 6.0, 22.0, 8.0};
+    /*ASTBlockDecoder: speed from pilot tone, one above 3/4 of pilot tone*/
+    private static final double[] AST_PULSES = {24.0, 6.0, 22.0, 12.0};
+    /*KSOTurbo2000BlockDecoder: PILOT 34-54, WIDE 17-28, NARROW 5-17, no sync*/
+    private static final double[] KSO_PULSES = {44.0, 0.0, 22.0, 10.0};
+
+    private static final int PILOT_IDX = 0;
+    private static final int SYNC_IDX = 1;
+    private static final int ONE_IDX = 2;
+    private static final int ZERO_IDX = 3;
+
+    /*Pilot tone of the first block of a file and of other blocks*/
+    private static final int PILOT_PULSES_HEADER = 3_000;
+    private static final int PILOT_PULSES_DATA = 1_500;
+
+    /*Silence between blocks of a file in seconds*/
+    private static final double BLOCK_GAP = 0.1;
+
+    private static final int LOAD_ADDRESS = 0x2000;
+    private static final int MAX_16BIT = 32_767;
+    private static final long MAX_DATA_LENGTH = 0xFFFF_FFFFL - 36L;
+    private static final int BUF_SIZE = 65_536;
+
+    private final int turboType;
+    private final int sampleRate;
+    private final int bits;
+    private final int channels;
+    private final double[] pulses;
+    private final int syncPulses;
+    private final boolean msbFirst;
+    private final Random noiseRandom;
+
+    private double amplitude = 0.6;
+    private double noise = 0.0;
+    private double dcOffset = 0.0;
+    private double wobble = 0.0;
+    private double wobbleFrequency = 1.0;
+    private double fileGap = 1.0;
+
+    private File file;
+    private OutputStream os;
+    private final byte[] buffer = new byte[BUF_SIZE];
+    private int bufferPos;
+    private double position;
+    private long samples;
+    private int numFiles;
+
+    /**
+     *
+     * @param turboType Turbo system, see TURBO_SYSTEMS
+     * @param sampleRate Sample rate
+     * @param bits 8 or 16 bits per sample
+     * @param channels 1 or 2 channels
+     * @param seed Seed of the noise
+     */
+    public TapeGenerator(int turboType, int sampleRate, int bits, int channels, long seed) {
+
+        if (bits != 8 && bits != 16) {
+            throw new IllegalArgumentException("Bits per sample must be 8 or 16");
+        }
+        if (channels != 1 && channels != 2) {
+            throw new IllegalArgumentException("Number of channels must be 1 or 2");
+        }
+        if (sampleRate < 8_000) {
+            throw new IllegalArgumentException("Sample rate must be at least 8000");
+        }
+
+        this.turboType = turboType;
+        this.sampleRate = sampleRate;
+        this.bits = bits;
+        this.channels = channels;
+        this.noiseRandom = new Random(seed);
+
+        switch (turboType) {
+            case FileDecoder.CS_TURBO_2000: {
+                pulses = T2000_PULSES;
+                break;
+            }
+            case FileDecoder.CS_SUPER_TURBO: {
+                pulses = ST_PULSES;
+                break;
+            }
+            case FileDecoder.PL_TURBO_BLIZZARD: {
+                pulses = BLIZZARD_PULSES;
+                break;
+            }
+            case FileDecoder.PL_TURBO_ROM: {
+                pulses = TURBO_ROM_PULSES;
+                break;
+            }
+            case FileDecoder.PL_ATARI_SUPER_TURBO: {
+                pulses = AST_PULSES;
+                break;
+            }
+            case FileDecoder.PL_KSO_TURBO_2000: {
+                pulses = KSO_PULSES;
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException("Turbo system cannot be generated");
+            }
+        }
+
+        /*Blizzard has two narrow sync pulses, KSO Turbo 2000 none*/
+        syncPulses = turboType == FileDecoder.PL_TURBO_BLIZZARD ? 2 : (turboType == FileDecoder.PL_KSO_TURBO_2000 ? 0 : 1);
+
+        /*Polish turbo ROM and AST send the least significant bit first*/
+        msbFirst = !(turboType == FileDecoder.PL_TURBO_ROM || turboType == FileDecoder.PL_ATARI_SUPER_TURBO);
+    }
+
+    /**
+     * Set gaussian noise
+     *
+     * @param noise Standard deviation, fraction of full scale
+     */
+    public void setNoise(double noise) {
+        this.noise = noise;
+    }
+
+    /**
+     * Set DC offset
+     *
+     * @param dcOffset Offset, fraction of full scale
+     */
+    public void setDCOffset(double dcOffset) {
+        this.dcOffset = dcOffset;
+    }
+
+    /**
+     * Set sinusoidal speed wobble
+     *
+     * @param depth Depth, fraction of nominal speed
+     * @param frequency Frequency in Hz
+     */
+    public void setWobble(double depth, double frequency) {
+        this.wobble = depth;
+        this.wobbleFrequency = frequency;
+    }
+
+    /**
+     * Set silence before each file
+     *
+     * @param seconds Length of silence in seconds
+     */
+    public void setFileGap(double seconds) {
+        this.fileGap = seconds;
+    }
+
+    /**
+     * Start writing a WAVE file
+     *
+     * @param file WAVE file
+     * @throws IOException
+     */
+    public void open(File file) throws IOException {
+
+        this.file = file;
+        os = new FileOutputStream(file);
+        bufferPos = 0;
+        position = 0.0;
+        samples = 0L;
+        numFiles = 0;
+
+        /*Lengths are updated when the file is closed*/
+        writeHeader(0L);
+    }
+
+    /**
+     * Add a file to the tape
+     *
+     * @param name Name of the file
+     * @param data Data of the file
+     * @throws IOException
+     */
+    public void addFile(String name, byte[] data) throws IOException {
+
+        int[] d = Utils.getAsIntArray(data);
+        silence(fileGap);
+
+        switch (turboType) {
+            case FileDecoder.CS_TURBO_2000:
+            case FileDecoder.CS_SUPER_TURBO: {
+                addTurbo2000File(name, d, turboType == FileDecoder.CS_SUPER_TURBO);
+                break;
+            }
+            case FileDecoder.PL_TURBO_BLIZZARD: {
+                addBlizzardFile(name, d);
+                break;
+            }
+            case FileDecoder.PL_TURBO_ROM: {
+                addTurboRomFile(name, d);
+                break;
+            }
+            case FileDecoder.PL_ATARI_SUPER_TURBO: {
+                addASTFile(name, d);
+                break;
+            }
+            default: {
+                addKSOFile(name, d);
+            }
+        }
+
+        numFiles++;
+    }
+
+    /**
+     * Add a block with its pilot tone, sync pulses and terminating pulse
+     *
+     * @param data Data of the block, including checksum
+     * @param pilotPulses Number of pilot tone pulses
+     * @throws IOException
+     */
+    public void addBlock(int[] data, int pilotPulses) throws IOException {
+
+        for (int i = 0; i < pilotPulses; i++) {
+            pulse(pulses[PILOT_IDX]);
+        }
+        for (int i = 0; i < syncPulses; i++) {
+            pulse(pulses[SYNC_IDX]);
+        }
+
+        for (int b : data) {
+            for (int i = 0; i < 8; i++) {
+                int bit = msbFirst ? (b >> (7 - i)) & 1 : (b >> i) & 1;
+                pulse(bit == 1 ? pulses[ONE_IDX] : pulses[ZERO_IDX]);
+            }
+        }
+
+        /*The last edge of the last bit*/
+        pulse(pulses[ONE_IDX]);
+        silence(BLOCK_GAP);
+    }
+
+    /**
+     * Add silence
+     *
+     * @param seconds Length of silence in seconds
+     * @throws IOException
+     */
+    public void silence(double seconds) throws IOException {
+        level(0, seconds * sampleRate);
+    }
+
+    /**
+     * Finish the WAVE file
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (os == null) {
+            return;
+        }
+
+        try {
+            flushBuffer();
+        } finally {
+            os.close();
+            os = null;
+        }
+
+        /*Lengths of the RIFF and data chunks*/
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long dataLength = samples * (bits / 8) * channels;
+            raf.seek(4L);
+            raf.write(toLittleEndian(36L + dataLength));
+            raf.seek(40L);
+            raf.write(toLittleEndian(dataLength));
+        }
+    }
+
+    /**
+     *
+     * @return Number of samples written so far
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     *
+     * @return Number of files added so far
+     */
+    public int getNumFiles() {
+        return numFiles;
+    }
+
+    private void addTurbo2000File(String name, int[] d, boolean isSt) throws IOException {
+
+        checkLength(d, 0x1_0000 - LOAD_ADDRESS);
+
+        /*Binary turbo file, data are saved as they are*/
+        addBlock(Utils.createT2KStHeader(isSt, name, 4, LOAD_ADDRESS, d.length, LOAD_ADDRESS), PILOT_PULSES_HEADER);
+
+        int[] block = new int[d.length + 2];
+        block[0] = isSt ? 237 : 255;
+        System.arraycopy(d, 0, block, 1, d.length);
+        block[block.length - 1] = xorSum(block, 0, block.length - 1);
+        addBlock(block, PILOT_PULSES_DATA);
+    }
+
+    private void addBlizzardFile(String name, int[] d) throws IOException {
+
+        /*Synchronization block without data*/
+        addBlock(new int[0], PILOT_PULSES_HEADER);
+
+        int[] header = new int[77];
+        copyName(name, header, 0, 76, false);
+        header[76] = addSum(header, 0, 76);
+        addBlock(header, PILOT_PULSES_DATA);
+
+        addCountedBlocks(d, 1_024, true);
+    }
+
+    private void addKSOFile(String name, int[] d) throws IOException {
+
+        int[] header = new int[13];
+        header[0] = 0;
+        header[1] = 255;
+        copyName(name, header, 2, 10, false);
+        header[12] = addSum(header, 0, 12);
+        addBlock(header, PILOT_PULSES_HEADER);
+
+        addCountedBlocks(d, 3_072, false);
+    }
+
+    /**
+     * Blocks with length of data, data, optional zero byte and sum. A full
+     * last block is followed by an empty block
+     */
+    private void addCountedBlocks(int[] d, int blockSize, boolean zeroByte) throws IOException {
+
+        int offset = 0;
+        int length;
+
+        do {
+            length = Math.min(blockSize, d.length - offset);
+            int[] block = new int[blockSize + (zeroByte ? 4 : 3)];
+            block[0] = length % 256;
+            block[1] = length / 256;
+            System.arraycopy(d, offset, block, 2, length);
+            block[block.length - 1] = addSum(block, 0, block.length - 1);
+            addBlock(block, PILOT_PULSES_DATA);
+            offset += length;
+        } while (length == blockSize);
+    }
+
+    private void addTurboRomFile(String name, int[] d) throws IOException {
+
+        checkLength(d, 0x1_0000 - LOAD_ADDRESS);
+
+        /*Header of a binary file*/
+        int[] header = new int[41];
+        header[3] = 40;
+        header[4] = 0;
+        header[5] = xorSum(d, 0, d.length);
+        header[6] = LOAD_ADDRESS % 256;
+        header[7] = LOAD_ADDRESS / 256;
+        header[10] = LOAD_ADDRESS % 256;
+        header[11] = LOAD_ADDRESS / 256;
+        header[12] = d.length % 256;
+        header[13] = d.length / 256;
+        copyName(name, header, 15, 20, true);
+        header[35] = 1;
+        /*No INIT address*/
+        header[36] = 1;
+        header[40] = 96;
+        header[0] = xorSum(header, 1, 40);
+        addBlock(header, PILOT_PULSES_HEADER);
+
+        addBlock(d, PILOT_PULSES_DATA);
+    }
+
+    private void addASTFile(String name, int[] d) throws IOException {
+
+        checkLength(d, 0x1_0000 - LOAD_ADDRESS);
+
+        /*One segment*/
+        int[] header = new int[256];
+        header[0] = 1;
+        header[2] = LOAD_ADDRESS % 256;
+        header[3] = LOAD_ADDRESS / 256;
+        header[4] = d.length % 256;
+        header[5] = d.length / 256;
+        copyName(name, header, 180, 20, true);
+        header[201] = xorSum(d, 0, d.length);
+        /*XOR of the whole header must be zero*/
+        header[255] = xorSum(header, 0, 255);
+        addBlock(header, PILOT_PULSES_HEADER);
+
+        addBlock(d, PILOT_PULSES_DATA);
+    }
+
+    private static void checkLength(int[] d, int maxLength) {
+        if (d.length < 1 || d.length > maxLength) {
+            throw new IllegalArgumentException("Length of file must be 1 to " + maxLength + " bytes");
+        }
+    }
+
+    private static void copyName(String name, int[] header, int offset, int length, boolean internal) {
+        for (int i = 0; i < length; i++) {
+            char c = i < name.length() ? name.charAt(i) : ' ';
+            header[offset + i] = internal ? Utils.ascii2Internal(c) : c & 0xFF;
+        }
+    }
+
+    private static int xorSum(int[] data, int offset, int length) {
+        int sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum ^= data[i];
+        }
+        return sum;
+    }
+
+    private static int addSum(int[] data, int offset, int length) {
+        int sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += data[i];
+        }
+        return sum % 256;
+    }
+
+    /**
+     * Pulse of two equal half waves, high first
+     *
+     * @param width Width of pulse at 44.1 kHz
+     */
+    private void pulse(double width) throws IOException {
+
+        /*Speed wobble*/
+        double speed = 1.0;
+        if (wobble != 0.0) {
+            speed += wobble * Math.sin(2.0 * Math.PI * wobbleFrequency * position / sampleRate);
+        }
+
+        double halfWave = width * sampleRate / 44_100.0 / speed / 2.0;
+        int peak = (int) Math.round(amplitude * MAX_16BIT);
+        level(peak, halfWave);
+        level(-peak, halfWave);
+    }
+
+    /**
+     * Write samples until the exact position is reached. The position is not
+     * rounded, so widths that are not whole samples do not drift
+     */
+    private void level(int value, double length) throws IOException {
+
+        position += length;
+        long end = Math.round(position);
+
+        if (end * (bits / 8) * channels > MAX_DATA_LENGTH) {
+            throw new IOException("WAVE file too large");
+        }
+
+        double offset = dcOffset * MAX_16BIT;
+        double sd = noise * MAX_16BIT;
+
+        while (samples < end) {
+            double v = value + offset;
+            if (sd != 0.0) {
+                v += noiseRandom.nextGaussian() * sd;
+            }
+            int s = (int) Math.round(Math.max(-MAX_16BIT - 1, Math.min(MAX_16BIT, v)));
+            for (int c = 0; c < channels; c++) {
+                writeSample(s);
+            }
+            samples++;
+        }
+    }
+
+    private void writeSample(int s) throws IOException {
+
+        if (bufferPos + 2 > BUF_SIZE) {
+            flushBuffer();
+        }
+
+        if (bits == 8) {
+            buffer[bufferPos++] = (byte) ((s >> 8) + 128);
+        } else {
+            buffer[bufferPos++] = (byte) s;
+            buffer[bufferPos++] = (byte) (s >> 8);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        os.write(buffer, 0, bufferPos);
+        bufferPos = 0;
+    }
+
+    private void writeHeader(long dataLength) throws IOException {
+
+        int frameSize = bits / 8 * channels;
+        os.write(new byte[]{'R', 'I', 'F', 'F'});
+        os.write(toLittleEndian(36L + dataLength));
+        os.write(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        os.write(toLittleEndian(16L));
+        os.write(new byte[]{1, 0, (byte) channels, 0});
+        os.write(toLittleEndian(sampleRate));
+        os.write(toLittleEndian((long) sampleRate * frameSize));
+        os.write(new byte[]{(byte) frameSize, 0, (byte) bits, 0});
+        os.write(new byte[]{'d', 'a', 't', 'a'});
+        os.write(toLittleEndian(dataLength));
+    }
+
+    private static byte[] toLittleEndian(long v) {
+        return new byte[]{(byte) v, (byte) (v >> 8), (byte) (v >> 16), (byte) (v >> 24)};
+    }
+
+    /**
+     * Generate a WAVE file as given on command line
+     *
+     * @param args Command line arguments
+     * @return Exit code
+     */
+    public static int run(String[] args) {
+
+        int turboType = -1;
+        File output = null;
+        int rate = 44_100;
+        int bits = 16;
+        int channels = 1;
+        int count = 1;
+        int size = 4_096;
+        double duration = 0.0;
+        double noise = 0.0;
+        double dc = 0.0;
+        double wobble = 0.0;
+        double wobbleHz = 1.0;
+        long seed = 1L;
+        ArrayList<File> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String a = args[i];
+                switch (a) {
+                    case "-s": {
+                        String name = BatchDecoder.requireValue(args, ++i, a);
+                        turboType = getTurboType(name);
+                        if (turboType < 0) {
+                            throw new IllegalArgumentException("Turbo system cannot be generated: " + name);
+                        }
+                        break;
+                    }
+                    case "-o": {
+                        output = new File(BatchDecoder.requireValue(args, ++i, a));
+                        break;
+                    }
+                    case "-rate": {
+                        rate = BatchDecoder.parseNumber(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-bits": {
+                        bits = BatchDecoder.parseNumber(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-stereo": {
+                        channels = 2;
+                        break;
+                    }
+                    case "-n": {
+                        count = BatchDecoder.parseNumber(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-size": {
+                        size = BatchDecoder.parseNumber(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-duration": {
+                        duration = parseDouble(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-noise": {
+                        noise = parseDouble(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-dc": {
+                        dc = parseDouble(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-wobble": {
+                        wobble = parseDouble(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-wobblehz": {
+                        wobbleHz = parseDouble(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    case "-seed": {
+                        seed = parseLong(BatchDecoder.requireValue(args, ++i, a), a);
+                        break;
+                    }
+                    default: {
+                        if (a.startsWith("-")) {
+                            throw new IllegalArgumentException("Unknown option: " + a);
+                        }
+                        inputs.add(new File(a));
+                    }
+                }
+            }
+
+            if (turboType < 0) {
+                throw new IllegalArgumentException("No turbo system specified");
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("No output WAVE file specified");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage(System.err);
+            return 2;
+        }
+
+        Random dataRandom = new Random(seed);
+
+        try (TapeGenerator tg = new TapeGenerator(turboType, rate, bits, channels, seed + 1L)) {
+
+            tg.setNoise(noise);
+            tg.setDCOffset(dc);
+            tg.setWobble(wobble, wobbleHz);
+            tg.open(output);
+
+            if (inputs.isEmpty()) {
+                /*Random files until there are enough of them and the tape is long enough*/
+                int n = 0;
+                while (n < count || tg.getSamples() < duration * rate) {
+                    byte[] data = new byte[size];
+                    dataRandom.nextBytes(data);
+                    n++;
+                    tg.addFile(String.format("FILE%04d", n), data);
+                }
+            } else {
+                for (File f : inputs) {
+                    tg.addFile(f.getName().toUpperCase(), Files.readAllBytes(f.toPath()));
+                }
+            }
+
+            /*Silence after the last file*/
+            tg.silence(1.0);
+
+            System.out.println(String.format("%s: Files: %d, Samples: %d, Length: %.1f s",
+                    output.getPath(), tg.getNumFiles(), tg.getSamples(), (double) tg.getSamples() / rate));
+
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(Utils.getExceptionMessage(e));
+            return 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Find turbo system that can be generated by its brief name
+     *
+     * @param briefName Brief name, e.g. t2000
+     * @return Turbo system or -1 if it cannot be generated
+     */
+    public static int getTurboType(String briefName) {
+        int turboType = FileDecoderFactory.getTurboType(briefName);
+        for (int t : TURBO_SYSTEMS) {
+            if (t == turboType) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private static void printUsage(PrintStream ps) {
+
+        StringBuilder names = new StringBuilder();
+        for (int t : TURBO_SYSTEMS) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(FileDecoder.turboSystemBriefNames[t]);
+        }
+
+        ps.println("Usage: java -jar turbodecoder.jar -generate -s <system> -o <WAVE file> [options] [file]...");
+        ps.println("Turbo systems: " + names);
+        ps.println("Files are put on the tape, without files random data are used.");
+        ps.println("Options:");
+        ps.println("  -rate <hz>      Sample rate, default 44100");
+        ps.println("  -bits <n>       8 or 16 bits per sample, default 16");
+        ps.println("  -stereo         Two channels with the same signal");
+        ps.println("  -n <count>      Number of random files, default 1");
+        ps.println("  -size <bytes>   Size of random files, default 4096");
+        ps.println("  -duration <s>   Add random files until the tape is at least this long");
+        ps.println("  -noise <x>      Gaussian noise, fraction of full scale");
+        ps.println("  -dc <x>         DC offset, fraction of full scale");
+        ps.println("  -wobble <x>     Speed wobble, fraction of nominal speed");
+        ps.println("  -wobblehz <f>   Frequency of speed wobble, default 1");
+        ps.println("  -seed <n>       Seed of random data and noise");
+    }
+
+    private static double parseDouble(String s, String option) {
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for option " + option + ": " + s);
+        }
+    }
+
+    private static long parseLong(String s, String option) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for option " + option + ": " + s);
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
     private BlockDecoder decoder;
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -33,14 +34,15 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
 
         this.log = log;
 
-        if (config != null && config.genPreferAdaptiveSpeedDetection == true) {
-            decoder = new SuperTurboBlockDecoder(d, config, 256);
-        } else {
-            decoder = new Turbo2000BlockDecoder(d, config, 256);
+        if (reuse.isReusable(d, config) == false) {
+            if (config != null && config.genPreferAdaptiveSpeedDetection == true) {
+                decoder = new SuperTurboBlockDecoder(d, config, 256);
+            } else {
+                decoder = new Turbo2000BlockDecoder(d, config, 256);
+            }
+            decoder.setBlockDecoderListener(this);
         }
 
-        decoder.setBlockDecoderListener(this);
-
         /*Arrays for header and data*/
         int[] header;
         int[] data;
@@ -84,8 +86,9 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
         header = bdr.getData();
 
         /*Write header to the log*/
+        String headerString = Utils.t2kHeaderToString(header);
         log.addMessage(
-                new DecoderMessage(MSG_PFX, "HEADER: " + Utils.t2kHeaderToString(header) + " <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                new DecoderMessage(MSG_PFX, "HEADER: " + headerString + " <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
         /*Obtain file size from the header*/
@@ -127,20 +130,10 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, header[1], firstFileSample, config.genPrependSampleNumber, config.csTurboAlwaysSaveAsBinary);
 
-        File f = new File(fspec);
-        f.delete();
-
-
         /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos;
-        DataOutputStream dos = null;
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-            dos = new DataOutputStream(bos);
+            DataOutputStream dos = new DataOutputStream(out);
 
             /*Not binary file, write full data*/
             boolean saveAsBinary = false;
@@ -171,9 +164,7 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
             }
 
             if (saveAsBinary == false) {
-                for (int i = 1; i < size - 1; i++) {
-                    dos.writeByte(data[i]);
-                }
+                Utils.writeBytes(dos, data, 1, size - 2);
             } else {
                 /*Binary file*/
                 dos.writeByte(255);
@@ -191,9 +182,7 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
                 dos.writeByte(load % 256);
                 dos.writeByte(load / 256);
 
-                for (int i = 1; i < size - 1; i++) {
-                    dos.writeByte(data[i]);
-                }
+                Utils.writeBytes(dos, data, 1, size - 2);
                 /*Run*/
                 dos.writeByte(736 % 256);
                 dos.writeByte(736 / 256);
@@ -206,22 +195,18 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
 
             /*Finish file operation*/
             dos.flush();
-            dos.close();
+            out.commit(fspec);
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally left blank*/
-            }
             return true;
         }
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), headerString, bdr, fspec), true);
 
         /*Save header if asked*/
         if (config.csTurboSaveHeaderToExtraFile == true) {
@@ -295,9 +280,13 @@ public class Turbo2000FileDecoder implements FileDecoder, BlockDecoderListener {
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -9,21 +9,31 @@ import turbodecoder.Utils;
  */
 public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderListener {
 
-    /*22,12,8*/
-    private int PILOT_HI = 36;
-    private int PILOT_LO = 19;
-    private int MAX_3PILOT = 3 * 35;
+    /*Pulse widths at 44100 Hz. 22,12,8*/
+    private static final int DEFAULT_PILOT_HI = 36;
+    private static final int DEFAULT_PILOT_LO = 19;
+    private static final int DEFAULT_MAX_3PILOT = 3 * 35;
+    private static final int DEFAULT_WIDE_HI = 18;
+    private static final int DEFAULT_WIDE_LO = 10;
+    private static final int DEFAULT_NARROW_LO = 4;
+    private static final int DEFAULT_MAX_PULSE = 40;
 
-    private int WIDE_HI = 18;
-    private int WIDE_LO = 10;
+    private int PILOT_HI;
+    private int PILOT_LO;
+    private int MAX_3PILOT;
 
-    private int NARROW_LO = 4;
+    private int WIDE_HI;
+    private int WIDE_LO;
 
-    private int MAX_PULSE = 40;
+    private int NARROW_LO;
+
+    private int MAX_PULSE;
 
     private final PulseDecoder decoder;
+    private final int[] pulseWidths = new int[8];
     private final DecoderConfig config;
     private int validBytes;
+    private final BlockBuffers buffers = new BlockBuffers(1);
     private BlockDecoderListener blockDecoderListener = null;
     private final boolean sync;
     private final int pilotTonePulses;
@@ -53,17 +63,18 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
     public BlockDecodeResult decodeBlock(int dataLength, Object constraint) {
 
         int r;
-        int data[] = new int[dataLength];
+        int data[] = buffers.get(0, dataLength);
         validBytes = 0;
 
         if (blockDecoderListener == null) {
             blockDecoderListener = this;
         }
+        buffers.begin(decoder.getCurrentSample(), config.genBlockRecords ? blockDecoderListener : null);
 
         /*Verbose - Display decoder settings*/
         if (config.genVerboseMessages) {
             blockDecoderListener.blockDecodeEvent(
-                    String.format("Pulse ranges: NL %d,WL %d, WH %d,PL %d, PH %d, MP %d",
+                    DecoderEvent.pulseRanges(
                             NARROW_LO,
                             WIDE_LO,
                             WIDE_HI,
@@ -83,22 +94,24 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
             }
 
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
             }
 
+            buffers.pilotFound();
+
             /*Verbose - Pilot Tone*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Pilot tone found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.pilotTone(decoder.getCurrentSample()));
             }
 
 
             /*Wait for sync, but for zero length block, don't check for the last edge*/
             r = waitForSync(dataLength == 0 ? false : true);
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
@@ -106,7 +119,7 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
 
             /*Verbose - Sync pulse*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Sync pulse found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.syncPulse(decoder.getCurrentSample()));
             }
 
             blockDecoderListener.blockDecodeEvent(null);
@@ -114,7 +127,7 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
 
             /*If there is no data requested, we are finished*/
             if (data.length == 0) {
-                return new BlockDecodeResult(data, 0, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, 0, r, decoder.getCurrentSample(), decoder);
             }
 
             /*Obtain data*/
@@ -124,27 +137,27 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
             if (r != PulseDecoder.PD_OK) {
                 /*Verbose - What data obtained*/
                 if (config.genVerboseMessages) {
-                    blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + " " + decoder.getCurrentSampleString());
+                    blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes));
                 }
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             } /*Data obtained*/ else {
 
                 /*Not acceptable - too short*/
                 if (data.length < 3) {
-                    return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
+                    return buffers.result(data, validBytes, BlockDecodeResult.BLOCK_TOO_SHORT, decoder.getCurrentSample(), decoder);
                 }
                 /*Checksum verify*/
                 boolean b = Utils.checkBlizzardBlock(data);
 
                 if (b == false) {
                     if (config.genIgnoreBadSum == false) {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
                     } else {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
                     }
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             }
 
         }
@@ -335,49 +348,37 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
     private int decodeData(int[] data) {
 
         /*Data*/
-        int d = 0;
-        int mask = 128;
-        int cur = 0;
         int dataLength = data.length;
 
         /*Result*/
         int r;
 
-        while (true) {
+        for (int d = 0; d < dataLength; d++) {
 
-            /*Measure length of pulse*/
-            decoder.setCounter(0);
-            r = decoder.measurePulse();
+            /*Measure lengths of pulses of one byte*/
+            r = decoder.measurePulses(pulseWidths, 8, NARROW_LO, WIDE_HI);
 
             /*Any failure results into corrupt data block*/
-            if (r != PulseDecoder.PD_OK) {
+            if (r < 0) {
                 return r;
             }
-            int c = decoder.getCounter();
 
-            /*Determine 0 or 1*/
-            if (c >= WIDE_LO && c <= WIDE_HI) {
-                cur += mask;
-            } else if (c >= NARROW_LO && c < WIDE_LO) {
-                cur += 0;
-            } else {
-                return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
-            }
-
-            if (mask == 1) {
-                data[d] = cur;
-                validBytes++;
-                mask = 128;
-                cur = 0;
-                d++;
-            } else {
-                mask >>= 1;
+            int cur = 0;
+            for (int i = 0; i < r; i++) {
+                int c = pulseWidths[i];
+
+                /*Determine 0 or 1*/
+                if (c >= WIDE_LO && c <= WIDE_HI) {
+                    cur += 128 >> i;
+                } else if (c >= NARROW_LO && c < WIDE_LO) {
+                    cur += 0;
+                } else {
+                    return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
+                }
             }
 
-            if (d < dataLength) {
-            } else {
-                break;
-            }
+            data[d] = cur;
+            validBytes++;
         }
 
         return PulseDecoder.PD_OK;
@@ -404,16 +405,23 @@ public class TurboBlizzardBlockDecoder implements BlockDecoder, BlockDecoderList
     private void recalculatePulses(int sampleRate) {
 
         double rate = sampleRate;
-        PILOT_HI = (int) Math.round(PILOT_HI * (rate / 44100.0));
-        PILOT_LO = (int) Math.round(PILOT_LO * (rate / 44100.0));
-        WIDE_HI = (int) Math.round(WIDE_HI * (rate / 44100.0));
-        WIDE_LO = (int) Math.round(WIDE_LO * (rate / 44100.0));
-        NARROW_LO = (int) Math.round(NARROW_LO * (rate / 44100.0));
-        MAX_PULSE = (int) Math.round(MAX_PULSE * (rate / 44100.0));
-        MAX_3PILOT = (int) Math.round(MAX_3PILOT * (rate / 44100.0));
+        PILOT_HI = (int) Math.round(DEFAULT_PILOT_HI * (rate / 44100.0));
+        PILOT_LO = (int) Math.round(DEFAULT_PILOT_LO * (rate / 44100.0));
+        WIDE_HI = (int) Math.round(DEFAULT_WIDE_HI * (rate / 44100.0));
+        WIDE_LO = (int) Math.round(DEFAULT_WIDE_LO * (rate / 44100.0));
+        NARROW_LO = (int) Math.round(DEFAULT_NARROW_LO * (rate / 44100.0));
+        MAX_PULSE = (int) Math.round(DEFAULT_MAX_PULSE * (rate / 44100.0));
+        MAX_3PILOT = (int) Math.round(DEFAULT_MAX_3PILOT * (rate / 44100.0));
 
     }
 
+    /**
+     * Forget the transfer speed measured or picked for the previous file
+     */
+    void resetTransferSpeed() {
+        recalculatePulses(decoder.getSampleRate());
+    }
+
     void pickTransferSpeed(TurboBlizzardBlockDecoder sd) {
         this.PILOT_HI = sd.PILOT_HI;
         this.PILOT_LO = sd.PILOT_LO;
@@ -20,7 +20,9 @@ public class TurboBlizzardFileDecoder implements FileDecoder, BlockDecoderListen
     private static final int BLOCK_BAD = 3;
     private BlockDecoder decoder;
     private long firstFileSample = 0L;
+    private BlockDecoder syncBlockDecoder;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -34,16 +36,19 @@ public class TurboBlizzardFileDecoder implements FileDecoder, BlockDecoderListen
     @Override
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
-        decoder = new TurboBlizzardBlockDecoder(d, config, false, 256);
-        BlockDecoder syncBlockDecoder = new TurboBlizzardBlockDecoder(d, config, true, 2_048);
+        if (reuse.isReusable(d, config) == false) {
+            decoder = new TurboBlizzardBlockDecoder(d, config, false, 256);
+            syncBlockDecoder = new TurboBlizzardBlockDecoder(d, config, true, 2_048);
+            decoder.setBlockDecoderListener(this);
+            syncBlockDecoder.setBlockDecoderListener(this);
+        } else {
+            ((TurboBlizzardBlockDecoder) decoder).resetTransferSpeed();
+            ((TurboBlizzardBlockDecoder) syncBlockDecoder).resetTransferSpeed();
+        }
 
         this.log = log;
-        decoder.setBlockDecoderListener(this);
-        syncBlockDecoder.setBlockDecoderListener(this);
 
         int[] header;
-        int[] data;
-        int foundBlockType;
 
         BlockDecodeResult bdr = null;
         int errCode;
@@ -113,140 +118,116 @@ public class TurboBlizzardFileDecoder implements FileDecoder, BlockDecoderListen
                 new DecoderMessage(MSG_PFX, "HEADER: " + headerToString(header) + "<" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
-        byte[] ba = null;
-        ByteArrayOutputStream baos = null;
-        DataOutputStream dos = null;
+        /*Blocks are written to the output as they are decoded*/
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            return decodeBlocks(outdir, header, out, config);
+        } catch (IOException e) {
+            log.addMessage(
+                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
+                    true);
+            return true;
+        }
 
-        try {
+    }
 
-            baos = new ByteArrayOutputStream();
-            dos = new DataOutputStream(baos);
+    private boolean decodeBlocks(String outdir, int[] header, DecodedFileOutputStream out, DecoderConfig config) throws Exception {
 
-            boolean quitme = false;
-            boolean error = false;
-            int blockCount = 0;
+        int[] data;
+        int foundBlockType;
+        BlockDecodeResult bdr = null;
+        int errCode = 0;
 
-            outerLoop:
-            while (quitme == false) {
+        boolean quitme = false;
+        boolean error = false;
+        int blockCount = 0;
 
-                /*Read block 1028 bytes + 1 safety byte*/
-                bdr = decoder.decodeBlock(1_028);
-                errCode = bdr.getErrorCode();
+        outerLoop:
+        while (quitme == false) {
 
-                blockCount++;
+            /*Read block 1028 bytes + 1 safety byte*/
+            bdr = decoder.decodeBlock(1_028);
+            errCode = bdr.getErrorCode();
 
-                /*Block not obtained for any reason*/
-                if (!BlockDecodeResult.isCodeOK(errCode)) {
-                    log.addMessage(
-                            new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
-                            true);
-                    error = true;
+            blockCount++;
+
+            /*Block not obtained for any reason*/
+            if (!BlockDecodeResult.isCodeOK(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, bdr.getFullErrorMessage(), bdr.getCodeSeverity()),
+                        true);
+                error = true;
+                break;
+            }
+
+            /*Block perfect ? If not, taunt*/
+            if (!BlockDecodeResult.isCodePerfect(errCode)) {
+                log.addMessage(
+                        new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                        true);
+            }
+
+            data = bdr.getData();
+            foundBlockType = getBlockType(data);
+
+
+            /*According to the block type, do the resolution*/
+            switch (foundBlockType) {
+                /*Full block*/
+                case BLOCK_FULL: {
+                    Utils.writeBytes(out, data, 2, 1_024);
+                    break;
+                }
+                /*EOF block*/
+                case BLOCK_EOF: {
+                    quitme = true;
+                    break;
+                }
+                /*Partial block*/
+                case BLOCK_PART: {
+                    int dataLen = data[0] + (data[1] << 8);
+                    Utils.writeBytes(out, data, 2, dataLen);
+                    quitme = true;
                     break;
                 }
 
-                /*Block perfect ? If not, taunt*/
-                if (!BlockDecodeResult.isCodePerfect(errCode)) {
+                /*Bad block*/
+                default: {
                     log.addMessage(
-                            new DecoderMessage(MSG_PFX, "BLOCK: " + Integer.toString(blockCount) + ": <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                            new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
                             true);
+                    error = true;
+                    break outerLoop;
                 }
-
-                data = bdr.getData();
-                foundBlockType = getBlockType(data);
-
-
-                /*According to the block type, do the resolution*/
-                switch (foundBlockType) {
-                    /*Full block*/
-                    case BLOCK_FULL: {
-                        for (int i = 2; i < 1_026; i++) {
-                            dos.write(data[i]);
-                        }
-                        break;
-                    }
-                    /*EOF block*/
-                    case BLOCK_EOF: {
-                        quitme = true;
-                        break;
-                    }
-                    /*Partial block*/
-                    case BLOCK_PART: {
-                        int dataLen = data[0] + (data[1] << 8);
-                        for (int i = 0; i < dataLen; i++) {
-                            dos.write(data[2 + i]);
-                        }
-                        quitme = true;
-                        break;
-                    }
-
-                    /*Bad block*/
-                    default: {
-                        log.addMessage(
-                                new DecoderMessage(MSG_PFX, "ERROR: Unknown block type {" + Long.toString(bdr.getSample()) + "}", DecoderMessage.SEV_ERROR),
-                                true);
-                        error = true;
-                        break outerLoop;
-                    }
-                }
-
             }
 
+        }
 
-            /*We are out of the outerLoop*/
-            ba = baos.toByteArray();
-            dos.close();
-
-            if (error == true) {
-                if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
-                    return false;
-                } else {
-                    return true;
-                }
-            }
 
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
+        /*We are out of the outerLoop*/
+        if (error == true) {
+            if (BlockDecodeResult.isCodeImmediateBreak(errCode)) {
+                return false;
+            } else {
+                return true;
             }
-            return true;
         }
 
         /*Construct output filespec*/
-        String fspec = constructFilespec(outdir, header, ba, firstFileSample, config.genPrependSampleNumber);
+        out.flush();
+        String fspec = constructFilespec(outdir, header, out.getTempFile(), firstFileSample, config.genPrependSampleNumber);
 
-        /*Flush data to disk*/
-        RandomAccessFile raf = null;
-
-        try {
-            raf = new RandomAccessFile(fspec, "rw");
-            raf.setLength(0L);
-            raf.write(ba);
-            raf.close();
-        } catch (IOException e) {
-            log.addMessage(
-                    new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
-                    true);
-            try {
-                raf.close();
-            } catch (IOException xe) {
-                /*Intentionally blank*/
-            }
-            return true;
-        }
+        /*Move data to the final file*/
+        out.commit(fspec);
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec, DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), headerToString(header), bdr, fspec), true);
         return true;
 
     }
 
-    String constructFilespec(String outdir, int[] headerData, byte[] fileData, long sample, boolean prependSample) throws Exception {
+    String constructFilespec(String outdir, int[] headerData, File dataFile, long sample, boolean prependSample) throws Exception {
 
         /*First, we construct namebase, removing all
          *dangerous characters*/
@@ -260,9 +241,9 @@ public class TurboBlizzardFileDecoder implements FileDecoder, BlockDecoderListen
         String xtension = ".blizdat";
 
         /*Check whether file happens to be binary file*/
-        DOS2Binary dtb = new DOS2Binary("");
+        DOS2Binary dtb = new DOS2Binary(dataFile.getPath());
         try {
-            dtb.analyzeFromData(Utils.getAsIntArray(fileData));
+            dtb.analyzeFromFile();
             xtension = ".xex";
         } catch (IOException | DOS2BinaryException e) {
             /*Intentionally blank*/
@@ -293,9 +274,13 @@ public class TurboBlizzardFileDecoder implements FileDecoder, BlockDecoderListen
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -16,6 +16,7 @@ public class TurboMonitorDecoder implements FileDecoder, BlockDecoderListener {
     private DecoderConfig config;
     private final int turboType;
     private BlockDecoder blockDecoder;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -40,48 +41,12 @@ public class TurboMonitorDecoder implements FileDecoder, BlockDecoderListener {
         this.log = log;
         this.config = config;
 
-        /*Select block decoder based on turbo type*/
-        switch (turboType) {
-
-            case FileDecoder.PL_LOWER_SILESIA_TURBO_2000: {
-                blockDecoder = new Turbo2000BlockDecoder(d, config, 20);
-                break;
-            }
-
-            case FileDecoder.PL_HARD_TURBO:
-            case FileDecoder.CS_TURBO_2000_KB:
-            case FileDecoder.CS_TURBO_2000: {
-                if (config.genPreferAdaptiveSpeedDetection == false) {
-                    blockDecoder = new Turbo2000BlockDecoder(d, config, 256);
-                } else {
-                    blockDecoder = new SuperTurboBlockDecoder(d, config, 256);
-                }
-                break;
-            }
-            case FileDecoder.CS_TURBO_TAPE:
-            case FileDecoder.CS_SUPER_TURBO: {
-                blockDecoder = new SuperTurboBlockDecoder(d, config, 256);
-                break;
-            }
-            case FileDecoder.PL_KSO_TURBO_2000: {
-                blockDecoder = new KSOTurbo2000BlockDecoder(d, config);
-                break;
-            }
-            case FileDecoder.PL_TURBO_BLIZZARD: {
-                blockDecoder = new TurboBlizzardBlockDecoder(d, config, true, 256);
-                break;
-            }
-            case FileDecoder.PL_TURBO_ROM: {
-                blockDecoder = new TurboRomBlockDecoder(d, config, false, -1);
-                break;
-            }
-            case FileDecoder.PL_ATARI_SUPER_TURBO: {
-                blockDecoder = new ASTBlockDecoder(d, config);
-                break;
-            }
+        /*Block decoder and its buffers are kept for the next block*/
+        if (reuse.isReusable(d, config) == false) {
+            createBlockDecoder(d, config);
+            blockDecoder.setBlockDecoderListener(this);
         }
 
-        blockDecoder.setBlockDecoderListener(this);
         long startPosition = d.getCurrentSample();
 
         /*Array for data*/
@@ -170,47 +135,29 @@ public class TurboMonitorDecoder implements FileDecoder, BlockDecoderListener {
 
         String fspec = fspecb.toString();
 
-        FileOutputStream fos;
-        BufferedOutputStream bos = null;
-
-        try {
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
             /*Prepare output*/
             File fod = new File(outdir);
             String od = fod.getCanonicalPath();
 
             fspec = od + TurboDecoder.SP + fspec;
-            File f = new File(fspec);
-
-            f.delete();
 
             /*Write data*/
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
             int[] dataPortion = getDataPortion(config.monitorSaveAllBytes, finalData);
             int offset = dataPortion[0];
             int count = dataPortion[1];
 
-            for (int i = 0; i < count; i++) {
-                bos.write(finalData[offset + i]);
-            }
+            Utils.writeBytes(out, finalData, offset, count);
 
-            bos.flush();
-            bos.close();
+            out.commit(fspec);
 
             log.addMessage(
                     new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " (" + Integer.toString(count) + " bytes)", DecoderMessage.SEV_SAVE),
                     true);
+            log.addRecord(DecodeRecord.file(startPosition, bdr.getSample(), null, bdr, fspec), true);
 
         } catch (IOException e) {
-            try {
-                if (bos != null) {
-                    bos.close();
-                }
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
@@ -218,12 +165,60 @@ public class TurboMonitorDecoder implements FileDecoder, BlockDecoderListener {
 
     }
 
+    private void createBlockDecoder(PulseDecoder d, DecoderConfig config) {
+
+        /*Select block decoder based on turbo type*/
+        switch (turboType) {
+
+            case FileDecoder.PL_LOWER_SILESIA_TURBO_2000: {
+                blockDecoder = new Turbo2000BlockDecoder(d, config, 20);
+                break;
+            }
+
+            case FileDecoder.PL_HARD_TURBO:
+            case FileDecoder.CS_TURBO_2000_KB:
+            case FileDecoder.CS_TURBO_2000: {
+                if (config.genPreferAdaptiveSpeedDetection == false) {
+                    blockDecoder = new Turbo2000BlockDecoder(d, config, 256);
+                } else {
+                    blockDecoder = new SuperTurboBlockDecoder(d, config, 256);
+                }
+                break;
+            }
+            case FileDecoder.CS_TURBO_TAPE:
+            case FileDecoder.CS_SUPER_TURBO: {
+                blockDecoder = new SuperTurboBlockDecoder(d, config, 256);
+                break;
+            }
+            case FileDecoder.PL_KSO_TURBO_2000: {
+                blockDecoder = new KSOTurbo2000BlockDecoder(d, config);
+                break;
+            }
+            case FileDecoder.PL_TURBO_BLIZZARD: {
+                blockDecoder = new TurboBlizzardBlockDecoder(d, config, true, 256);
+                break;
+            }
+            case FileDecoder.PL_TURBO_ROM: {
+                blockDecoder = new TurboRomBlockDecoder(d, config, false, -1);
+                break;
+            }
+            case FileDecoder.PL_ATARI_SUPER_TURBO: {
+                blockDecoder = new ASTBlockDecoder(d, config);
+                break;
+            }
+        }
+    }
+
     /**
      *
      * @param eventInfo
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         log.impulse(true);
     }
 
@@ -17,11 +17,13 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
     int MAX_PULSE = 50;
 
     private final PulseDecoder decoder;
+    private final int[] pulseWidths = new int[8];
     private final DecoderConfig config;
     private int validBytes;
+    private final BlockBuffers buffers = new BlockBuffers(1);
     private BlockDecoderListener blockDecoderListener = null;
     private final boolean isHeaderDecoder;
-    private final int expectedCheckSum;
+    private int expectedCheckSum;
 
     TurboRomBlockDecoder(PulseDecoder decoder, DecoderConfig config, boolean isHeaderDecoder, int expectedCheckSum) {
 
@@ -47,17 +49,18 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
     public BlockDecodeResult decodeBlock(int dataLength, Object constraint) {
 
         int r;
-        int data[] = new int[dataLength];
+        int data[] = buffers.get(0, dataLength);
         validBytes = 0;
 
         if (blockDecoderListener == null) {
             blockDecoderListener = this;
         }
+        buffers.begin(decoder.getCurrentSample(), config.genBlockRecords ? blockDecoderListener : null);
 
         /*Verbose - Display decoder settings*/
         if (config.genVerboseMessages) {
             blockDecoderListener.blockDecodeEvent(
-                    String.format("Pulse ranges: NL %d,WL %d, WH %d, MP %d",
+                    DecoderEvent.pulseRanges(
                             NARROW_LO,
                             WIDE_LO,
                             WIDE_HI,
@@ -71,21 +74,23 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
             /*Wait for pilot tone*/
             r = waitForPilot();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
             }
 
+            buffers.pilotFound();
+
             /*Verbose - Pilot Tone*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Pilot tone found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.pilotTone(decoder.getCurrentSample()));
             }
 
             /*Wait for sync pulse*/
             r = waitForSync();
             if (r == PulseDecoder.PD_ERROR || r == PulseDecoder.PD_EOF || r == PulseDecoder.PD_USER_BREAK) {
-                return new BlockDecodeResult(null, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(null, validBytes, r, decoder.getCurrentSample(), decoder);
             }
             if (r != PulseDecoder.PD_OK) {
                 continue;
@@ -93,7 +98,7 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
 
             /*Verbose - Sync pulse*/
             if (config.genVerboseMessages) {
-                blockDecoderListener.blockDecodeEvent("Sync pulse found " + decoder.getCurrentSampleString());
+                blockDecoderListener.blockDecodeEvent(DecoderEvent.syncPulse(decoder.getCurrentSample()));
             }
 
             /*Obtain data*/
@@ -103,10 +108,10 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
             if (r != PulseDecoder.PD_OK) {
                 /*Verbose - What data obtained*/
                 if (config.genVerboseMessages) {
-                    blockDecoderListener.blockDecodeEvent("Decoding of data failed. Bytes decoded:" + validBytes + " " + decoder.getCurrentSampleString());
+                    blockDecoderListener.blockDecodeEvent(DecoderEvent.dataFailed(decoder.getCurrentSample(), validBytes));
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             } /*Data obtained*/ else {
 
                 boolean b = true;
@@ -119,13 +124,13 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
                 }
                 if (b == false) {
                     if (config.genIgnoreBadSum == false) {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.BAD_CHSUM, decoder.getCurrentSample(), decoder);
                     } else {
-                        return new BlockDecodeResult(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
+                        return buffers.result(data, validBytes, BlockDecodeResult.OK_CHSUM_WARNING, decoder.getCurrentSample(), decoder);
                     }
                 }
 
-                return new BlockDecodeResult(data, validBytes, r, decoder.getCurrentSample(), decoder);
+                return buffers.result(data, validBytes, r, decoder.getCurrentSample(), decoder);
             }
 
         }
@@ -215,49 +220,37 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
     private int decodeData(int[] data) {
 
         /*Data*/
-        int d = 0;
-        int mask = 1;
-        int cur = 0;
         int dataLength = data.length;
 
         /*Result*/
         int r;
 
-        while (true) {
+        for (int d = 0; d < dataLength; d++) {
 
-            /*Measure length of pulse*/
-            decoder.setCounter(0);
-            r = decoder.measurePulse();
+            /*Measure lengths of pulses of one byte*/
+            r = decoder.measurePulses(pulseWidths, 8, NARROW_LO, WIDE_HI);
 
             /*Any failure results into corrupt data block*/
-            if (r != PulseDecoder.PD_OK) {
+            if (r < 0) {
                 return r;
             }
-            int c = decoder.getCounter();
 
-            /*Determine 0 or 1*/
-            if (c >= WIDE_LO && c <= WIDE_HI) {
-                cur += mask;
-            } else if (c >= NARROW_LO && c < WIDE_LO) {
-                cur += 0;
-            } else {
-                return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
-            }
+            int cur = 0;
+            for (int i = 0; i < r; i++) {
+                int c = pulseWidths[i];
 
-            if (mask == 128) {
-                data[d] = cur;
-                validBytes++;
-                mask = 1;
-                cur = 0;
-                d++;
-            } else {
-                mask <<= 1;
+                /*Determine 0 or 1*/
+                if (c >= WIDE_LO && c <= WIDE_HI) {
+                    cur += 1 << i;
+                } else if (c >= NARROW_LO && c < WIDE_LO) {
+                    cur += 0;
+                } else {
+                    return PulseDecoder.PD_NOT_ONE_NOT_ZERO;
+                }
             }
 
-            if (d < dataLength) {
-            } else {
-                break;
-            }
+            data[d] = cur;
+            validBytes++;
         }
 
         return PulseDecoder.PD_OK;
@@ -290,6 +283,10 @@ public class TurboRomBlockDecoder implements BlockDecoder, BlockDecoderListener
         MAX_PULSE = (int) Math.round(MAX_PULSE * (rate / 44100.0));
     }
 
+    void setExpectedChecksum(int checkSum) {
+        expectedCheckSum = checkSum;
+    }
+
     /**
      *
      * @param eventInfo
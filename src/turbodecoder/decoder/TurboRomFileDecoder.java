@@ -14,6 +14,9 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
     private static final String MSG_PFX = "TurboROM";
     private long firstFileSample = 0L;
     private DecoderLog log;
+    private TurboRomBlockDecoder headerDecoder;
+    private TurboRomBlockDecoder dataDecoder;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -29,6 +32,13 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
 
         this.log = log;
 
+        if (reuse.isReusable(d, config) == false) {
+            headerDecoder = new TurboRomBlockDecoder(d, config, true, 0);
+            dataDecoder = new TurboRomBlockDecoder(d, config, false, 0);
+            headerDecoder.setBlockDecoderListener(this);
+            dataDecoder.setBlockDecoderListener(this);
+        }
+
         if (config.turboROMFileFormat == DecoderConfig.PL_TURBO_ROM_FILE_FORMAT_BINARY) {
             return decodeBinary(outdir, log, d, config);
         } else {
@@ -39,9 +49,6 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
 
     private boolean decodeBinary(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
-        BlockDecoder headerDecoder = new TurboRomBlockDecoder(d, config, true, 0);
-        BlockDecoder dataDecoder = null;
-
         /*Arrays for header and data*/
         int[] header;
         int[] data;
@@ -50,8 +57,6 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
         BlockDecodeResult bdr;
         int errCode;
 
-        headerDecoder.setBlockDecoderListener(this);
-
         /*Try to decode header*/
         headerDecode:
         while (true) {
@@ -99,8 +104,7 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
 
 
         /*Decode data block*/
-        dataDecoder = new TurboRomBlockDecoder(d, config, false, fCheckSum);
-        dataDecoder.setBlockDecoderListener(this);
+        dataDecoder.setExpectedChecksum(fCheckSum);
         bdr = dataDecoder.decodeBlock(fSize);
         errCode = bdr.getErrorCode();
 
@@ -126,25 +130,14 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, firstFileSample, config.genPrependSampleNumber, ".xex");
 
-        File f = new File(fspec);
-        f.delete();
-
         /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos;
-        DataOutputStream dos = null;
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
-        try {
-
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-            dos = new DataOutputStream(bos);
+            DataOutputStream dos = new DataOutputStream(out);
 
             /*Not binary file, write full data*/
             if (fProgramType != 1) {
-                for (int i = 0; i < fSize; i++) {
-                    dos.writeByte(data[i]);
-                }
+                Utils.writeBytes(dos, data, 0, fSize);
             } else {
                 /*Binary file*/
                 dos.writeByte(255);
@@ -158,9 +151,7 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
                 dos.writeByte((fLoadAddr + fSize - 1) % 256);
                 dos.writeByte((fLoadAddr + fSize - 1) / 256);
 
-                for (int i = 0; i < fSize; i++) {
-                    dos.writeByte(data[i]);
-                }
+                Utils.writeBytes(dos, data, 0, fSize);
 
                 /*Init if specified*/
                 if (fInitAddr != -1) {
@@ -183,30 +174,23 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
 
             /*Finish file operation*/
             dos.flush();
-            dos.close();
+            out.commit(fspec);
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally left blank*/
-            }
             return true;
         }
 
         log.addMessage(
                 new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), getHeaderStringBinary(header, fSize, fInitAddr, fRunAddr, fLoadAddr), bdr, fspec), true);
         return true;
     }
 
     private boolean decodeBasic(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
-        BlockDecoder headerDecoder = new TurboRomBlockDecoder(d, config, true, 0);
-        BlockDecoder dataDecoder = null;
-
         /*Arrays for header and data*/
         int[] header;
         int[] data;
@@ -215,8 +199,6 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
         BlockDecodeResult bdr;
         int errCode;
 
-        headerDecoder.setBlockDecoderListener(this);
-
         /*Try to decode header*/
         headerDecode:
         while (true) {
@@ -259,8 +241,7 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
                 true);
 
         /*Decode data block*/
-        dataDecoder = new TurboRomBlockDecoder(d, config, false, fCheckSum);
-        dataDecoder.setBlockDecoderListener(this);
+        dataDecoder.setExpectedChecksum(fCheckSum);
         bdr = dataDecoder.decodeBlock(fSize);
         errCode = bdr.getErrorCode();
 
@@ -286,19 +267,10 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
         /*Construct file specifier from the header*/
         String fspec = constructFilespec(outdir, header, firstFileSample, config.genPrependSampleNumber, ".bas");
 
-        File f = new File(fspec);
-        f.delete();
-
         /*Flush output*/
-        FileOutputStream fos;
-        BufferedOutputStream bos;
-        DataOutputStream dos = null;
-
-        try {
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
 
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-            dos = new DataOutputStream(bos);
+            DataOutputStream dos = new DataOutputStream(out);
 
             /*Update and write the header part*/
             int baseAddr = (header[60] + 256 * header[61]);
@@ -311,28 +283,22 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
             }
 
             /*Write main part of the BASIC file*/
-            for (int i = 0; i < fSize; i++) {
-                dos.writeByte(data[i]);
-            }
+            Utils.writeBytes(dos, data, 0, fSize);
 
             /*Finish file operation*/
             dos.flush();
-            dos.close();
+            out.commit(fspec);
 
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR), true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally left blank*/
-            }
             return true;
         }
 
         log.addMessage(
-                new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_INFO),
+                new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), getHeaderStringBasic(header, fSize), bdr, fspec), true);
         return true;
     }
 
@@ -376,9 +342,13 @@ public class TurboRomFileDecoder implements FileDecoder, BlockDecoderListener {
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -0,0 +1,168 @@
+package turbodecoder.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import turbodecoder.FileFormatException;
+import turbodecoder.decoder.pulse.EdgeList;
+import turbodecoder.decoder.pulse.EdgeListPulseDecoder;
+import turbodecoder.decoder.pulse.WavePulseDecoder;
+
+/**
+ * Finds out which turbo systems are used on a tape. Samples of the WAVE file
+ * are read once into an edge list, then all file decoders decode the shared
+ * edge list at the same time. Files are saved to a temporary directory only
+ * to be counted.
+ */
+class TurboSystemDetector {
+
+    private final int channel;
+    private final DecoderConfig config;
+    private final ExecutorService executor;
+
+    /**
+     *
+     * @param channel Channel of the WAVE file
+     * @param config Decoder configuration
+     * @param executor Executor that runs the file decoders
+     */
+    TurboSystemDetector(int channel, DecoderConfig config, ExecutorService executor) {
+        this.channel = channel;
+        this.config = config;
+        this.executor = executor;
+    }
+
+    /**
+     * Decode WAVE file by all file decoders
+     *
+     * @param fspec WAVE file
+     * @param log Log
+     * @return Number of files saved by each turbo system, indexed by the
+     * FileDecoder constants
+     * @throws Exception
+     */
+    int[] detect(String fspec, DecoderLog log) throws Exception {
+
+        /*Read samples once*/
+        final EdgeList edgeList;
+        WavePulseDecoder wave = new WavePulseDecoder();
+        try {
+            wave.setSampleFilters(config.createSampleFilters());
+            wave.setAdaptiveHysteresis(config.dspSchmittAdaptive);
+            wave.init(fspec, 0, channel, 0, config.dspBlockDCOffset, config.dspSchmittHysteresis, log);
+            if (wave.getTotalSamples() > Integer.MAX_VALUE) {
+                throw new FileFormatException("The WAVE file is too long to be decoded using an edge list");
+            }
+            edgeList = EdgeList.scan(wave);
+        } finally {
+            wave.close(null);
+        }
+
+        int numSystems = FileDecoder.turboSystemBriefNames.length;
+        if (edgeList == null) {
+            return new int[numSystems];
+        }
+
+        final File workDir = Files.createTempDirectory("turbodecoder").toFile();
+        ArrayList<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < numSystems; i++) {
+                final int turboType = i;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return decodeAll(turboType, edgeList, workDir);
+                    }
+                }));
+            }
+
+            int[] savedFiles = new int[numSystems];
+            for (int i = 0; i < numSystems; i++) {
+                try {
+                    savedFiles[i] = results.get(i).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            return savedFiles;
+
+        } finally {
+            /*All decoders must finish before their files are deleted*/
+            for (Future<Integer> f : results) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    /*Already reported*/
+                }
+            }
+            deleteTree(workDir);
+        }
+    }
+
+    /**
+     * Decode whole edge list by one file decoder
+     *
+     * @return Number of files saved
+     */
+    private int decodeAll(int turboType, EdgeList edgeList, File workDir) throws Exception {
+
+        File outdir = new File(workDir, FileDecoder.turboSystemBriefNames[turboType]);
+        if (!outdir.mkdir()) {
+            throw new IOException("Unable to create directory " + outdir.getPath());
+        }
+
+        CountingLog log = new CountingLog();
+        EdgeListPulseDecoder pd = new EdgeListPulseDecoder(edgeList);
+        FileDecoder fd = FileDecoderFactory.createFileDecoder(turboType, false);
+
+        while (fd.decodeFile(outdir.getPath(), log, pd, config) == true) {
+            /*Decode until end of file*/
+        }
+
+        return log.savedFiles;
+    }
+
+    private static void deleteTree(File f) {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (File c : files) {
+                deleteTree(c);
+            }
+        }
+        f.delete();
+    }
+
+    /**
+     * Log that only counts saved files
+     */
+    private static class CountingLog implements DecoderLog {
+
+        private int savedFiles;
+
+        @Override
+        public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+            if (msg.getSeverity() == DecoderMessage.SEV_SAVE) {
+                savedFiles++;
+            }
+        }
+
+        @Override
+        public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+        }
+
+        @Override
+        public void clearAllMessages(boolean fromExternalThread) {
+        }
+
+        @Override
+        public void impulse(boolean fromExternalThread) {
+        }
+    }
+
+}
@@ -1,12 +1,10 @@
 package turbodecoder.decoder;
 
 import turbodecoder.decoder.pulse.PulseDecoder;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.OutputStream;
+import java.util.Arrays;
 import turbodecoder.TurboDecoder;
 import turbodecoder.Utils;
 
@@ -21,26 +19,43 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
     private static final int FD_RESULT_TERMINATE = 1;
     private static final int FD_RESULT_GARBLED = 2;
     private static final int FD_RESULT_BADSEQ = 3;
-    private final ArrayList<TTBlock> storedBlocks;
     private TTBlock lastStoredBlock;
+    /*Blocks are written when they can no longer be replaced*/
+    private DecodedFileOutputStream output;
+    private IOException outputError;
+    private int storedBlockCount;
+    private boolean perfect;
 
     private DecoderLog log;
     private BlockDecoder decoder;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
     private PulseDecoder pulseDecoder;
     private long firstFileSample;
     private DecoderConfig dConfig;
+    private String outdir;
 
     /**
      *
      */
     public TurboTapeDecoder() {
-        storedBlocks = new ArrayList<>();
         clearState();
     }
 
     private void clearState() {
-        storedBlocks.clear();
         lastStoredBlock = null;
+        storedBlockCount = 0;
+        perfect = true;
+
+        /*Discard partially written file*/
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            output = null;
+        }
+        outputError = null;
 
     }
 
@@ -57,16 +72,30 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
     public boolean decodeFile(String outdir, DecoderLog log, PulseDecoder d, DecoderConfig config) throws Exception {
 
         /*Create block decoder*/
-        decoder = new SuperTurboBlockDecoder(d, config, 64);
+        if (reuse.isReusable(d, config) == false) {
+            decoder = new SuperTurboBlockDecoder(d, config, 64);
+            decoder.setBlockDecoderListener(this);
+        }
         pulseDecoder = d;
         dConfig = config;
+        this.outdir = outdir;
 
-        int errCode;
-        BlockDecodeResult bdr;
         this.log = log;
 
+        /*Partially written file is never left behind*/
+        try {
+            return decodeBlocks();
+        } finally {
+            clearState();
+        }
+
+    }
+
+    private boolean decodeBlocks() {
+
+        int errCode;
+        BlockDecodeResult bdr;
         FileDecodeResult result = null;
-        decoder.setBlockDecoderListener(this);
 
         /*First - try to decode block*/
         fileStart:
@@ -111,7 +140,7 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
 
                 /*If EOF, flush and return true*/
                 if (block.isEof() == true) {
-                    flushFile(outdir);
+                    flushFile();
                     return true;
                 }
 
@@ -128,7 +157,7 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
 
                 switch (rcode) {
                     case FD_RESULT_OK: {
-                        flushFile(outdir);
+                        flushFile();
                         return true;
                     }
                     case FD_RESULT_TERMINATE: {
@@ -405,40 +434,25 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
 
     }
 
-    private void flushFile(String outdir) {
+    private void flushFile() {
 
         String fspec;
-        boolean perfect = true;
-        BufferedOutputStream bos = null;
-
-        /*Get file data as one big int[] array*/
-        int[] fileData = getAllValidData();
 
         try {
 
             /*Construct file specifier*/
-            fspec = constructFilespec(outdir, lastStoredBlock.getName(), fileData, dConfig.genPrependSampleNumber);
+            fspec = constructFilespec(outdir, lastStoredBlock.getName(), dConfig.genPrependSampleNumber);
 
-            /*Open file for output and write data to it*/
-            FileOutputStream fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-
-            int l = fileData.length;
-            for (int i = 0; i < l; i++) {
-                bos.write(fileData[i]);
+            /*Write the last block, it is no longer going to be replaced*/
+            writeBlock(lastStoredBlock);
+            if (outputError != null) {
+                throw outputError;
             }
 
-            bos.flush();
-            bos.close();
-
-            /*Check whether blocks are perfect*/
-            Iterator<TTBlock> it = storedBlocks.iterator();
-            while (it.hasNext() == true) {
-                if (it.next().isPerfect() == false) {
-                    perfect = false;
-                    break;
-                }
-            }
+            /*File image was always sized by valid bytes including the 16
+             *header bytes of each block, so it ends with zeros*/
+            output.write(new byte[16 * storedBlockCount]);
+            output.commit(fspec);
 
             if (perfect == true) {
                 log.addMessage(
@@ -453,33 +467,56 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, "SAVE: " + fspec, DecoderMessage.SEV_SAVE),
                     true);
+            log.addRecord(DecodeRecord.file(firstFileSample, pulseDecoder.getCurrentSample(), lastStoredBlock.getTitle(),
+                    perfect ? BlockDecodeResult.OK : BlockDecodeResult.OK_CHSUM_WARNING,
+                    perfect ? "SUCCESS: File decoded OK" : "WARNING: File decoded with problems", fspec), true);
 
         } catch (Exception e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
-            try {
-                bos.close();
-            } catch (IOException xe) {
-                xe.printStackTrace();
-            }
             e.printStackTrace();
         }
 
     }
 
+    private void writeBlock(TTBlock block) {
+
+        /*Write error is reported when the file is flushed*/
+        if (outputError != null) {
+            return;
+        }
+
+        try {
+            if (output == null) {
+                output = new DecodedFileOutputStream(outdir);
+            }
+            block.writeValidData(output);
+        } catch (IOException e) {
+            outputError = e;
+        }
+
+        if (block.isPerfect() == false) {
+            perfect = false;
+        }
+    }
+
     private void storeBlock(TTBlock block) {
-        storedBlocks.add(block);
+
+        /*Previous block can no longer be replaced*/
+        if (lastStoredBlock != null) {
+            writeBlock(lastStoredBlock);
+        }
         lastStoredBlock = block;
+        storedBlockCount++;
 
     }
 
     private void replaceLastStoredBlock(TTBlock block) {
-        storedBlocks.remove(storedBlocks.size() - 1);
-        storeBlock(block);
+        lastStoredBlock = block;
     }
 
-    String constructFilespec(String outdir, char[] name, int[] fileData, boolean prependSample) throws Exception {
+    String constructFilespec(String outdir, char[] name, boolean prependSample) throws Exception {
 
         /*First, we construct namebase, removing all
          *dangerous characters*/
@@ -505,39 +542,19 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
         return retVal;
     }
 
-    private int[] getAllValidData() {
-
-        int blockCount = storedBlocks.size();
-        int totalBytes = 0;
-
-        for (int i = 0; i < blockCount; i++) {
-            totalBytes += storedBlocks.get(i).validBytes;
-        }
-
-        int[] fileData = new int[totalBytes];
-        int[] vd;
-        int k = 0;
-
-        for (int i = 0; i < blockCount; i++) {
-            vd = storedBlocks.get(i).getValidData();
-            for (int j = 0; j < vd.length; j++) {
-                fileData[k] = vd[j];
-                k++;
-            }
-        }
-
-        return fileData;
-    }
-
     /**
      *
      * @param eventInfo
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -576,14 +593,14 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
         /**
          * User data
          */
-        private final int[] userData;
+        private final byte[] userData;
 
         /**
          * Create TTBlock using raw decoded data
          */
         TTBlock(int[] rawData) {
             name = new char[12];
-            userData = new int[1_008];
+            userData = new byte[1_008];
             /*Sequence number*/
             sequenceNumber = rawData[0];
             /*Tape mode*/
@@ -606,7 +623,7 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
             }
             /*User data*/
             for (int i = 17; i < 1_025; i++) {
-                userData[i - 17] = rawData[i];
+                userData[i - 17] = (byte) rawData[i];
             }
             /*Perfect ?*/
             perfect = Utils.checkSTBlock(rawData);
@@ -647,10 +664,8 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
             }
             
             /*User data. Length is ALWAYS the same*/
-            for (int i = 0; i < userData.length; i++) {
-                if (block.userData[i] != userData[i]) {
-                    return false;
-                }
+            if (!Arrays.equals(block.userData, userData)) {
+                return false;
             }
             /*File name. Length is ALWAYS the same*/
             for (int i = 0; i < name.length; i++) {
@@ -714,11 +729,8 @@ public class TurboTapeDecoder implements FileDecoder, BlockDecoderListener {
             return name;
         }
 
-        public int[] getValidData() {
-            int a = validBytes - 16;
-            int[] retVal = new int[a];
-            System.arraycopy(userData, 0, retVal, 0, a);
-            return retVal;
+        void writeValidData(OutputStream os) throws IOException {
+            os.write(userData, 0, validBytes - 16);
         }
 
         boolean isPerfect() {
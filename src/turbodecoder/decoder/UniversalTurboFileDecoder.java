@@ -14,7 +14,9 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
     private static final String MSG_PFX = "UniT";
     private BlockDecoder decoder;
     private long firstFileSample = 0L;
+    private BlockDecoder headerDecoder;
     private DecoderLog log;
+    private final BlockDecoderReuse reuse = new BlockDecoderReuse();
 
     /**
      *
@@ -30,11 +32,12 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
 
         this.log = log;
         /*Create block decoders*/
-        BlockDecoder headerDecoder = new SuperTurboBlockDecoder(d, config, true, 1_024);
-        decoder = new SuperTurboBlockDecoder(d, config, 1_024);
-
-        headerDecoder.setBlockDecoderListener(this);
-        decoder.setBlockDecoderListener(this);
+        if (reuse.isReusable(d, config) == false) {
+            headerDecoder = new SuperTurboBlockDecoder(d, config, true, 1_024);
+            decoder = new SuperTurboBlockDecoder(d, config, 1_024);
+            headerDecoder.setBlockDecoderListener(this);
+            decoder.setBlockDecoderListener(this);
+        }
 
         /*Arrays for header and data*/
         int[] header = null;
@@ -87,8 +90,9 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
         int fLastAddr = 0;
 
         /*Write header to the log*/
+        String headerString = (aux == CS_SUPER_TURBO) ? Utils.stHeaderToString(header) : Utils.t2kHeaderToString(header);
         log.addMessage(
-                new DecoderMessage(MSG_PFX, "HEADER: " + ((aux == CS_SUPER_TURBO) ? Utils.stHeaderToString(header) : Utils.t2kHeaderToString(header)) + " <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
+                new DecoderMessage(MSG_PFX, "HEADER: " + headerString + " <" + bdr.getFullErrorMessage() + ">", bdr.getCodeSeverity()),
                 true);
 
 
@@ -139,19 +143,9 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
 
         String fspec = constructFilespec(outdir, header, header[1], firstFileSample, config.genPrependSampleNumber, config.csTurboAlwaysSaveAsBinary, aux == CS_SUPER_TURBO ? 20 : 10);
 
-        File f = new File(fspec);
-        f.delete();
-
-
         /*Flush output*/
-        FileOutputStream fos = null;
-        BufferedOutputStream bos = null;
-        DataOutputStream dos = null;
-
-        try {
-            fos = new FileOutputStream(fspec);
-            bos = new BufferedOutputStream(fos);
-            dos = new DataOutputStream(bos);
+        try (DecodedFileOutputStream out = new DecodedFileOutputStream(outdir)) {
+            DataOutputStream dos = new DataOutputStream(out);
 
             /*Save as binary or not*/
             boolean saveAsBinary = false;
@@ -183,9 +177,7 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
 
             /*Not binary file,write full data*/
             if (saveAsBinary == false) {
-                for (int i = 0; i < fSize; i++) {
-                    dos.writeByte(data[i + 1]);
-                }
+                Utils.writeBytes(dos, data, 1, fSize);
             } else {
                 /*Binary file*/
                 dos.writeByte(255);
@@ -199,9 +191,7 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
                 dos.writeByte(fLastAddr % 256);
                 dos.writeByte(fLastAddr / 256);
 
-                for (int i = 0; i < fSize; i++) {
-                    dos.writeByte(data[i + 1]);
-                }
+                Utils.writeBytes(dos, data, 1, fSize);
                 /*Run*/
                 dos.writeByte(736 % 256);
                 dos.writeByte(736 / 256);
@@ -214,22 +204,18 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
 
             /*Finish file operation*/
             dos.flush();
-            dos.close();
+            out.commit(fspec);
         } catch (IOException e) {
             log.addMessage(
                     new DecoderMessage(MSG_PFX, Utils.getExceptionMessage(e), DecoderMessage.SEV_ERROR),
                     true);
-            try {
-                dos.close();
-            } catch (IOException xe) {
-                /*Intentionally left blank*/
-            }
             return true;
         }
 
         log.addMessage(
-                new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_INFO),
+                new DecoderMessage(MSG_PFX, "SAVE: " + fspec + " <" + bdr.getFullErrorMessage() + ">", DecoderMessage.SEV_SAVE),
                 true);
+        log.addRecord(DecodeRecord.file(firstFileSample, bdr.getSample(), headerString, bdr, fspec), true);
 
         /*Save header if asked*/
         if (config.csTurboSaveHeaderToExtraFile == true) {
@@ -300,9 +286,13 @@ public class UniversalTurboFileDecoder implements FileDecoder, BlockDecoderListe
      */
     @Override
     public void blockDecodeEvent(Object eventInfo) {
+        if (eventInfo instanceof DecodeRecord) {
+            log.addRecord((DecodeRecord) eventInfo, true);
+            return;
+        }
         if (eventInfo != null) {
             log.addMessage(
-                    new DecoderMessage(MSG_PFX, (String) eventInfo, DecoderMessage.SEV_DETAIL),
+                    new DecoderMessage(MSG_PFX, (DecoderEvent) eventInfo, DecoderMessage.SEV_DETAIL),
                     true);
         }
         log.impulse(true);
@@ -0,0 +1,77 @@
+package turbodecoder.decoder.dsp;
+
+/**
+ * Adaptive zero-crossing threshold. Positive and negative peaks are held and
+ * slowly decay towards each other, the signal is shifted so that the midpoint
+ * between them becomes zero
+ */
+public class AdaptiveThreshold implements SampleFilter {
+
+    /*Time constant of the peak decay in seconds*/
+    private static final double DECAY_TIME = 0.005;
+
+    private int shift;
+    private int high;
+    private int low;
+
+    /**
+     * Create filter
+     */
+    public AdaptiveThreshold() {
+    }
+
+    @Override
+    public void init(int sampleRate, int bitsPerSample) {
+        /*Decay by a power of two fraction of the peak to peak distance*/
+        shift = (int) Math.round(Math.log(sampleRate * DECAY_TIME) / Math.log(2.0));
+        shift = Math.max(1, Math.min(20, shift));
+        high = 0;
+        low = 0;
+    }
+
+    @Override
+    public void process(int[] samples, int from, int to) {
+
+        int h = high;
+        int l = low;
+        int s = shift;
+
+        for (int i = from; i < to; i++) {
+            int x = samples[i];
+            if (x > h) {
+                h = x;
+            } else {
+                h -= (h - l) >> s;
+            }
+            if (x < l) {
+                l = x;
+            } else {
+                l += (h - l) >> s;
+            }
+            samples[i] = x - ((h + l) >> 1);
+        }
+
+        high = h;
+        low = l;
+    }
+
+    @Override
+    public SampleFilter copy() {
+        AdaptiveThreshold c = new AdaptiveThreshold();
+        c.shift = shift;
+        c.high = high;
+        c.low = low;
+        return c;
+    }
+
+    @Override
+    public long[] getState() {
+        return new long[]{high, low};
+    }
+
+    @Override
+    public String toString() {
+        return "Adaptive threshold";
+    }
+
+}
@@ -0,0 +1,97 @@
+package turbodecoder.decoder.dsp;
+
+/**
+ * Automatic gain control. An envelope follower tracks the peak amplitude and
+ * the signal is scaled to half of the full scale. Quiet passages are not
+ * amplified more than a fixed maximum gain, so that noise in silence stays
+ * low
+ */
+public class AutomaticGain implements SampleFilter {
+
+    /*Release time of the envelope in seconds*/
+    private static final double RELEASE_TIME = 0.02;
+    private static final double MAX_GAIN = 32.0;
+
+    /*Gain is recomputed every few samples*/
+    private static final int GAIN_INTERVAL = 16;
+
+    private double release;
+    private double target;
+    private double minEnvelope;
+
+    private double envelope;
+    private double gain;
+    private int countdown;
+
+    /**
+     * Create filter
+     */
+    public AutomaticGain() {
+    }
+
+    @Override
+    public void init(int sampleRate, int bitsPerSample) {
+        release = Math.exp(-1.0 / (RELEASE_TIME * sampleRate));
+        target = (bitsPerSample == 8 ? 128 : 32_768) / 2.0;
+        minEnvelope = target / MAX_GAIN;
+        envelope = minEnvelope;
+        gain = target / envelope;
+        countdown = 0;
+    }
+
+    @Override
+    public void process(int[] samples, int from, int to) {
+
+        double e = envelope;
+        double g = gain;
+        int c = countdown;
+
+        for (int i = from; i < to; i++) {
+            int x = samples[i];
+            int a = x < 0 ? -x : x;
+            if (a > e) {
+                e = a;
+                g = target / e;
+                c = GAIN_INTERVAL;
+            } else {
+                e *= release;
+                if (--c <= 0) {
+                    g = target / (e > minEnvelope ? e : minEnvelope);
+                    c = GAIN_INTERVAL;
+                }
+            }
+            samples[i] = (int) (x * g);
+        }
+
+        envelope = e;
+        gain = g;
+        countdown = c;
+    }
+
+    @Override
+    public SampleFilter copy() {
+        AutomaticGain c = new AutomaticGain();
+        c.release = release;
+        c.target = target;
+        c.minEnvelope = minEnvelope;
+        c.envelope = envelope;
+        c.gain = gain;
+        c.countdown = countdown;
+        return c;
+    }
+
+    @Override
+    public long[] getState() {
+        return new long[]{
+            Double.doubleToLongBits(envelope),
+            Double.doubleToLongBits(gain),
+            countdown
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Automatic gain";
+    }
+
+}
@@ -0,0 +1,127 @@
+package turbodecoder.decoder.dsp;
+
+/**
+ * Second order IIR filter, low-pass or band-pass
+ */
+public class BiquadFilter implements SampleFilter {
+
+    public static final int LOW_PASS = 0;
+    public static final int BAND_PASS = 1;
+
+    /*Keeps the state away from denormal numbers in silence*/
+    private static final double ANTI_DENORMAL = 1e-20;
+
+    /*Output is rounded by truncation of a positive value*/
+    private static final long ROUNDING_BIAS = 1L << 31;
+
+    private final int type;
+    private final double frequency;
+    private final double q;
+
+    private double b0;
+    private double b1;
+    private double b2;
+    private double a1;
+    private double a2;
+
+    private double x1;
+    private double x2;
+    private double y1;
+    private double y2;
+
+    /**
+     * Create filter
+     *
+     * @param type LOW_PASS or BAND_PASS
+     * @param frequency Cut-off or center frequency in Hz
+     * @param q Quality factor
+     */
+    public BiquadFilter(int type, double frequency, double q) {
+        this.type = type;
+        this.frequency = frequency;
+        this.q = q;
+    }
+
+    @Override
+    public void init(int sampleRate, int bitsPerSample) {
+
+        /*Coefficients of the Audio EQ Cookbook*/
+        double f = Math.min(frequency, sampleRate * 0.45);
+        double w0 = 2 * Math.PI * f / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        double a0 = 1 + alpha;
+
+        if (type == BAND_PASS) {
+            b0 = alpha / a0;
+            b1 = 0.0;
+            b2 = -alpha / a0;
+        } else {
+            b0 = (1 - cos) / 2 / a0;
+            b1 = (1 - cos) / a0;
+            b2 = (1 - cos) / 2 / a0;
+        }
+        a1 = -2 * cos / a0;
+        a2 = (1 - alpha) / a0;
+
+        x1 = 0.0;
+        x2 = 0.0;
+        y1 = 0.0;
+        y2 = 0.0;
+    }
+
+    @Override
+    public void process(int[] samples, int from, int to) {
+
+        double px1 = x1;
+        double px2 = x2;
+        double py1 = y1;
+        double py2 = y2;
+
+        for (int i = from; i < to; i++) {
+            double x = samples[i] + ANTI_DENORMAL;
+            double y = b0 * x + b1 * px1 + b2 * px2 - a1 * py1 - a2 * py2;
+            px2 = px1;
+            px1 = x;
+            py2 = py1;
+            py1 = y;
+            samples[i] = (int) ((long) (y + (ROUNDING_BIAS + 0.5)) - ROUNDING_BIAS);
+        }
+
+        x1 = px1;
+        x2 = px2;
+        y1 = py1;
+        y2 = py2;
+    }
+
+    @Override
+    public SampleFilter copy() {
+        BiquadFilter c = new BiquadFilter(type, frequency, q);
+        c.b0 = b0;
+        c.b1 = b1;
+        c.b2 = b2;
+        c.a1 = a1;
+        c.a2 = a2;
+        c.x1 = x1;
+        c.x2 = x2;
+        c.y1 = y1;
+        c.y2 = y2;
+        return c;
+    }
+
+    @Override
+    public long[] getState() {
+        return new long[]{
+            Double.doubleToLongBits(x1),
+            Double.doubleToLongBits(x2),
+            Double.doubleToLongBits(y1),
+            Double.doubleToLongBits(y2)
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.0f Hz", type == BAND_PASS ? "Band-pass" : "Low-pass", frequency);
+    }
+
+}
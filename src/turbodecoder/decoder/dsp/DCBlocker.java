@@ -5,28 +5,145 @@
  */
 package turbodecoder.decoder.dsp;
 
-public class DCBlocker {
+public class DCBlocker implements SampleFilter {
+
+    /*Largest denominator of the time constant as a fraction*/
+    private static final int MAX_DENOMINATOR = 100_000;
 
     int xm1;
     int ym1;
     double timeConstant;
 
+    /*Rounding of the time constant multiple as integer division. Values
+     *up to the limit are biased to be positive and divided by a reciprocal*/
+    private final long twiceNumerator;
+    private final long twiceDenominator;
+    private final long bias;
+    private final long biasQuotient;
+    private final long magic;
+    private final int shift;
+    private final int fastLimit;
+
     public DCBlocker(double timeConstant) {
         xm1 = 0;
         ym1 = 0;
         this.timeConstant = timeConstant;
+
+        /*Find fraction that gives the same double, e.g. 0.995 = 199/200*/
+        long num = 0L;
+        long den = 0L;
+        for (long i = 1L; i <= MAX_DENOMINATOR; i++) {
+            long j = Math.round(timeConstant * i);
+            if ((double) j / i == timeConstant) {
+                num = j;
+                den = i;
+                break;
+            }
+        }
+
+        /*Round half up: floor((2*num*y + den) / (2*den))*/
+        if (den > 0L && num > 0L) {
+            twiceNumerator = 2 * num;
+            twiceDenominator = 2 * den;
+            fastLimit = (int) ((Integer.MAX_VALUE - den - twiceDenominator) / (2 * twiceNumerator));
+            biasQuotient = (twiceNumerator * fastLimit + twiceDenominator - 1) / twiceDenominator;
+            bias = den + biasQuotient * twiceDenominator;
+
+            /*Exact for dividends below 2^31*/
+            int l = 64 - Long.numberOfLeadingZeros(twiceDenominator - 1);
+            shift = 31 + l;
+            magic = (1L << shift) / twiceDenominator + 1;
+        } else {
+            twiceNumerator = 0L;
+            twiceDenominator = 1L;
+            fastLimit = -1;
+            biasQuotient = 0L;
+            bias = 0L;
+            shift = 0;
+            magic = 0L;
+        }
     }
 
     public int getOutputValue(int inputValue) {
-        int tempValue = inputValue - xm1 + (int) Math.round(timeConstant * ym1);
+        int tempValue = inputValue - xm1 + scale(ym1);
         xm1 = inputValue;
         ym1 = tempValue;
         return tempValue;
     }
+
+    @Override
+    public void init(int sampleRate, int bitsPerSample) {
+        reset();
+    }
+
+    @Override
+    public void process(int[] samples, int from, int to) {
+        int x1 = xm1;
+        int y1 = ym1;
+        for (int i = from; i < to; i++) {
+            int x = samples[i];
+            y1 = x - x1 + scale(y1);
+            x1 = x;
+            samples[i] = y1;
+        }
+        xm1 = x1;
+        ym1 = y1;
+    }
+
+    /**
+     * Get Math.round(timeConstant * value) using integer arithmetic. Results
+     * are identical. Products exactly half way between two integers and very
+     * large values are left to floating point, because the time constant is
+     * not exact in binary
+     */
+    private int scale(int value) {
+
+        if (value > fastLimit || value < -fastLimit) {
+            return (int) Math.round(timeConstant * value);
+        }
+
+        long n = twiceNumerator * value + bias;
+        long q = (n * magic) >>> shift;
+
+        if (n == q * twiceDenominator) {
+            return (int) Math.round(timeConstant * value);
+        }
+        return (int) (q - biasQuotient);
+    }
     
     public void reset() {
         xm1=0;
         ym1=0;
     }
 
+    public int getLastInput() {
+        return xm1;
+    }
+
+    public int getLastOutput() {
+        return ym1;
+    }
+
+    public void setState(int lastInput, int lastOutput) {
+        xm1 = lastInput;
+        ym1 = lastOutput;
+    }
+
+    @Override
+    public SampleFilter copy() {
+        DCBlocker c = new DCBlocker(timeConstant);
+        c.setState(xm1, ym1);
+        return c;
+    }
+
+    @Override
+    public long[] getState() {
+        return new long[]{xm1, ym1};
+    }
+
+    @Override
+    public String toString() {
+        return "DC Blocker";
+    }
+
 }
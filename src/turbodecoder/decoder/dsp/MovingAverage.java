@@ -0,0 +1,81 @@
+package turbodecoder.decoder.dsp;
+
+/**
+ * Moving average of the last samples, removes noise spikes shorter than the
+ * window
+ */
+public class MovingAverage implements SampleFilter {
+
+    private final int length;
+    private final int[] history;
+    private final long reciprocal;
+    private int position;
+    private long sum;
+
+    /**
+     * Create filter
+     *
+     * @param length Number of samples averaged
+     */
+    public MovingAverage(int length) {
+        this.length = Math.max(1, length);
+        history = new int[this.length];
+        /*Division by multiplication, sums are far below 2^31*/
+        reciprocal = ((1L << 32) + this.length - 1) / this.length;
+    }
+
+    @Override
+    public void init(int sampleRate, int bitsPerSample) {
+        for (int i = 0; i < length; i++) {
+            history[i] = 0;
+        }
+        position = 0;
+        sum = 0L;
+    }
+
+    @Override
+    public void process(int[] samples, int from, int to) {
+
+        int p = position;
+        long s = sum;
+
+        for (int i = from; i < to; i++) {
+            int x = samples[i];
+            s += x - history[p];
+            history[p] = x;
+            p++;
+            if (p == length) {
+                p = 0;
+            }
+            samples[i] = (int) ((s * reciprocal) >> 32);
+        }
+
+        position = p;
+        sum = s;
+    }
+
+    @Override
+    public SampleFilter copy() {
+        MovingAverage c = new MovingAverage(length);
+        System.arraycopy(history, 0, c.history, 0, length);
+        c.position = position;
+        c.sum = sum;
+        return c;
+    }
+
+    @Override
+    public long[] getState() {
+        long[] state = new long[length + 1];
+        for (int i = 0; i < length; i++) {
+            state[i] = history[(position + i) % length];
+        }
+        state[length] = sum;
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Moving average: %d", length);
+    }
+
+}
@@ -0,0 +1,40 @@
+package turbodecoder.decoder.dsp;
+
+/**
+ * Stage of the filter chain applied to samples before they are converted to
+ * logical levels. Samples are filtered in blocks, in place
+ */
+public interface SampleFilter {
+
+    /**
+     * Prepare the filter for given signal and put it to the initial state
+     *
+     * @param sampleRate Sample rate
+     * @param bitsPerSample 8 or 16 bits per sample
+     */
+    public void init(int sampleRate, int bitsPerSample);
+
+    /**
+     * Filter samples in place
+     *
+     * @param samples Samples
+     * @param from First sample
+     * @param to Past-the-last sample
+     */
+    public void process(int[] samples, int from, int to);
+
+    /**
+     * Get copy of the filter, including its state
+     *
+     * @return Copy
+     */
+    public SampleFilter copy();
+
+    /**
+     * Get state of the filter
+     *
+     * @return State values, comparable by Arrays.equals()
+     */
+    public long[] getState();
+
+}
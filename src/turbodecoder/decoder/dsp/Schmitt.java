@@ -8,14 +8,48 @@ public class Schmitt {
     private boolean currentOutput=false;
     private int threshold=0;
     
+    /*Adaptive tolerance. Differences between consecutive samples are split
+     *to noise and edges, both averaged in fixed point. The tolerance is set
+     *half way between noise peaks and edges*/
+    private static final int FRACTION_BITS=12;
+    private static final int NOISE_FACTOR=4;
+    private static final int EDGE_SHIFT=3;
+    private static final double NOISE_WINDOW=0.02;
+    private boolean adaptive=false;
+    private int noiseShift=0;
+    private int maxTolerance=0;
+    private int noiseLevel=0;
+    private int edgeLevel=0;
+    
     public void init(int tolerance,int threshold) {
         this.tolerance=tolerance;
         this.prevSample=0;
         this.currentOutput=false;
         this.threshold=threshold;
+        this.adaptive=false;
+    }
+    
+    /**
+     * Initialize with tolerance measured from the signal
+     *
+     * @param maxTolerance Maximum tolerance
+     * @param threshold Threshold
+     * @param sampleRate Sample rate, determines the noise averaging window
+     */
+    public void initAdaptive(int maxTolerance,int threshold,int sampleRate) {
+        init(0,threshold);
+        this.adaptive=true;
+        this.maxTolerance=maxTolerance;
+        this.noiseShift=Math.max(1,(int)Math.round(Math.log(sampleRate*NOISE_WINDOW)/Math.log(2.0)));
+        this.noiseLevel=0;
+        this.edgeLevel=0;
+        adaptTolerance();
     }
     
     public boolean getOutput(int sample) {
+        if (adaptive==true) {
+            measure(sample-prevSample);
+        }
         if (currentOutput==true) {
 		currentOutput = (sample >= (threshold+(prevSample - tolerance)));
         }
@@ -27,4 +61,58 @@ public class Schmitt {
         
     }
     
+    /**
+     * Add difference of consecutive samples to the noise or edge average,
+     * whichever is closer
+     */
+    private void measure(int delta) {
+        int d=(delta<0 ? -delta : delta)<<FRACTION_BITS;
+        if (d<((noiseLevel+edgeLevel)>>>1)) {
+            noiseLevel+=(d-noiseLevel)>>noiseShift;
+        }
+        else {
+            edgeLevel+=(d-edgeLevel)>>EDGE_SHIFT;
+        }
+        adaptTolerance();
+    }
+    
+    private void adaptTolerance() {
+        int t=(int)(((long)noiseLevel*NOISE_FACTOR+edgeLevel)>>(FRACTION_BITS+1));
+        tolerance=Math.min(t,maxTolerance);
+    }
+    
+    public int getTolerance() {
+        return tolerance;
+    }
+    
+    public int getNoiseLevel() {
+        return noiseLevel;
+    }
+    
+    public int getEdgeLevel() {
+        return edgeLevel;
+    }
+    
+    public int getPreviousSample() {
+        return prevSample;
+    }
+    
+    public boolean getCurrentOutput() {
+        return currentOutput;
+    }
+
+    public void setState(int previousSample, boolean currentOutput) {
+        this.prevSample = previousSample;
+        this.currentOutput = currentOutput;
+    }
+
+    public void setState(int previousSample, boolean currentOutput, int noiseLevel, int edgeLevel) {
+        setState(previousSample, currentOutput);
+        if (adaptive==true) {
+            this.noiseLevel = noiseLevel;
+            this.edgeLevel = edgeLevel;
+            adaptTolerance();
+        }
+    }
+    
 }
@@ -1,12 +1,15 @@
 package turbodecoder.decoder.pulse;
 
+import java.util.concurrent.locks.LockSupport;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.DataLine;
 import javax.sound.sampled.TargetDataLine;
 import turbodecoder.decoder.DecoderLog;
 import turbodecoder.decoder.DecoderMessage;
+import turbodecoder.decoder.DecoderMetrics;
 import turbodecoder.decoder.dsp.DCBlocker;
+import turbodecoder.decoder.dsp.SampleFilter;
 import turbodecoder.decoder.dsp.Schmitt;
 
 /**
@@ -15,12 +18,20 @@ import turbodecoder.decoder.dsp.Schmitt;
  */
 public class AudioPulseDecoder implements PulseDecoder {
 
+    /*Seconds of audio held between capture and decoding*/
+    private static final int RING_SECONDS = 4;
+    private static final long WAIT_NANOS = 200_000L;
+    private static final DecoderMetrics METRICS = DecoderMetrics.getInstance();
+
     private TargetDataLine waveLine;
     private long sample;
     private int lastValue;
     private int counter;
 
-    transient private boolean stopRequest;
+    /*Edges found since the last buffer, added to metrics once per buffer*/
+    private long edgeCount;
+
+    private volatile boolean stopRequest;
     private int maxSilence;
     private final byte[] currentByte;
 
@@ -35,6 +46,15 @@ public class AudioPulseDecoder implements PulseDecoder {
 
     private int sampleRate;
 
+    /*Capture thread and samples captured but not yet decoded*/
+    private Thread captureThread;
+    private volatile boolean capturing;
+    private volatile Exception captureError;
+    private SampleRingBuffer ring;
+    private long reportedOverruns;
+    private long reportedLostSamples;
+    private DecoderLog log;
+
     private static final double TIME_CONSTANT = 0.995;
     private boolean useDCBlocker;
     private final DCBlocker dcBlocker;
@@ -42,6 +62,16 @@ public class AudioPulseDecoder implements PulseDecoder {
      /*DSP Schmitt Trigger*/
     private int schmittTolerance;
     private final Schmitt schmitt;
+    private boolean adaptiveHysteresis;
+    private boolean useSchmitt;
+
+    /*DSP filters between DC blocker and Schmitt trigger, applied to whole
+     *buffers. Unsigned 8-bit samples are centered at zero when filtered*/
+    private SampleFilter[] sampleFilters;
+    private int[] filtered;
+    private int filteredPosition;
+    private int centerOffset;
+    private int signalZero;
 
     /**
      *
@@ -64,11 +94,30 @@ public class AudioPulseDecoder implements PulseDecoder {
         dcBlocker = new DCBlocker(TIME_CONSTANT);
         schmittTolerance=0;
         schmitt=new Schmitt();
+        adaptiveHysteresis=false;
+        sampleFilters = new SampleFilter[0];
+
+        captureThread = null;
+        capturing = false;
+        ring = null;
+    }
+
+    @Override
+    public void setSampleFilters(SampleFilter[] filters) {
+        this.sampleFilters = filters;
+    }
+
+    @Override
+    public void setAdaptiveHysteresis(boolean adaptive) {
+        this.adaptiveHysteresis = adaptive;
     }
 
     @Override
     public void init(String fspec, int samplingRate, int channel, int bitsPerSample, boolean useDCBlocker, int tolerance, DecoderLog log) throws Exception {
 
+        /*Capture of previous line is no longer needed*/
+        stopCapture();
+
         /*Handle mono/stereo etc*/
         setupSampleGetterReader(channel, bitsPerSample, samplingRate);
 
@@ -82,6 +131,14 @@ public class AudioPulseDecoder implements PulseDecoder {
         buffer = new byte[waveLine.getBufferSize()];
         bufferPosition = 0;
         bufferedCount = 0;
+        filtered = sampleFilters.length > 0 ? new int[buffer.length / numBytes] : null;
+        filteredPosition = 0;
+
+        this.log = log;
+        ring = new SampleRingBuffer(sampleRate * numBytes * RING_SECONDS);
+        reportedOverruns = 0L;
+        reportedLostSamples = 0L;
+        startCapture();
 
         this.useDCBlocker = useDCBlocker;
         dcBlocker.reset();
@@ -95,13 +152,34 @@ public class AudioPulseDecoder implements PulseDecoder {
         else {
             if (schmittTolerance>16383) schmittTolerance=16383;
         }
-        this.schmitt.init(schmittTolerance, numBits==8 ? 128 : 0);
+        
+        /*Filters*/
+        centerOffset = (numBits == 8 && sampleFilters.length > 0) ? 128 : 0;
+        signalZero = (numBits == 8 && centerOffset == 0) ? 128 : 0;
+        for (SampleFilter f : sampleFilters) {
+            f.init(sampleRate, numBits);
+        }
+
+        useSchmitt = schmittTolerance > 0 || adaptiveHysteresis;
+        if (adaptiveHysteresis) {
+            /*Given tolerance is the upper limit*/
+            this.schmitt.initAdaptive(schmittTolerance > 0 ? schmittTolerance : (numBits == 8 ? 127 : 16383), signalZero, sampleRate);
+        } else {
+            this.schmitt.init(schmittTolerance, signalZero);
+        }
         
         
         /*Display information on the decoder*/
         StringBuilder dspList = new StringBuilder();
         if (useDCBlocker) dspList.append("DC Blocker, ");
-        if (schmittTolerance>0) dspList.append(String.format("Schmitt: %d ",schmittTolerance));
+        for (SampleFilter f : sampleFilters) {
+            dspList.append(f.toString()).append(", ");
+        }
+        if (adaptiveHysteresis) {
+            dspList.append(schmittTolerance > 0 ? String.format("Schmitt: adaptive, max. %d ", schmittTolerance) : "Schmitt: adaptive ");
+        } else if (schmittTolerance>0) {
+            dspList.append(String.format("Schmitt: %d ",schmittTolerance));
+        }
         
         String infoString = String.format("FrameSize: %d, ByteIndex: %d, SamplingRate: %d, DSP:%s",numBytes,byteIndex,sampleRate,dspList.toString());
 
@@ -111,6 +189,57 @@ public class AudioPulseDecoder implements PulseDecoder {
 
     @Override
     public void close(String s) {
+        METRICS.addEdges(edgeCount);
+        edgeCount = 0L;
+        stopCapture();
+    }
+
+    /**
+     * Start thread that reads the line and puts samples to the ring buffer
+     */
+    private void startCapture() {
+
+        final TargetDataLine line = waveLine;
+        final SampleRingBuffer r = ring;
+
+        /*Small reads, so that the ring buffer gets samples soon*/
+        int chunkSize = Math.max(numBytes, (line.getBufferSize() / 4) / numBytes * numBytes);
+        final byte[] chunk = new byte[chunkSize];
+
+        capturing = true;
+        captureError = null;
+
+        captureThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (capturing == true) {
+                        int n = line.read(chunk, 0, chunk.length);
+                        /*Stopped line returns no data*/
+                        if (n <= 0) {
+                            Thread.sleep(1L);
+                            continue;
+                        }
+                        r.write(chunk, 0, n);
+                    }
+                } catch (Exception e) {
+                    if (capturing == true) {
+                        captureError = e;
+                    }
+                }
+            }
+        }, "AudioCapture");
+        captureThread.setDaemon(true);
+        captureThread.setPriority(Thread.MAX_PRIORITY);
+        captureThread.start();
+    }
+
+    /**
+     * Stop the capture thread and close the line
+     */
+    private void stopCapture() {
+
+        capturing = false;
         try {
             if (waveLine != null) {
                 waveLine.close();
@@ -118,10 +247,47 @@ public class AudioPulseDecoder implements PulseDecoder {
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        if (captureThread != null) {
+            try {
+                captureThread.join(1_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            captureThread = null;
+        }
     }
 
-    private synchronized boolean getStopRequest() {
-        return stopRequest;
+    /**
+     * Get number of times captured samples were dropped, because decoding
+     * did not keep up
+     *
+     * @return Number of overruns
+     */
+    public long getOverruns() {
+        return ring == null ? 0L : ring.getOverruns();
+    }
+
+    /**
+     * Get number of captured samples that were dropped
+     *
+     * @return Number of samples
+     */
+    public long getLostSamples() {
+        return ring == null ? 0L : ring.getLostBytes() / numBytes;
+    }
+
+    /**
+     * Check for stop request and clear it
+     *
+     * @return true if stop was requested
+     */
+    private boolean takeStopRequest() {
+        if (stopRequest == false) {
+            return false;
+        }
+        stopRequest = false;
+        return true;
     }
 
     @Override
@@ -166,6 +332,7 @@ public class AudioPulseDecoder implements PulseDecoder {
 
             if (k != lastValue) {
                 lastValue = k;
+                edgeCount++;
                 return PD_OK;
             }
 
@@ -218,6 +385,7 @@ public class AudioPulseDecoder implements PulseDecoder {
 
             if (lastValue == edgeBefore && k == edgeAfter) {
                 lastValue = k;
+                edgeCount++;
                 return PD_OK;
             }
 
@@ -244,6 +412,7 @@ public class AudioPulseDecoder implements PulseDecoder {
             }
             if (k != lastValue) {
                 lastValue = k;
+                edgeCount++;
                 return PD_OK;
             }
 
@@ -251,6 +420,46 @@ public class AudioPulseDecoder implements PulseDecoder {
 
     }
 
+    @Override
+    public int measurePulses(int[] widths, int count, int minWidth, int maxWidth) {
+
+        for (int i = 0; i < count; i++) {
+            counter = 0;
+
+            /*Both halves of the pulse, as measurePulse() does. A time out of
+             *the first half makes the second half time out too*/
+            int r = PD_OK;
+            for (int half = 0; half < 2; half++) {
+                while (true) {
+                    int k = getNextSample();
+                    if (k == PD_EOF || k == PD_USER_BREAK || k == PD_ERROR) {
+                        return k;
+                    }
+                    counter++;
+                    if (counter > maxSilence) {
+                        r = PD_TOO_LONG;
+                        break;
+                    }
+                    if (k != lastValue) {
+                        lastValue = k;
+                        edgeCount++;
+                        r = PD_OK;
+                        break;
+                    }
+                }
+            }
+            if (r != PD_OK) {
+                return r;
+            }
+
+            widths[i] = counter;
+            if (counter < minWidth || counter > maxWidth) {
+                return i + 1;
+            }
+        }
+        return count;
+    }
+
     @Override
     public int getCounter() {
         return counter;
@@ -279,31 +488,13 @@ public class AudioPulseDecoder implements PulseDecoder {
      */
     private int getNextSample() {
 
-        if (getStopRequest() == true) {
-            synchronized (this) {
-                stopRequest = false;
-            }
-            return PD_USER_BREAK;
-        }
-
         int k;
 
-        /*If there is no data in the buffer, read it*/
+        /*If there is no data in the buffer, take it from the ring buffer*/
         if (bufferedCount == 0) {
-            try {
-                bufferedCount = waveLine.read(buffer, 0, buffer.length);
-                bufferPosition = 0;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return PD_ERROR;
-            }
-        }
-
-        if (bufferedCount > 0) {
-            for (int i = 0; i < numBytes; i++) {
-                currentByte[i] = buffer[bufferPosition];
-                bufferPosition++;
-                bufferedCount--;
+            int r = fillBuffer();
+            if (r != PD_OK) {
+                return r;
             }
         }
 
@@ -311,32 +502,113 @@ public class AudioPulseDecoder implements PulseDecoder {
 
         int frame;
 
-        if (numBits == 8) {
-            frame = (currentByte[byteIndex] < 0 ? currentByte[byteIndex] + 256 : currentByte[byteIndex]);
+        /*Filtered buffer*/
+        if (filtered != null) {
+            bufferedCount -= numBytes;
+            frame = filtered[filteredPosition++];
         } else {
-            frame = (currentByte[byteIndex] & 0xFF) | ((currentByte[byteIndex + 1]) << 8);
-        }
+            if (bufferedCount > 0) {
+                for (int i = 0; i < numBytes; i++) {
+                    currentByte[i] = buffer[bufferPosition];
+                    bufferPosition++;
+                    bufferedCount--;
+                }
+            }
 
-        if (useDCBlocker == true) {
-            frame = dcBlocker.getOutputValue(frame);
+            if (numBits == 8) {
+                frame = (currentByte[byteIndex] < 0 ? currentByte[byteIndex] + 256 : currentByte[byteIndex]);
+            } else {
+                frame = (currentByte[byteIndex] & 0xFF) | ((currentByte[byteIndex + 1]) << 8);
+            }
+
+            if (useDCBlocker == true) {
+                frame = dcBlocker.getOutputValue(frame);
+            }
         }
         
-        if (schmittTolerance>0) {
-            boolean b = schmitt.getOutput(frame);
-            if (numBits==8) {
-                frame = b?255:0;
+        if (useSchmitt) {
+            return schmitt.getOutput(frame) ? 1 : 0;
+        }
+        return (frame >= signalZero) ? 1 : 0;
+
+    }
+
+    /**
+     * Wait for captured samples and copy them to the buffer
+     *
+     * @return PD_OK or USER_BREAK,ERROR
+     */
+    private int fillBuffer() {
+
+        METRICS.addEdges(edgeCount);
+        edgeCount = 0L;
+
+        while (true) {
+            /*Stop is checked once per buffer and while waiting*/
+            if (takeStopRequest() == true) {
+                return PD_USER_BREAK;
             }
-            else {
-                frame = b?32767:-32768;
+
+            long readStart = System.nanoTime();
+            int n = ring.read(buffer, 0, buffer.length, numBytes);
+
+            /*Report samples lost since the last report*/
+            long overruns = ring.getOverruns();
+            if (overruns != reportedOverruns) {
+                long lost = getLostSamples();
+                METRICS.addOverruns(overruns - reportedOverruns, lost - reportedLostSamples);
+                reportedOverruns = overruns;
+                reportedLostSamples = lost;
+                log.addMessage(new DecoderMessage("AudioPulseDecoder",
+                        String.format("Capture buffer overrun: %d, Samples lost: %d", overruns, lost),
+                        DecoderMessage.SEV_WARNING), true);
             }
-        }
 
-        if (numBits == 8) {
-            return (frame >= 128) ? 1 : 0;
-        } else {
-            return (frame < 0) ? 0 : 1;
+            if (n > 0) {
+                bufferedCount = n;
+                bufferPosition = 0;
+                long filterStart = System.nanoTime();
+                if (filtered != null) {
+                    filterBuffer(n / numBytes);
+                }
+                METRICS.addSamples(n / numBytes, filterStart - readStart, System.nanoTime() - filterStart);
+                return PD_OK;
+            }
+
+            if (captureError != null) {
+                captureError.printStackTrace();
+                return PD_ERROR;
+            }
+
+            LockSupport.parkNanos(WAIT_NANOS);
         }
+    }
+
+    /**
+     * Take samples of the decoded channel from the buffer and pass them
+     * through DC blocker and filters
+     *
+     * @param frames Number of frames in the buffer
+     */
+    private void filterBuffer(int frames) {
 
+        int[] x = filtered;
+        int p = byteIndex;
+        for (int i = 0; i < frames; i++) {
+            if (numBits == 8) {
+                x[i] = (buffer[p] & 0xFF) - centerOffset;
+            } else {
+                x[i] = (buffer[p] & 0xFF) | (buffer[p + 1] << 8);
+            }
+            p += numBytes;
+        }
+        if (useDCBlocker == true) {
+            dcBlocker.process(x, 0, frames);
+        }
+        for (SampleFilter f : sampleFilters) {
+            f.process(x, 0, frames);
+        }
+        filteredPosition = 0;
     }
 
     /**
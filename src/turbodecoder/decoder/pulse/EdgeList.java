@@ -0,0 +1,148 @@
+package turbodecoder.decoder.pulse;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Positions of all logical level changes (edges) of a sampled signal
+ */
+public class EdgeList {
+
+    private static final int INITIAL_CAPACITY = 65_536;
+
+    private final int[] edges;
+    private final int edgeCount;
+    private final int firstLevel;
+    private final long totalSamples;
+    private final int sampleRate;
+
+    private EdgeList(int[] edges, int edgeCount, int firstLevel, long totalSamples, int sampleRate) {
+        this.edges = edges;
+        this.edgeCount = edgeCount;
+        this.firstLevel = firstLevel;
+        this.totalSamples = totalSamples;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Scan all samples of a WAVE file and record positions of edges
+     *
+     * @param wave Initialized WAVE pulse decoder
+     * @return Edge list or null if the scan was interrupted by user
+     * @throws IOException
+     */
+    public static EdgeList scan(WavePulseDecoder wave) throws IOException {
+
+        wave.setCurrentSample(0);
+
+        int[] edges = new int[INITIAL_CAPACITY];
+        int count = 0;
+
+        int first = wave.nextLevel();
+        if (first == PulseDecoder.PD_EOF) {
+            return new EdgeList(edges, 0, 0, 0L, wave.getSampleRate());
+        }
+        if (first == PulseDecoder.PD_USER_BREAK) {
+            return null;
+        }
+        if (first < 0) {
+            throw new IOException("Unable to read samples of the WAVE file");
+        }
+
+        int last = first;
+        int position = 1;
+
+        while (true) {
+            int k = wave.nextLevel();
+            if (k == PulseDecoder.PD_EOF) {
+                break;
+            }
+            if (k == PulseDecoder.PD_USER_BREAK) {
+                return null;
+            }
+            if (k < 0) {
+                throw new IOException("Unable to read samples of the WAVE file");
+            }
+            if (k != last) {
+                if (count == edges.length) {
+                    edges = Arrays.copyOf(edges, edges.length * 2);
+                }
+                edges[count] = position;
+                count++;
+                last = k;
+            }
+            position++;
+        }
+
+        return new EdgeList(edges, count, first, position, wave.getSampleRate());
+    }
+
+    /**
+     * Find first edge at or after given position
+     *
+     * @param position Sample position
+     * @param fromIndex Index of an edge that is known to be before the
+     * position
+     * @return Index of the edge, edge count if there is no such edge
+     */
+    int findEdge(long position, int fromIndex) {
+        int lo = fromIndex;
+        int hi = edgeCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (edges[mid] < position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Get logical level of given sample
+     *
+     * @param position Sample position
+     * @return 0 or 1
+     */
+    int getLevel(long position) {
+        int i = findEdge(position + 1, 0);
+        return firstLevel ^ (i & 1);
+    }
+
+    int getEdge(int index) {
+        return edges[index];
+    }
+
+    /**
+     * Get number of edges
+     *
+     * @return Number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    int getFirstLevel() {
+        return firstLevel;
+    }
+
+    /**
+     * Get number of samples scanned
+     *
+     * @return Number of samples
+     */
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * Get sample rate
+     *
+     * @return Sample rate
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+}
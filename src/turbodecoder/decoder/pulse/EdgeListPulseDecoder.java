@@ -0,0 +1,470 @@
+package turbodecoder.decoder.pulse;
+
+import turbodecoder.FileFormatException;
+import turbodecoder.decoder.DecoderLog;
+import turbodecoder.decoder.DecoderMessage;
+import turbodecoder.decoder.dsp.SampleFilter;
+
+/**
+ * Pulse decoder that scans the whole WAVE file once and keeps positions of
+ * all edges. Pulses are then measured by looking up the edge list instead of
+ * reading and filtering the samples again.
+ */
+public class EdgeListPulseDecoder implements PulseDecoder {
+
+    private final WavePulseDecoder scanner;
+    private EdgeList edgeList;
+    private DecoderLog log;
+
+    /*Position in the edge list*/
+    private long sample;
+    private int nextEdge;
+    private long totalSamples;
+    private int sampleRate;
+
+    private int lastValue;
+    private int counter;
+    private int maxSilence;
+    private boolean pastEOF;
+    private volatile boolean stopRequest;
+
+    /**
+     *
+     */
+    public EdgeListPulseDecoder() {
+        scanner = new WavePulseDecoder();
+        edgeList = null;
+        sample = 0L;
+        nextEdge = 0;
+        lastValue = 0;
+        counter = 0;
+        pastEOF = false;
+        stopRequest = false;
+    }
+
+    /**
+     * Create pulse decoder over an edge list that was already scanned. The
+     * list can be shared by several decoders, init() only rewinds
+     *
+     * @param edgeList Edge list
+     */
+    public EdgeListPulseDecoder(EdgeList edgeList) {
+        scanner = null;
+        this.edgeList = edgeList;
+        totalSamples = edgeList.getTotalSamples();
+        sampleRate = edgeList.getSampleRate();
+        sample = 0L;
+        nextEdge = 0;
+        lastValue = 0;
+        counter = 0;
+        pastEOF = false;
+        stopRequest = false;
+    }
+
+    @Override
+    public void setSampleFilters(SampleFilter[] filters) {
+        /*Levels of a shared edge list were filtered when it was scanned*/
+        if (scanner != null) {
+            scanner.setSampleFilters(filters);
+        }
+    }
+
+    @Override
+    public void setAdaptiveHysteresis(boolean adaptive) {
+        if (scanner != null) {
+            scanner.setAdaptiveHysteresis(adaptive);
+        }
+    }
+
+    @Override
+    public void init(String fspec, int samplingRate, int channel, int bitsPerSample, boolean useDCBlocker, int tolerance, DecoderLog log) throws Exception {
+
+        /*Shared edge list*/
+        if (scanner == null) {
+            this.log = log;
+            setCurrentSample(0);
+            lastValue = 0;
+            counter = 0;
+            stopRequest = false;
+            return;
+        }
+
+        /*The scanner validates the file and provides samples for the scan*/
+        scanner.init(fspec, samplingRate, channel, bitsPerSample, useDCBlocker, tolerance, log);
+
+        if (scanner.getTotalSamples() > Integer.MAX_VALUE) {
+            scanner.close(null);
+            throw new FileFormatException("The WAVE file is too long to be decoded using an edge list");
+        }
+
+        this.log = log;
+        edgeList = null;
+        totalSamples = scanner.getTotalSamples();
+        sampleRate = scanner.getSampleRate();
+
+        sample = 0L;
+        nextEdge = 0;
+        lastValue = 0;
+        counter = 0;
+        pastEOF = false;
+        stopRequest = false;
+
+    }
+
+    /**
+     * Scan the WAVE file if not already done. The scan is postponed until the
+     * first pulse is requested, so it runs in the decoding thread
+     */
+    private int prepareEdgeList() {
+
+        if (edgeList != null) {
+            return PD_OK;
+        }
+
+        EdgeList el;
+        try {
+            el = EdgeList.scan(scanner);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return PD_ERROR;
+        }
+
+        if (el == null) {
+            stopRequest = false;
+            return PD_USER_BREAK;
+        }
+
+        scanner.close(null);
+
+        edgeList = el;
+        totalSamples = el.getTotalSamples();
+        if (sample > totalSamples) {
+            sample = totalSamples;
+        }
+        nextEdge = el.findEdge(sample, 0);
+
+        log.addMessage(new DecoderMessage("EdgeListPulseDecoder",
+                String.format("Edges: %d, Samples: %d", el.getEdgeCount(), totalSamples),
+                DecoderMessage.SEV_DETAIL), true);
+
+        return PD_OK;
+    }
+
+    @Override
+    public void close(String s) {
+        /*Shared edge list is kept, it belongs to the creator of the decoder*/
+        if (scanner != null) {
+            scanner.close(s);
+            edgeList = null;
+        }
+    }
+
+    /**
+     * Check for stop request and clear it
+     *
+     * @return true if stop was requested
+     */
+    private boolean takeStopRequest() {
+        if (stopRequest == false) {
+            return false;
+        }
+        stopRequest = false;
+        return true;
+    }
+
+    @Override
+    public boolean isPositionable() {
+        return true;
+    }
+
+    @Override
+    public void setTimeOut(int s) {
+        maxSilence = s;
+    }
+
+    @Override
+    public synchronized void requestStop(boolean emergency) {
+        stopRequest = true;
+        if (edgeList == null) {
+            scanner.requestStop(emergency);
+        }
+    }
+
+    @Override
+    public long getCurrentSample() {
+        return sample;
+    }
+
+    @Override
+    public void setCurrentSample(int s) {
+        sample = s;
+        pastEOF = false;
+        if (edgeList != null) {
+            if (sample > totalSamples) {
+                sample = totalSamples;
+            }
+            nextEdge = edgeList.findEdge(sample, 0);
+        }
+    }
+
+    @Override
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getCounter() {
+        return counter;
+    }
+
+    @Override
+    public void setCounter(int c) {
+        counter = c;
+    }
+
+    /**
+     * Check for user break and end of the edge list
+     */
+    private int checkState() {
+
+        if (takeStopRequest() == true) {
+            return PD_USER_BREAK;
+        }
+
+        int r = prepareEdgeList();
+        if (r != PD_OK) {
+            return r;
+        }
+
+        if (pastEOF == true) {
+            return PD_EOF;
+        }
+        return PD_OK;
+    }
+
+    /**
+     * Get index of the first edge after the current sample
+     */
+    private int followingEdge() {
+        int i = nextEdge;
+        if (i < edgeList.getEdgeCount() && edgeList.getEdge(i) == sample) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Consume all samples up to and including given position. Position equal
+     * to the total number of samples stands for the end of file
+     */
+    private void consumeThrough(long position) {
+        if (position >= totalSamples) {
+            sample = totalSamples;
+            nextEdge = edgeList.getEdgeCount();
+            pastEOF = true;
+        } else {
+            sample = position + 1;
+            nextEdge = edgeList.findEdge(sample, nextEdge);
+        }
+    }
+
+    /**
+     * Number of samples that can be counted before timeout
+     */
+    private long samplesUntilTimeOut() {
+        return Math.max(1L, (long) maxSilence - counter + 1);
+    }
+
+    @Override
+    public int countUntilAnyEdge() {
+
+        int r = checkState();
+        if (r != PD_OK) {
+            return r;
+        }
+
+        /*Find first sample with level different from the last one*/
+        long q;
+        int value;
+
+        if (sample >= totalSamples) {
+            q = totalSamples;
+            value = lastValue == 1 ? 0 : 1;
+        } else {
+            int i = followingEdge();
+            int current = edgeList.getFirstLevel() ^ (i & 1);
+            if (current != lastValue) {
+                q = sample;
+                value = current;
+            } else if (i < edgeList.getEdgeCount()) {
+                q = edgeList.getEdge(i);
+                value = current ^ 1;
+            } else {
+                /*End of file is considered logical value change*/
+                q = totalSamples;
+                value = lastValue == 1 ? 0 : 1;
+            }
+        }
+
+        long n = q - sample + 1;
+        long need = samplesUntilTimeOut();
+
+        if (need <= n) {
+            consumeThrough(sample + need - 1);
+            counter += (int) need;
+            return PD_TOO_LONG;
+        }
+
+        consumeThrough(q);
+        counter += (int) n;
+        lastValue = value;
+        return PD_OK;
+
+    }
+
+    @Override
+    public int waitForRisingEdge() {
+        return waitForSpecificEdge(true, false);
+    }
+
+    @Override
+    public int countUntilRisingEdge() {
+        return waitForSpecificEdge(true, true);
+    }
+
+    @Override
+    public int waitForFallingEdge() {
+        return waitForSpecificEdge(false, false);
+    }
+
+    @Override
+    public int countUntilFallingEdge() {
+        return waitForSpecificEdge(false, true);
+    }
+
+    private int waitForSpecificEdge(boolean rising, boolean count) {
+
+        lastValue = -1;
+        int r = checkState();
+        if (r != PD_OK) {
+            return r;
+        }
+
+        final int edgeBefore = rising ? 0 : 1;
+        final int edgeAfter = rising ? 1 : 0;
+
+        /*Find the edge of required direction, -1 if there is none*/
+        long q = -1L;
+        int lastLevel = 0;
+
+        if (sample < totalSamples) {
+            int i = followingEdge();
+            int current = edgeList.getFirstLevel() ^ (i & 1);
+            int j = i + (current == edgeBefore ? 0 : 1);
+            lastLevel = edgeList.getFirstLevel() ^ (edgeList.getEdgeCount() & 1);
+
+            if (j < edgeList.getEdgeCount()) {
+                q = edgeList.getEdge(j);
+            } /*End of file is considered logical value change*/ else if (lastLevel == edgeBefore) {
+                q = totalSamples;
+            }
+        }
+
+        long end = (q == -1L) ? totalSamples : q;
+        long n = end - sample + 1;
+
+        if (count == true) {
+            long need = samplesUntilTimeOut();
+            if (need <= n) {
+                long t = sample + need - 1;
+                lastValue = (t == sample) ? -1 : edgeList.getLevel(t - 1);
+                consumeThrough(t);
+                counter += (int) need;
+                return PD_TOO_LONG;
+            }
+            counter += (int) n;
+        }
+
+        /*No edge found before end of file*/
+        if (q == -1L) {
+            lastValue = (sample < totalSamples) ? (lastLevel == 1 ? 0 : 1) : 1;
+            consumeThrough(totalSamples);
+            return PD_EOF;
+        }
+
+        consumeThrough(q);
+        lastValue = edgeAfter;
+        return PD_OK;
+    }
+
+    @Override
+    public int measurePulse() {
+
+        int r = countUntilAnyEdge();
+        if (r == PD_EOF || r == PD_ERROR || r == PD_USER_BREAK) {
+            return r;
+        }
+
+        return countUntilAnyEdge();
+    }
+
+    @Override
+    public int measurePulses(int[] widths, int count, int minWidth, int maxWidth) {
+
+        /*Each half of a pulse is the difference of two edges of the list*/
+        for (int i = 0; i < count; i++) {
+            counter = 0;
+            int r = countUntilAnyEdge();
+            if (r == PD_EOF || r == PD_ERROR || r == PD_USER_BREAK) {
+                return r;
+            }
+            r = countUntilAnyEdge();
+            if (r != PD_OK) {
+                return r;
+            }
+
+            widths[i] = counter;
+            if (counter < minWidth || counter > maxWidth) {
+                return i + 1;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String getMessage(int result) {
+        switch (result) {
+            case PD_EOF:
+                return "EOF: End of file reached";
+            case PD_TOO_LONG:
+                return "ERROR: No pulse found";
+            case PD_USER_BREAK:
+                return "BREAK: User break";
+            case PD_ERROR:
+                return "ERROR: I/O Error";
+            case PD_OK:
+                return "OK: Success";
+            case PD_NOT_ONE_NOT_ZERO:
+                return "ERROR: Not one, not zero: [" + Integer.toString(counter) + "]";
+            case PD_FILE_FORMAT_ERROR:
+                return "ERROR: Bad file format";
+            default:
+                return "CODE: " + Integer.toString(result);
+        }
+    }
+
+    /**
+     *
+     * @return
+     */
+    @Override
+    public String getCurrentSampleString() {
+        return "{" + sample + "}";
+    }
+
+}
@@ -0,0 +1,169 @@
+package turbodecoder.decoder.pulse;
+
+import java.io.IOException;
+
+/**
+ * Logical levels of all samples of a WAVE file, one bit per sample. Levels
+ * are taken after DSPs, so the map is valid only for the DSP settings used
+ * by the scan. The map is filled by a scan from the start of the file and can
+ * be read while the scan is in progress, readers wait for the samples they
+ * need
+ */
+final class LevelMap {
+
+    private final long[] words;
+    /*Samples scanned so far, levels are appended in order*/
+    private long totalSamples;
+    private boolean finished;
+    private boolean failed;
+
+    private LevelMap(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Create empty map
+     *
+     * @param samples Number of samples of the file
+     * @param maxBytes Maximum size of the map
+     * @return Level map or null if the map would be too large
+     */
+    static LevelMap create(long samples, long maxBytes) {
+
+        long capacity = (samples + 63) >>> 6;
+        if (capacity * 8 > maxBytes || capacity > Integer.MAX_VALUE - 8) {
+            return null;
+        }
+        return new LevelMap(new long[(int) capacity]);
+    }
+
+    /**
+     * Scan all samples of a WAVE file and record their logical levels
+     *
+     * @param wave Initialized WAVE pulse decoder
+     * @return true if all samples were scanned, false if the scan was
+     * interrupted
+     * @throws IOException
+     */
+    boolean scan(WavePulseDecoder wave) throws IOException {
+
+        boolean complete = false;
+
+        try {
+            wave.setCurrentSample(0);
+
+            while (true) {
+                int n = wave.readLevelBlock();
+                if (n < 0) {
+                    break;
+                }
+                if (n == 0) {
+                    complete = true;
+                    break;
+                }
+                synchronized (this) {
+                    if (totalSamples + n > words.length * 64L) {
+                        break;
+                    }
+                    append(words, totalSamples, wave.getLevelBlock(), n);
+                    totalSamples += n;
+                    notifyAll();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                finished = true;
+                failed = !complete;
+                notifyAll();
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Append levels to the map
+     *
+     * @param map Map words
+     * @param position Index of the first sample to be written
+     * @param src Levels, bits past the last sample must be clear
+     * @param n Number of samples
+     */
+    private static void append(long[] map, long position, long[] src, int n) {
+
+        int w = (int) (position >>> 6);
+        int shift = (int) (position & 63);
+        int count = (n + 63) >>> 6;
+
+        for (int i = 0; i < count; i++) {
+            long word = src[i];
+            map[w + i] |= word << shift;
+            if (shift != 0 && w + i + 1 < map.length) {
+                map[w + i + 1] |= word >>> (64 - shift);
+            }
+        }
+    }
+
+    /**
+     * Copy levels of following samples. Waits until the scan reaches the
+     * samples or ends
+     *
+     * @param from Index of the first sample
+     * @param dest Destination, levels are packed from the lowest bit of the
+     * first word
+     * @param max Maximum number of samples
+     * @return Number of samples copied, 0 past the end of the map, -1 if the
+     * scan did not complete
+     */
+    synchronized int copy(long from, long[] dest, int max) {
+
+        while (finished == false && totalSamples < from + max) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+        if (failed == true) {
+            return -1;
+        }
+
+        long available = totalSamples - from;
+        if (available <= 0) {
+            return 0;
+        }
+        int n = available < max ? (int) available : max;
+
+        int w = (int) (from >>> 6);
+        int shift = (int) (from & 63);
+        int count = (n + 63) >>> 6;
+
+        for (int i = 0; i < count; i++) {
+            long word = words[w + i] >>> shift;
+            if (shift != 0 && w + i + 1 < words.length) {
+                word |= words[w + i + 1] << (64 - shift);
+            }
+            dest[i] = word;
+        }
+        return n;
+    }
+
+    /**
+     * Get number of samples scanned
+     *
+     * @return Number of samples
+     */
+    synchronized long getTotalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * Get size of the map
+     *
+     * @return Size in bytes
+     */
+    long getSize() {
+        return words.length * 8L;
+    }
+
+}
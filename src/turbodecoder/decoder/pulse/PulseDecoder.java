@@ -1,6 +1,7 @@
 package turbodecoder.decoder.pulse;
 
 import turbodecoder.decoder.DecoderLog;
+import turbodecoder.decoder.dsp.SampleFilter;
 
 /**
  * Pulse decoder
@@ -58,6 +59,21 @@ public interface PulseDecoder {
      */
     public void init(String fspec,int samplingRate, int channel, int bitsPerSample,boolean dcBlocker,int tolerance,DecoderLog log) throws Exception;
 
+    /**
+     * Set filters applied to samples after the DC blocker and before the
+     * Schmitt trigger, in given order. Takes effect on the next call to init()
+     * @param filters Filters, empty array for none
+     */
+    public void setSampleFilters(SampleFilter[] filters);
+
+    /**
+     * Choose whether Schmitt trigger tolerance is measured from the noise of
+     * the signal. Tolerance given to init() is then the upper limit, or 0 for
+     * no limit. Takes effect on the next call to init()
+     * @param adaptive true for adaptive tolerance
+     */
+    public void setAdaptiveHysteresis(boolean adaptive);
+
     /**
      * Close pulse decoder
      * @throws java.lang.Exception
@@ -139,6 +155,37 @@ public interface PulseDecoder {
      */
     public int measurePulse();
 
+    /**
+     * Measure widths of consecutive pulses. Same as calling setCounter(0)
+     * and measurePulse() for each pulse. Measuring stops after the first pulse
+     * whose width is out of given range, so no more samples are consumed than
+     * needed to find out that the pulses are not valid. Pulse decoders
+     * override this with a loop over their own samples or edges
+     *
+     * @param widths Array for widths of the pulses
+     * @param count Number of pulses to measure
+     * @param minWidth Minimum expected width
+     * @param maxWidth Maximum expected width
+     * @return Number of pulses measured, or result code of measurePulse()
+     * when a pulse cannot be measured
+     */
+    public default int measurePulses(int[] widths, int count, int minWidth, int maxWidth) {
+
+        for (int i = 0; i < count; i++) {
+            setCounter(0);
+            int r = measurePulse();
+            if (r != PD_OK) {
+                return r;
+            }
+            int width = getCounter();
+            widths[i] = width;
+            if (width < minWidth || width > maxWidth) {
+                return i + 1;
+            }
+        }
+        return count;
+    }
+
     /**
      * Set maximum samples until timeout (no edge, no pulse)
      * @param s 
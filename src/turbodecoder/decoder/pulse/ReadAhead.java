@@ -0,0 +1,145 @@
+package turbodecoder.decoder.pulse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a file in background, so that the next buffers are ready while the
+ * current one is being decoded. Reads are positional, the file pointer of
+ * the channel is not changed
+ */
+final class ReadAhead {
+
+    private static final long POLL_INTERVAL = 100L;
+
+    private final FileChannel channel;
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final ArrayBlockingQueue<ByteBuffer> filled;
+    private volatile boolean stopped;
+    private volatile IOException error;
+
+    /*Buffer held by the consumer*/
+    private ByteBuffer current;
+    private boolean ended;
+
+    /**
+     * Start reading
+     *
+     * @param channel File channel
+     * @param position Position of the first byte to be read
+     * @param depth Number of buffers read in advance
+     * @param bufferSize Size of a buffer
+     */
+    ReadAhead(FileChannel channel, final long position, int depth, int bufferSize) {
+
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        free = new ArrayBlockingQueue<>(depth + 1);
+        filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i <= depth; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+        stopped = false;
+        error = null;
+        current = null;
+        ended = false;
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                readAll(position);
+            }
+        }, "ReadAhead");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Fill free buffers until end of file or stop
+     */
+    private void readAll(long position) {
+
+        try {
+            while (stopped == false) {
+                ByteBuffer b = free.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (b == null) {
+                    continue;
+                }
+
+                /*Fill whole buffer, partially filled buffer marks end of file*/
+                b.clear();
+                while (b.hasRemaining()) {
+                    int n = channel.read(b, position);
+                    if (n == -1) {
+                        break;
+                    }
+                    position += n;
+                }
+                b.flip();
+                filled.put(b);
+
+                if (b.limit() < bufferSize) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (stopped == false) {
+                error = e;
+                /*Wake up the consumer, error is reported instead of data*/
+                filled.offer(ByteBuffer.allocate(0));
+            }
+        } catch (InterruptedException e) {
+            /*Stop reading*/
+        }
+    }
+
+    /**
+     * Get next buffer. The previous buffer is given back for reading
+     *
+     * @return Buffer with data between position and limit, empty at the end
+     * of file
+     * @throws IOException
+     */
+    ByteBuffer next() throws IOException {
+
+        if (current != null) {
+            current.clear();
+            free.offer(current);
+            current = null;
+        }
+
+        if (ended == true) {
+            return ByteBuffer.allocate(0);
+        }
+
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Read ahead interrupted", e);
+        }
+
+        if (error != null) {
+            throw error;
+        }
+
+        if (current.limit() < bufferSize) {
+            ended = true;
+        }
+        return current;
+    }
+
+    /**
+     * Stop reading. Read in progress is finished, but its data are discarded
+     */
+    void close() {
+        stopped = true;
+        free.clear();
+        filled.clear();
+    }
+
+}
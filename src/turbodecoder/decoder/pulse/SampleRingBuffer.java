@@ -0,0 +1,113 @@
+package turbodecoder.decoder.pulse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring buffer of sample bytes with one producer and one consumer.
+ * When the consumer does not keep up, data that do not fit are dropped and
+ * counted as an overrun
+ */
+final class SampleRingBuffer {
+
+    private final byte[] data;
+    private final int mask;
+
+    /*Total bytes read and written, positions in the buffer are masked*/
+    private final AtomicLong head;
+    private final AtomicLong tail;
+
+    /*Updated by the producer only*/
+    private volatile long overruns;
+    private volatile long lostBytes;
+
+    /**
+     * Create buffer
+     *
+     * @param minCapacity Minimum capacity in bytes, rounded up to a power of
+     * two
+     */
+    SampleRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(minCapacity, 2) - 1) << 1;
+        data = new byte[capacity];
+        mask = capacity - 1;
+        head = new AtomicLong(0L);
+        tail = new AtomicLong(0L);
+        overruns = 0L;
+        lostBytes = 0L;
+    }
+
+    /**
+     * Write bytes. Called by the producer only
+     *
+     * @param src Source
+     * @param off Offset in the source
+     * @param len Number of bytes
+     * @return false if there was no room, the bytes were dropped
+     */
+    boolean write(byte[] src, int off, int len) {
+
+        long t = tail.get();
+        if (data.length - (t - head.get()) < len) {
+            overruns++;
+            lostBytes += len;
+            return false;
+        }
+
+        int p = (int) (t & mask);
+        int first = Math.min(len, data.length - p);
+        System.arraycopy(src, off, data, p, first);
+        System.arraycopy(src, off + first, data, 0, len - first);
+
+        /*Publish the bytes*/
+        tail.lazySet(t + len);
+        return true;
+    }
+
+    /**
+     * Read available bytes without waiting. Called by the consumer only
+     *
+     * @param dst Destination
+     * @param off Offset in the destination
+     * @param len Maximum number of bytes
+     * @param unit Number of bytes read is a multiple of the unit
+     * @return Number of bytes read
+     */
+    int read(byte[] dst, int off, int len, int unit) {
+
+        long h = head.get();
+        long available = tail.get() - h;
+        int n = (int) Math.min(available, len);
+        n -= n % unit;
+        if (n == 0) {
+            return 0;
+        }
+
+        int p = (int) (h & mask);
+        int first = Math.min(n, data.length - p);
+        System.arraycopy(data, p, dst, off, first);
+        System.arraycopy(data, 0, dst, off + first, n - first);
+
+        /*Free the room*/
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * Get number of writes that were dropped
+     *
+     * @return Number of overruns
+     */
+    long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Get number of bytes that were dropped
+     *
+     * @return Number of bytes
+     */
+    long getLostBytes() {
+        return lostBytes;
+    }
+
+}
@@ -1,10 +1,17 @@
 package turbodecoder.decoder.pulse;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import turbodecoder.FileFormatException;
+import turbodecoder.decoder.DecodeRecord;
 import turbodecoder.decoder.DecoderLog;
 import turbodecoder.decoder.DecoderMessage;
+import turbodecoder.decoder.DecoderMetrics;
 import turbodecoder.decoder.dsp.DCBlocker;
+import turbodecoder.decoder.dsp.SampleFilter;
 import turbodecoder.decoder.dsp.Schmitt;
 
 /**
@@ -14,20 +21,36 @@ import turbodecoder.decoder.dsp.Schmitt;
 public class WavePulseDecoder implements PulseDecoder {
 
     private static final int BUF_SIZE = 32_768;
+    private static final int DEFAULT_BLOCK_SIZE = 65_536;
+    private static final long MAP_WINDOW_SIZE = 1L << 30;
+    private static final DecoderMetrics METRICS = DecoderMetrics.getInstance();
 
     private RandomAccessFile waveFile;
     private long sample;
     private int lastValue;
     private int counter;
     private int offset;
-    transient private boolean stopRequest;
+    private volatile boolean stopRequest;
     private int maxSilence;
     private int frameSize;
     private int byteIndex;
-    private final byte[] currentByte;
-    private int bufAvail;
-    private int bufPointer;
-    private byte[] buffer;
+
+    /*Edges found since the last block, added to metrics once per block*/
+    private long edgeCount;
+
+    /*Frames of the current block and their logical levels, one bit per sample*/
+    private byte[] blockBytes;
+    /*Mapped window that holds the current block, frames are then taken from
+     *the window starting at blockBase and blockBytes is not used*/
+    private ByteBuffer blockWindow;
+    private int blockBase;
+    private long[] levels;
+    private int blockFrames;
+
+    /*Samples of the decoded channel of the current block, for DSPs*/
+    private int[] blockSamples;
+    private int levelCount;
+    private int levelPos;
 
     private int bytesPerSample;
     private int numChannels;
@@ -35,6 +58,20 @@ public class WavePulseDecoder implements PulseDecoder {
     private long totalSamples;
     private boolean pastEOF;
 
+    /*Memory mapped input*/
+    private boolean memoryMapped;
+    private MappedByteBuffer[] mappedWindows;
+    private MappedByteBuffer mappedWindow;
+    private int mappedWindowIndex;
+    private int mappedPointer;
+    private long mappedWindowSize;
+    private long dataLength;
+
+    /*Buffered input read in background*/
+    private int readAheadDepth;
+    private int blockSize;
+    private ReadAhead readAhead;
+
     /*DSP DC blocker*/
     private static final double TIME_CONSTANT = 0.995;
     private boolean useDCBlocker;
@@ -43,6 +80,34 @@ public class WavePulseDecoder implements PulseDecoder {
     /*DSP Schmitt Trigger*/
     private int schmittTolerance;
     private final Schmitt schmitt;
+    private boolean adaptiveHysteresis;
+    private boolean useSchmitt;
+
+    /*DSP filters between DC blocker and Schmitt trigger. Unsigned 8-bit
+     *samples are centered at zero when filtered*/
+    private SampleFilter[] sampleFilters;
+    private int centerOffset;
+    private int signalZero;
+    private boolean useDSPs;
+
+    /*State of DSPs at the first sample of the current block*/
+    private int blockDCInput;
+    private int blockDCOutput;
+    private int blockSchmittSample;
+    private boolean blockSchmittOutput;
+    private int blockSchmittNoise;
+    private int blockSchmittEdge;
+    private SampleFilter[] blockFilters;
+
+    /*Level map of the whole file, built in background on first read*/
+    private static final int LEVEL_MAP_MEMORY_SHARE = 4;
+    private boolean useLevelMap;
+    private volatile LevelMap levelMap;
+    private WavePulseDecoder levelMapScanner;
+    private boolean blockFromMap;
+    private String fspec;
+    private int channel;
+    private DecoderLog log;
     
 
     /**
@@ -54,17 +119,81 @@ public class WavePulseDecoder implements PulseDecoder {
         lastValue = 0;
         counter = 0;
         stopRequest = false;
-        currentByte = new byte[4];
+        levels = new long[DEFAULT_BLOCK_SIZE / 64];
         pastEOF = false;
         useDCBlocker = false;
         dcBlocker = new DCBlocker(TIME_CONSTANT);
         schmittTolerance=0;
         schmitt=new Schmitt();
+        adaptiveHysteresis=false;
+        sampleFilters = new SampleFilter[0];
+        blockFilters = sampleFilters;
+        memoryMapped = Boolean.getBoolean("turbodecoder.memoryMappedWave");
+        useLevelMap = false;
+        levelMap = null;
+        levelMapScanner = null;
+        readAheadDepth = Integer.getInteger("turbodecoder.readAheadDepth", 2);
+        blockSize = Integer.getInteger("turbodecoder.readAheadBufferSize", DEFAULT_BLOCK_SIZE);
+        readAhead = null;
+    }
+
+    /**
+     * Choose whether the data chunk of the WAVE file is memory mapped. Takes
+     * effect on the next call to init()
+     *
+     * @param memoryMapped true to decode samples straight from mapped memory
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Set read ahead of buffered input. Buffers are filled by a background
+     * thread while samples of the current buffer are decoded. Takes effect on
+     * the next call to init()
+     *
+     * @param depth Number of buffers read in advance, 0 to read in the
+     * decoding thread
+     * @param bufferSize Size of a buffer in bytes, rounded down to 64 frames
+     */
+    public void setReadAhead(int depth, int bufferSize) {
+        this.readAheadDepth = depth;
+        this.blockSize = bufferSize;
+    }
+
+    /**
+     * Choose whether logical levels of the whole file are kept in memory.
+     * The file is scanned in background after the first samples are read,
+     * then all reads, including those after setCurrentSample(), are served
+     * from the map. Takes effect on the next call to init()
+     *
+     * @param useLevelMap true to build the level map
+     */
+    public void setLevelMapEnabled(boolean useLevelMap) {
+        this.useLevelMap = useLevelMap;
+    }
+
+    @Override
+    public void setSampleFilters(SampleFilter[] filters) {
+        /*Filters are replaced by their snapshots when rewinding, keep the array of the caller intact*/
+        this.sampleFilters = filters.clone();
+    }
+
+    @Override
+    public void setAdaptiveHysteresis(boolean adaptive) {
+        this.adaptiveHysteresis = adaptive;
     }
 
     @Override
     public void init(String fspec, int samplingRate, int channel, int bitsPerSample, boolean useDCBlocker,int tolerance,DecoderLog log) throws Exception {
 
+        /*Level map of previous file or DSP settings is not valid*/
+        stopLevelMap();
+        closeReadAhead();
+        this.fspec = fspec;
+        this.channel = channel;
+        this.log = log;
+
         /*Open and examine file*/
         waveFile = new RandomAccessFile(fspec, "r");
         examineFormat();
@@ -81,12 +210,25 @@ public class WavePulseDecoder implements PulseDecoder {
             byteIndex = 0;
         }
 
+        /*Initialize buffering or mapping*/
+        if (memoryMapped == true) {
+            mapDataChunk();
+        } else {
+            mappedWindows = null;
+            mappedWindow = null;
+        }
+
         rewind();
         
-        /*Initialize buffering*/
-        buffer = new byte[BUF_SIZE];
-        bufAvail = 0;
-        bufPointer = 0;
+        /*Whole words of levels per block*/
+        blockFrames = Math.max(64, (blockSize / frameSize) & ~63);
+        blockBytes = new byte[blockFrames * frameSize];
+        blockWindow = null;
+        levels = new long[blockFrames / 64];
+        blockSamples = new int[blockFrames];
+        levelCount = 0;
+        levelPos = 0;
+        blockFromMap = false;
         
         /*Initialize DSPs*/
         
@@ -103,26 +245,93 @@ public class WavePulseDecoder implements PulseDecoder {
         else {
             if (schmittTolerance>16383) schmittTolerance=16383;
         }
-        this.schmitt.init(schmittTolerance, bytesPerSample==1 ? 128 : 0);
+        
+        /*Filters*/
+        centerOffset = (bytesPerSample == 1 && sampleFilters.length > 0) ? 128 : 0;
+        signalZero = (bytesPerSample == 1 && centerOffset == 0) ? 128 : 0;
+        for (SampleFilter f : sampleFilters) {
+            f.init(sampleRate, bytesPerSample * 8);
+        }
+        blockFilters = new SampleFilter[sampleFilters.length];
+        useSchmitt = schmittTolerance > 0 || adaptiveHysteresis;
+        useDSPs = useDCBlocker || useSchmitt || sampleFilters.length > 0;
+
+        if (adaptiveHysteresis) {
+            /*Given tolerance is the upper limit*/
+            this.schmitt.initAdaptive(schmittTolerance > 0 ? schmittTolerance : (bytesPerSample == 1 ? 127 : 16383), signalZero, sampleRate);
+        } else {
+            this.schmitt.init(schmittTolerance, signalZero);
+        }
         
         /*Report on DSPs and their settings*/
         StringBuilder dspList = new StringBuilder();
         if (useDCBlocker) dspList.append("DC Blocker, ");
-        if (schmittTolerance>0) dspList.append(String.format("Schmitt: %d ",schmittTolerance));
+        for (SampleFilter f : sampleFilters) {
+            dspList.append(f.toString()).append(", ");
+        }
+        if (adaptiveHysteresis) {
+            dspList.append(schmittTolerance > 0 ? String.format("Schmitt: adaptive, max. %d ", schmittTolerance) : "Schmitt: adaptive ");
+        } else if (schmittTolerance>0) {
+            dspList.append(String.format("Schmitt: %d ",schmittTolerance));
+        }
         
         
         log.addMessage(new DecoderMessage("WavePulseDecoder",
-                String.format("%s FrameSize: %02d, ByteIndex: %d, SamplingRate: %d, DSP: %s",
-                        fspec, frameSize, byteIndex, sampleRate,dspList.toString()),
+                String.format("%s FrameSize: %02d, ByteIndex: %d, SamplingRate: %d, Input: %s, DSP: %s",
+                        fspec, frameSize, byteIndex, sampleRate, memoryMapped ? "Mapped" : "Buffered", dspList.toString()),
                 DecoderMessage.SEV_DETAIL), false);
         
         
 
     }
 
+    /**
+     * Map the data chunk of the WAVE file. Chunks larger than the maximum
+     * mapping size are split into windows of whole frames
+     */
+    private void mapDataChunk() throws IOException {
+
+        FileChannel channel = waveFile.getChannel();
+
+        /*Data chunk length is already limited to the end of file*/
+        long length = dataLength - dataLength % frameSize;
+
+        mappedWindowSize = MAP_WINDOW_SIZE - (MAP_WINDOW_SIZE % frameSize);
+        int numWindows = (int) ((length + mappedWindowSize - 1) / mappedWindowSize);
+        mappedWindows = new MappedByteBuffer[numWindows];
+
+        for (int i = 0; i < numWindows; i++) {
+            long start = i * mappedWindowSize;
+            long size = Math.min(mappedWindowSize, length - start);
+            mappedWindows[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, size);
+        }
+    }
+
+    /**
+     * Position mapped input at given sample
+     */
+    private void seekMapped(long s) {
+        long position = s * frameSize;
+        mappedWindowIndex = (int) (position / mappedWindowSize);
+        if (mappedWindowIndex < mappedWindows.length) {
+            mappedWindow = mappedWindows[mappedWindowIndex];
+            mappedPointer = (int) (position % mappedWindowSize);
+        } /*Past the end, next sample is EOF*/ else {
+            mappedWindowIndex = mappedWindows.length;
+            mappedWindow = null;
+            mappedPointer = 0;
+        }
+    }
+
     @Override
     public void close(String s) {
+        METRICS.addEdges(edgeCount);
+        edgeCount = 0L;
+        stopLevelMap();
+        closeReadAhead();
         try {
+            mappedWindows = null;
+            mappedWindow = null;
             if (waveFile != null) {
                 waveFile.close();
             }
@@ -131,8 +340,17 @@ public class WavePulseDecoder implements PulseDecoder {
         }
     }
 
-    private synchronized boolean getStopRequest() {
-        return stopRequest;
+    /**
+     * Check for stop request and clear it
+     *
+     * @return true if stop was requested
+     */
+    private boolean takeStopRequest() {
+        if (stopRequest == false) {
+            return false;
+        }
+        stopRequest = false;
+        return true;
     }
 
     @Override
@@ -146,7 +364,7 @@ public class WavePulseDecoder implements PulseDecoder {
     }
 
     @Override
-    public synchronized void requestStop(boolean emergency) {
+    public void requestStop(boolean emergency) {
         stopRequest = true;
     }
 
@@ -161,6 +379,7 @@ public class WavePulseDecoder implements PulseDecoder {
         int k;
 
         while (true) {
+            skipLevel(true);
             k = getNextSample();
 
             if (k == PD_EOF || k == PD_USER_BREAK || k == PD_ERROR) {
@@ -174,6 +393,7 @@ public class WavePulseDecoder implements PulseDecoder {
 
             if (k != lastValue) {
                 lastValue = k;
+                edgeCount++;
                 return PD_OK;
             }
 
@@ -208,6 +428,7 @@ public class WavePulseDecoder implements PulseDecoder {
         final int edgeAfter = rising ? 1 : 0;
 
         while (true) {
+            skipLevel(count);
             k = getNextSample();
 
             if (k == PD_EOF || k == PD_USER_BREAK || k == PD_ERROR) {
@@ -223,6 +444,7 @@ public class WavePulseDecoder implements PulseDecoder {
 
             if (lastValue == edgeBefore && k == edgeAfter) {
                 lastValue = k;
+                edgeCount++;
                 return PD_OK;
             }
 
@@ -238,22 +460,109 @@ public class WavePulseDecoder implements PulseDecoder {
             return r;
         }
 
-        while (true) {
-            int k = getNextSample();
-            if (k == PD_EOF || k == PD_USER_BREAK || k == PD_ERROR) {
-                return k;
+        /*The second half. After a time out, the first sample times out again*/
+        return countUntilAnyEdge();
+
+    }
+
+    @Override
+    public int measurePulses(int[] widths, int count, int minWidth, int maxWidth) {
+
+        for (int i = 0; i < count; i++) {
+            counter = 0;
+
+            /*Both halves of the pulse, as measurePulse() does*/
+            int r = countUntilNextEdge();
+            if (r == PD_EOF || r == PD_ERROR || r == PD_USER_BREAK) {
+                return r;
             }
-            counter++;
-            if (counter > maxSilence) {
-                return PD_TOO_LONG;
+            r = countUntilNextEdge();
+            if (r != PD_OK) {
+                return r;
             }
-            if (k != lastValue) {
-                lastValue = k;
+
+            widths[i] = counter;
+            if (counter < minWidth || counter > maxWidth) {
+                return i + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as countUntilAnyEdge(). An edge within the current block that comes
+     * before a time out is found directly in the packed levels
+     */
+    private int countUntilNextEdge() {
+
+        if (lastValue >= 0 && levelPos < levelCount) {
+            int e = findLevelChange(levelPos, levelCount, lastValue);
+            int n = e - levelPos + 1;
+            if (e < levelCount && n <= (long) maxSilence - counter) {
+                counter += n;
+                levelPos = e + 1;
+                sample += n;
+                lastValue ^= 1;
+                edgeCount++;
                 return PD_OK;
             }
+        }
+        return countUntilAnyEdge();
+    }
 
+    /**
+     * Skip samples of the current block that have the same level as the
+     * last sample. Such samples are not edges, only the counter is updated.
+     * The sample that ends the run is left to getNextSample()
+     *
+     * @param count Count the samples, stop before a time out
+     */
+    private void skipLevel(boolean count) {
+
+        if (lastValue < 0 || levelPos >= levelCount) {
+            return;
         }
 
+        int n = findLevelChange(levelPos, levelCount, lastValue) - levelPos;
+
+        if (count == true) {
+            long room = (long) maxSilence - counter;
+            if (n > room) {
+                n = room > 0L ? (int) room : 0;
+            }
+            counter += n;
+        }
+
+        levelPos += n;
+        sample += n;
+    }
+
+    /**
+     * Find the first sample of the current block whose level differs
+     *
+     * @param from First sample
+     * @param to Past-the-last sample
+     * @param level Level of the run
+     * @return Index of the sample or 'to' if there is no such sample
+     */
+    private int findLevelChange(int from, int to, int level) {
+
+        /*Samples of the other level become one bits*/
+        long flip = level == 1 ? -1L : 0L;
+        int w = from >>> 6;
+        long word = (levels[w] ^ flip) & (-1L << from);
+
+        while (true) {
+            if (word != 0L) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < to ? i : to;
+            }
+            w++;
+            if ((w << 6) >= to) {
+                return to;
+            }
+            word = levels[w] ^ flip;
+        }
     }
 
     @Override
@@ -271,11 +580,22 @@ public class WavePulseDecoder implements PulseDecoder {
         if (waveFile == null) {
             return;
         }
+
+        /*DSPs continue from the last sample taken, not from the end of the block*/
+        rewindDSPs(levelPos);
+        levelCount = 0;
+        levelPos = 0;
+        closeReadAhead();
+
+        if (mappedWindows != null) {
+            seekMapped(s);
+            sample = s;
+            pastEOF = false;
+            return;
+        }
         try {
-            waveFile.seek(offset + (s * frameSize));
+            waveFile.seek(offset + ((long) s * frameSize));
             sample = s;
-            bufAvail = 0;
-            bufPointer = 0;
             pastEOF = false;
         } catch (IOException e) {
             e.printStackTrace();
@@ -292,87 +612,580 @@ public class WavePulseDecoder implements PulseDecoder {
 
     private void rewind() throws Exception {
         sample = 0L;
-        waveFile.seek(offset);
+        if (mappedWindows != null) {
+            seekMapped(0L);
+        } else {
+            waveFile.seek(offset);
+        }
         pastEOF = false;
     }
 
     /**
-     * Get next sample (0 or 1)
+     * Get state that, together with the current sample, determines pulses
+     * decoded from the following samples
      *
-     * @return 0,1 - valid values or USER_BREAK,ERROR,EOF
+     * @return State values, comparable by Arrays.equals()
+     */
+    public int[] getSignalState() {
+
+        /*DSPs of the last sample taken, then back to the end of the block.
+         *Levels from the level map do not depend on the DSPs*/
+        rewindDSPs(levelPos);
+        boolean dc = useDCBlocker && blockFromMap == false;
+        boolean st = useSchmitt && blockFromMap == false;
+        int[] state = new int[]{
+            lastValue,
+            counter,
+            maxSilence,
+            pastEOF ? 1 : 0,
+            dc ? dcBlocker.getLastInput() : 0,
+            dc ? dcBlocker.getLastOutput() : 0,
+            st ? schmitt.getPreviousSample() : 0,
+            st && schmitt.getCurrentOutput() ? 1 : 0,
+            st ? schmitt.getNoiseLevel() : 0,
+            st ? schmitt.getEdgeLevel() : 0
+        };
+
+        /*Filter state values are split to two ints each*/
+        if (sampleFilters.length > 0 && blockFromMap == false) {
+            for (SampleFilter f : sampleFilters) {
+                long[] fs = f.getState();
+                int n = state.length;
+                state = Arrays.copyOf(state, n + 2 * fs.length);
+                for (int i = 0; i < fs.length; i++) {
+                    state[n + 2 * i] = (int) fs[i];
+                    state[n + 2 * i + 1] = (int) (fs[i] >>> 32);
+                }
+            }
+        }
+        replayDSPs(levelPos, levelCount);
+
+        return state;
+    }
+
+    /**
+     * Find regions where amplitude of the decoded channel stays low. Raw
+     * samples are examined, no DSPs are applied. Current sample is reset to 0
      *
+     * @param minLength Minimum length of a region in samples
+     * @param level Maximum amplitude in 16-bit units
+     * @return First and past-the-last sample of each region, in pairs
+     * @throws IOException
      */
-    private int getNextSample() {
+    public long[] findSilence(int minLength, int level) throws IOException {
+
+        long[] regions = new long[16];
+        int count = 0;
+
+        int limit = bytesPerSample == 1 ? level >> 8 : level;
+        byte[] buf = new byte[BUF_SIZE];
+        int have = 0;
+        long s = 0L;
+        long quietStart = 0L;
+
+        waveFile.seek(offset);
+
+        while (true) {
+            int n = waveFile.read(buf, have, buf.length - have);
+            if (n == -1) {
+                break;
+            }
+            have += n;
+
+            int end = have - (have % frameSize);
+            for (int f = 0; f < end; f += frameSize) {
+                int p = f + byteIndex;
+                int a;
+                if (bytesPerSample == 1) {
+                    a = (buf[p] & 0xFF) - 128;
+                } else {
+                    a = (buf[p] & 0xFF) | (buf[p + 1] << 8);
+                }
 
-        if (getStopRequest() == true) {
-            synchronized (this) {
-                stopRequest = false;
+                if (a > limit || a < -limit) {
+                    if (s - quietStart >= minLength) {
+                        if (count == regions.length) {
+                            regions = Arrays.copyOf(regions, count * 2);
+                        }
+                        regions[count++] = quietStart;
+                        regions[count++] = s;
+                    }
+                    quietStart = s + 1;
+                }
+                s++;
             }
-            return PD_USER_BREAK;
+
+            /*Keep incomplete frame for the next read*/
+            System.arraycopy(buf, end, buf, 0, have - end);
+            have -= end;
         }
 
-        if (pastEOF == true) {
-            return PD_EOF;
+        /*Silence up to the end of file*/
+        if (s - quietStart >= minLength) {
+            if (count == regions.length) {
+                regions = Arrays.copyOf(regions, count + 2);
+            }
+            regions[count++] = quietStart;
+            regions[count++] = s;
         }
 
-        int frame;
+        setCurrentSample(0);
+        return Arrays.copyOf(regions, count);
+    }
 
-        try {
+    /**
+     * Get logical level of the next sample. Unlike getNextSample(), the end
+     * of file is not reported as a logical value change
+     *
+     * @return 0,1 - valid values or USER_BREAK,ERROR,EOF
+     */
+    int nextLevel() {
+        int k = getNextSample();
+        return pastEOF == true ? PD_EOF : k;
+    }
 
-            /*If nothing in the buffer, read up to BUF_SIZE bytes*/
-            if (bufAvail == 0) {
-                bufAvail = waveFile.read(buffer, 0, BUF_SIZE);
-                bufPointer = 0;
+    /**
+     * Get next sample (0 or 1)
+     *
+     * @return 0,1 - valid values or USER_BREAK,ERROR,EOF
+     *
+     */
+    private int getNextSample() {
 
+        /*If the block is exhausted, check for stop and convert the next block.
+         *Stop is then honoured within one block*/
+        if (levelPos == levelCount) {
+            if (takeStopRequest() == true) {
+                return PD_USER_BREAK;
+            }
+
+            if (pastEOF == true) {
+                return PD_EOF;
+            }
+
+            try {
                 /*If just reached EOF, consider it logical value change*/
-                if (bufAvail == -1) {
+                if (readBlock() == false) {
                     pastEOF = true;
                     return lastValue == 1 ? 0 : 1;
                 }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return PD_ERROR;
             }
+        }
 
-            /*Get frame from the buffer*/
-            for (int i = 0; i < frameSize; i++) {
-                currentByte[i] = buffer[bufPointer];
-                bufPointer++;
-                bufAvail--;
+        sample++;
+        int i = levelPos++;
+        return (int) (levels[i >>> 6] >>> i) & 1;
+
+    }
+
+    /**
+     * Read next block of frames and convert them to logical levels
+     *
+     * @return false if there are no more frames
+     */
+    private boolean readBlock() throws IOException {
+
+        METRICS.addEdges(edgeCount);
+        edgeCount = 0L;
+        long readStart = System.nanoTime();
+
+        if (useLevelMap == true && levelMapScanner == null) {
+            startLevelMap();
+        }
+
+        /*Levels come from the map whenever there is one, so that they do not
+         *depend on how far the scan got. The map waits for the scan*/
+        LevelMap map = levelMap;
+        if (map != null) {
+            int frames = map.copy(sample, levels, blockFrames);
+            if (frames == 0) {
+                return false;
+            }
+            if (frames > 0) {
+                METRICS.addSamples(frames, System.nanoTime() - readStart, 0L);
+                blockFromMap = true;
+                levelCount = frames;
+                levelPos = 0;
+                return true;
             }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            return PD_ERROR;
+            /*Scan failed, samples are read from the file from now on*/
+            levelMap = null;
+            closeReadAhead();
+            if (mappedWindows != null) {
+                seekMapped(sample);
+            } else {
+                waveFile.seek(offset + sample * frameSize);
+            }
         }
 
-        sample++;
-        if (bytesPerSample == 1) {
-            frame = (currentByte[byteIndex] < 0 ? currentByte[byteIndex] + 256 : currentByte[byteIndex]);
+        int length;
+
+        /*Memory mapped input, frames are copied from the mapping*/
+        if (mappedWindows != null) {
+
+            /*Advance to the next window if the current one is exhausted*/
+            if (mappedWindow == null || mappedPointer + frameSize > mappedWindow.limit()) {
+                if (mappedWindowIndex + 1 >= mappedWindows.length) {
+                    return false;
+                }
+                mappedWindowIndex++;
+                mappedWindow = mappedWindows[mappedWindowIndex];
+                mappedPointer = 0;
+            }
+
+            /*Frames are not copied, they are converted straight from the window*/
+            length = Math.min(blockBytes.length, mappedWindow.limit() - mappedPointer);
+            blockWindow = mappedWindow;
+            blockBase = mappedPointer;
+            mappedPointer += length;
+        } /*Buffers are filled in background, starting at the file pointer*/ else if (readAheadDepth > 0) {
+            if (readAhead == null) {
+                readAhead = new ReadAhead(waveFile.getChannel(), waveFile.getFilePointer(), readAheadDepth, blockBytes.length);
+            }
+            ByteBuffer b = readAhead.next();
+            length = b.limit();
+            /*At the end of file the frames of the last block are kept for DSPs.
+             *Reading has ended, so its buffer is not overwritten*/
+            if (length >= frameSize) {
+                blockBytes = b.array();
+            }
         } else {
-            frame = (currentByte[byteIndex] & 0xFF) | ((currentByte[byteIndex + 1]) << 8);
+            length = 0;
+            while (length < blockBytes.length) {
+                int n = waveFile.read(blockBytes, length, blockBytes.length - length);
+                if (n == -1) {
+                    break;
+                }
+                length += n;
+            }
         }
 
-        if (useDCBlocker == true) {
-            frame = dcBlocker.getOutputValue(frame);
+        /*Incomplete frame at the end of file is ignored*/
+        int frames = length / frameSize;
+        if (frames == 0) {
+            return false;
         }
-        
-        if (schmittTolerance>0) {
-            boolean b = schmitt.getOutput(frame);
-            if (bytesPerSample==1) {
-                frame = b?255:0;
+
+        /*Keep state of DSPs, so that they can go back within the block*/
+        long convertStart = System.nanoTime();
+        blockDCInput = dcBlocker.getLastInput();
+        blockDCOutput = dcBlocker.getLastOutput();
+        blockSchmittSample = schmitt.getPreviousSample();
+        blockSchmittOutput = schmitt.getCurrentOutput();
+        blockSchmittNoise = schmitt.getNoiseLevel();
+        blockSchmittEdge = schmitt.getEdgeLevel();
+        for (int i = 0; i < sampleFilters.length; i++) {
+            blockFilters[i] = sampleFilters[i].copy();
+        }
+
+        convertBlock(frames);
+        METRICS.addSamples(frames, convertStart - readStart, System.nanoTime() - convertStart);
+        blockFromMap = false;
+        levelCount = frames;
+        levelPos = 0;
+        return true;
+    }
+
+    /**
+     * Convert the next block of samples to logical levels. Samples are
+     * not taken one by one, the levels are available from getLevelBlock()
+     *
+     * @return Number of samples of the block, 0 at the end of file, -1 if
+     * stop was requested
+     */
+    int readLevelBlock() throws IOException {
+
+        if (takeStopRequest() == true) {
+            return -1;
+        }
+
+        if (readBlock() == false) {
+            return 0;
+        }
+        sample += levelCount;
+        levelPos = levelCount;
+        return levelCount;
+    }
+
+    /**
+     * Get logical levels of the block read by readLevelBlock()
+     *
+     * @return Levels, one bit per sample
+     */
+    long[] getLevelBlock() {
+        return levels;
+    }
+
+    /**
+     * Get number of samples that can be read, which can differ from the
+     * length of the data chunk
+     *
+     * @return Number of samples
+     */
+    long getReadableSamples() throws IOException {
+        if (mappedWindows != null) {
+            long length = 0L;
+            for (MappedByteBuffer w : mappedWindows) {
+                length += w.limit();
             }
-            else {
-                frame = b?32767:-32768;
+            return length / frameSize;
+        }
+        return (waveFile.length() - offset) / frameSize;
+    }
+
+    /**
+     * Stop reading in background. Reading continues at the file pointer
+     */
+    private void closeReadAhead() {
+        if (readAhead != null) {
+            readAhead.close();
+            readAhead = null;
+        }
+    }
+
+    /**
+     * Scan the whole file in background with the same settings. The map is
+     * used from the current block on
+     */
+    private synchronized void startLevelMap() throws IOException {
+
+        final WavePulseDecoder scanner = new WavePulseDecoder();
+        levelMapScanner = scanner;
+
+        final LevelMap map = LevelMap.create(getReadableSamples(), Runtime.getRuntime().maxMemory() / LEVEL_MAP_MEMORY_SHARE);
+        if (map == null) {
+            log.addMessage(new DecoderMessage("WavePulseDecoder",
+                    "Level map not built, samples are read from the file",
+                    DecoderMessage.SEV_DETAIL), true);
+            return;
+        }
+
+        scanner.setMemoryMapped(memoryMapped);
+        scanner.setReadAhead(readAheadDepth, blockSize);
+        SampleFilter[] filters = new SampleFilter[sampleFilters.length];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = sampleFilters[i].copy();
+        }
+        scanner.setSampleFilters(filters);
+        scanner.setAdaptiveHysteresis(adaptiveHysteresis);
+        levelMap = map;
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                boolean complete = false;
+                try {
+                    scanner.init(fspec, 0, channel, 0, useDCBlocker, schmittTolerance, new DecoderLog() {
+                        @Override
+                        public void addMessage(DecoderMessage msg, boolean fromExternalThread) {
+                        }
+
+                        @Override
+                        public void addRecord(DecodeRecord record, boolean fromExternalThread) {
+                        }
+
+                        @Override
+                        public void clearAllMessages(boolean fromExternalThread) {
+                        }
+
+                        @Override
+                        public void impulse(boolean fromExternalThread) {
+                        }
+                    });
+                    complete = map.scan(scanner);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    scanner.close(null);
+                }
+                reportLevelMap(scanner, map, complete);
             }
+        }, "LevelMap");
+        /*Decoding waits for the scan, so it runs at normal priority*/
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Report end of the scan, unless the scan was abandoned meanwhile
+     */
+    private synchronized void reportLevelMap(WavePulseDecoder scanner, LevelMap map, boolean complete) {
+        if (scanner != levelMapScanner) {
+            return;
+        }
+        if (complete == false) {
+            log.addMessage(new DecoderMessage("WavePulseDecoder",
+                    "Level map not built, samples are read from the file",
+                    DecoderMessage.SEV_DETAIL), true);
+            return;
         }
+        log.addMessage(new DecoderMessage("WavePulseDecoder",
+                String.format("Level map: %d samples, %d KB", map.getTotalSamples(), map.getSize() / 1_024),
+                DecoderMessage.SEV_DETAIL), true);
+    }
 
-        if (bytesPerSample == 1) {
-            if (frame >= 128) {
-                return 1;
+    /**
+     * Stop scan in progress and discard the level map
+     */
+    private synchronized void stopLevelMap() {
+        if (levelMapScanner != null) {
+            levelMapScanner.requestStop(true);
+            levelMapScanner = null;
+        }
+        levelMap = null;
+    }
+
+    /**
+     * Convert frames of the block to packed logical levels
+     *
+     * @param frames Number of frames
+     */
+    private void convertBlock(int frames) {
+
+        int words = (frames + 63) >>> 6;
+        int p = byteIndex;
+
+        /*Without DSPs, the level is given by the sign bit of the high byte.
+         *Unsigned 8-bit samples are high when the bit is set, signed 16-bit
+         *samples when it is clear*/
+        if (useDSPs == false) {
+            int invert = 0;
+            if (bytesPerSample == 2) {
+                p++;
+                invert = -1;
+            }
+            if (blockWindow != null) {
+                ByteBuffer window = blockWindow;
+                p += blockBase;
+                for (int w = 0; w < words; w++) {
+                    int n = Math.min(64, frames - (w << 6));
+                    long word = 0L;
+                    for (int b = 0; b < n; b++) {
+                        word |= (long) ((window.get(p) ^ invert) >>> 31) << b;
+                        p += frameSize;
+                    }
+                    levels[w] = word;
+                }
+                return;
+            }
+            for (int w = 0; w < words; w++) {
+                int n = Math.min(64, frames - (w << 6));
+                long word = 0L;
+                for (int b = 0; b < n; b++) {
+                    word |= (long) ((blockBytes[p] ^ invert) >>> 31) << b;
+                    p += frameSize;
+                }
+                levels[w] = word;
+            }
+            return;
+        }
+
+        /*Filters process the whole block at once*/
+        int[] x = blockSamples;
+        filterSamples(0, frames);
+
+        int i = 0;
+        for (int w = 0; w < words; w++) {
+            int n = Math.min(64, frames - (w << 6));
+            long word = 0L;
+            for (int b = 0; b < n; b++) {
+                word |= (long) filteredToLevel(x[i++]) << b;
+            }
+            levels[w] = word;
+        }
+    }
+
+    /**
+     * Take samples of the current block and pass them through DC blocker and
+     * filters
+     *
+     * @param from First sample
+     * @param to Past-the-last sample
+     */
+    private void filterSamples(int from, int to) {
+
+        int[] x = blockSamples;
+        int p = from * frameSize + byteIndex;
+        for (int i = from; i < to; i++) {
+            x[i] = getBlockFrame(p) - centerOffset;
+            p += frameSize;
+        }
+        if (useDCBlocker == true) {
+            dcBlocker.process(x, from, to);
+        }
+        for (SampleFilter f : sampleFilters) {
+            f.process(x, from, to);
+        }
+    }
+
+    /**
+     * Get raw sample value of the decoded channel
+     *
+     * @param p Position of the sample in the block
+     */
+    private int getBlockFrame(int p) {
+        if (blockWindow != null) {
+            int q = blockBase + p;
+            if (bytesPerSample == 1) {
+                return blockWindow.get(q) & 0xFF;
             } else {
-                return 0;
+                return (blockWindow.get(q) & 0xFF) | (blockWindow.get(q + 1) << 8);
             }
+        }
+        if (bytesPerSample == 1) {
+            return blockBytes[p] & 0xFF;
         } else {
-            return (frame < 0) ? 0 : 1;
+            return (blockBytes[p] & 0xFF) | (blockBytes[p + 1] << 8);
+        }
+    }
+
+    /**
+     * Put DSPs to the state after given sample of the current block
+     *
+     * @param position Number of samples of the block that were taken
+     */
+    private void rewindDSPs(int position) {
+        if (levelCount == 0 || blockFromMap == true || useDSPs == false) {
+            return;
+        }
+        dcBlocker.setState(blockDCInput, blockDCOutput);
+        schmitt.setState(blockSchmittSample, blockSchmittOutput, blockSchmittNoise, blockSchmittEdge);
+        for (int i = 0; i < sampleFilters.length; i++) {
+            sampleFilters[i] = blockFilters[i].copy();
+        }
+        replayDSPs(0, position);
+    }
+
+    /**
+     * Pass samples of the current block through DSPs again
+     */
+    private void replayDSPs(int from, int to) {
+        if (levelCount == 0 || blockFromMap == true || useDSPs == false) {
+            return;
+        }
+        filterSamples(from, to);
+        for (int i = from; i < to; i++) {
+            filteredToLevel(blockSamples[i]);
         }
+    }
+
+    /**
+     * Pass sample filtered by DC blocker and filters through Schmitt trigger
+     * and convert it to logical level
+     *
+     * @param frame Sample value
+     * @return 0 or 1
+     */
+    private int filteredToLevel(int frame) {
+        
+        if (useSchmitt) {
+            return schmitt.getOutput(frame) ? 1 : 0;
+        }
+        return (frame >= signalZero) ? 1 : 0;
 
     }
 
@@ -471,6 +1284,15 @@ public class WavePulseDecoder implements PulseDecoder {
             throw new FileFormatException("No 'data' chunk was found in the WAVE file");
         }
         offset = (int) waveFile.getFilePointer();
+
+        /*Data chunk length is often wrong in captures that were not closed
+         *properly. The 0xFFFFFFFF placeholder or a length past the end of file
+         *means data up to the end of file*/
+        long available = waveFile.length() - offset;
+        if (ckLen == 0xFFFFFFFFL || ckLen > available) {
+            ckLen = available;
+        }
+        dataLength = ckLen;
         totalSamples = ckLen / (bytesPerSample * numChannels);
     }
 
@@ -529,7 +1351,7 @@ public class WavePulseDecoder implements PulseDecoder {
         if (fWord == null) {
             return Long.MAX_VALUE;
         }
-        long l = (fWord[0]) + (fWord[1] << 8) + (fWord[2] << 16) + (fWord[3] << 24);
+        long l = (fWord[0]) + (fWord[1] << 8) + (fWord[2] << 16) + ((long) fWord[3] << 24);
         return l;
     }
 
@@ -567,7 +1389,7 @@ public class WavePulseDecoder implements PulseDecoder {
             }
 
             if (match == false) {
-                wFile.skipBytes((int) ckLen);
+                wFile.seek(wFile.getFilePointer() + ckLen);
             } else {
                 break;
             }
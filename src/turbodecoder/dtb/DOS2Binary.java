@@ -1,6 +1,7 @@
 package turbodecoder.dtb;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 import turbodecoder.Utils;
 
@@ -81,11 +82,7 @@ public class DOS2Binary {
         raf.readFully(filebData);
         raf.close();
 
-        /*Konverze z pole bajtu na pole intu. Skoda ze Java nema neznamenkove
-         *typy,ale neda se nic delat*/
-        int[] fileData = Utils.getAsIntArray(filebData);
-
-        analyze(fileData, true);
+        analyze(ByteBuffer.wrap(filebData), true);
 
     }
 
@@ -95,7 +92,7 @@ public class DOS2Binary {
      * @throws IOException
      * @throws DOS2BinaryException
      */
-    public void analyzeFromData(int[] fileData) throws IOException, DOS2BinaryException {
+    public void analyzeFromData(byte[] fileData) throws IOException, DOS2BinaryException {
         analyzeFromData(fileData, true);
     }
 
@@ -106,8 +103,8 @@ public class DOS2Binary {
      * @throws IOException
      * @throws DOS2BinaryException
      */
-    public void analyzeFromData(int[] fileData, boolean headerRequired) throws IOException, DOS2BinaryException {
-        analyze(fileData, headerRequired);
+    public void analyzeFromData(byte[] fileData, boolean headerRequired) throws IOException, DOS2BinaryException {
+        analyze(ByteBuffer.wrap(fileData), headerRequired);
     }
 
     /**
@@ -115,21 +112,21 @@ public class DOS2Binary {
      *
      * @throws IOException,DOS2BinaryException
      */
-    private void analyze(int[] fileData, boolean headerRequired) throws IOException, DOS2BinaryException {
+    private void analyze(ByteBuffer fileData, boolean headerRequired) throws IOException, DOS2BinaryException {
 
         int pos = 0;
-        fileLength = fileData.length;
+        fileLength = fileData.limit();
         int b1, b2;
         int w1, w2;
 
         /*Begin analysis*/
  /*If a header is required to be present, check for header (255 255)*/
         if (headerRequired == true) {
-            if (fileData[0] != 255 || fileData[1] != 255) {
+            if (fileData.get(0) != (byte) 255 || fileData.get(1) != (byte) 255) {
                 throw new DOS2BinaryException(filename, "Binary file header not found. First two bytes do not have values of 255 [0xFF]", 0);
             }
             pos = 2;
-        } else if (fileData[0] == 255 && fileData[1] == 255) {
+        } else if (fileData.get(0) == (byte) 255 && fileData.get(1) == (byte) 255) {
             pos = 2;
         } else {
             pos = 0;
@@ -143,8 +140,8 @@ public class DOS2Binary {
             try {
 
                 /*Is there another 255 255*/
-                b1 = fileData[pos];
-                b2 = fileData[pos + 1];
+                b1 = fileData.get(pos) & 0xFF;
+                b2 = fileData.get(pos + 1) & 0xFF;
 
                 /*If so, update position*/
                 if (b1 == 255 && b2 == 255) {
@@ -152,10 +149,10 @@ public class DOS2Binary {
                 }
 
                 /*Get first address and last address*/
-                w1 = fileData[pos] + 256 * fileData[pos + 1];
+                w1 = (fileData.get(pos) & 0xFF) + 256 * (fileData.get(pos + 1) & 0xFF);
                 pos += 2;
 
-                w2 = fileData[pos] + 256 * fileData[pos + 1];
+                w2 = (fileData.get(pos) & 0xFF) + 256 * (fileData.get(pos + 1) & 0xFF);
                 pos += 2;
 
                 /*Check for negative segment size*/
@@ -164,17 +161,22 @@ public class DOS2Binary {
                 }
 
                 /*Create new segment*/
-                int[] newSegmentData = new int[w2 - w1 + 1];
-                System.arraycopy(fileData, pos, newSegmentData, 0, newSegmentData.length);
-                Segment s = new Segment(w1, newSegmentData, lastSegPos);
+                int segmentLength = w2 - w1 + 1;
+                if (pos + segmentLength > fileLength) {
+                    throw new DOS2BinaryException(filename, "Segment or segment header continues beyond end of binary file", pos);
+                }
+                ByteBuffer segmentData = fileData.duplicate();
+                segmentData.position(pos);
+                segmentData.limit(pos + segmentLength);
+                Segment s = new Segment(w1, segmentData, lastSegPos);
 
                 /*Add segment to the list*/
                 this.segmentList.add(s);
 
                 /*Advance*/
-                pos += newSegmentData.length;
+                pos += segmentLength;
 
-            } catch (ArrayIndexOutOfBoundsException ae) {
+            } catch (IndexOutOfBoundsException ae) {
                 throw new DOS2BinaryException(filename, "Segment or segment header continues beyond end of binary file", pos);
             }
 
@@ -249,7 +251,7 @@ public class DOS2Binary {
         /*Copy segments to the main storage array*/
         for (Segment seg : segments) {
             int firstAddress = seg.getFirstAddress();
-            int[] segData = seg.getData();
+            byte[] segData = seg.getData();
             int length = segData.length;
 
             /*For pure data segments, it is simple, we copy the data and
@@ -261,7 +263,7 @@ public class DOS2Binary {
                         throw new DOS2BinaryProcessingException("Unable to create monolithic binary file. Segments of the binary file overlap. Segment: " + seg.toString());
                     }
                     /*Copy data*/
-                    fileData[firstAddress + k] = segData[k];
+                    fileData[firstAddress + k] = segData[k] & 0xFF;
                 }
                 continue;
             }
@@ -276,7 +278,7 @@ public class DOS2Binary {
                         if (fileData[portion.address + j] != -1) {
                             throw new DOS2BinaryProcessingException("Unable to create monolithic binary file. Segments of the binary file overlap. Segment: " + seg.toString());
                         }
-                        fileData[portion.address + j] = portion.portionData[j];
+                        fileData[portion.address + j] = portion.portionData[j] & 0xFF;
                     }
                 }
             }
@@ -362,30 +364,28 @@ public class DOS2Binary {
             }
         }
 
-        /*Writing monolithic binary file*/
-        RandomAccessFile raf;
-
-        raf = new RandomAccessFile(outname, "rw");
-        raf.setLength(0);
+        /*Monolithic binary file is assembled in memory and written at once*/
+        byte[] outData = new byte[6 + (la - fa + 1) + 6];
+        int outPos = 0;
 
         /*Header*/
-        raf.writeByte(255);
-        raf.writeByte(255);
-        raf.writeByte(fa % 256);
-        raf.writeByte(fa / 256);
-        raf.writeByte(la % 256);
-        raf.writeByte(la / 256);
+        outData[outPos++] = (byte) 255;
+        outData[outPos++] = (byte) 255;
+        outData[outPos++] = (byte) (fa % 256);
+        outData[outPos++] = (byte) (fa / 256);
+        outData[outPos++] = (byte) (la % 256);
+        outData[outPos++] = (byte) (la / 256);
 
         /*Merged data*/
         for (int i = fa; i <= la; i++) {
-            raf.writeByte(fileData[i]);
+            outData[outPos++] = (byte) fileData[i];
         }
 
         /*RUN segment*/
-        raf.writeByte(736 % 256);
-        raf.writeByte(736 / 256);
-        raf.writeByte(737 % 256);
-        raf.writeByte(737 / 256);
+        outData[outPos++] = (byte) (736 % 256);
+        outData[outPos++] = (byte) (736 / 256);
+        outData[outPos++] = (byte) (737 % 256);
+        outData[outPos++] = (byte) (737 / 256);
 
         int finalRunVector = 0;
         if (extra == true) {
@@ -398,9 +398,15 @@ public class DOS2Binary {
             finalRunVector = fa;
         }
 
-        raf.writeByte(finalRunVector % 256);
-        raf.writeByte(finalRunVector / 256);
+        outData[outPos++] = (byte) (finalRunVector % 256);
+        outData[outPos] = (byte) (finalRunVector / 256);
+
+        /*Writing monolithic binary file*/
+        RandomAccessFile raf;
 
+        raf = new RandomAccessFile(outname, "rw");
+        raf.setLength(0);
+        raf.write(outData);
         raf.close();
 
     }
@@ -739,9 +745,9 @@ public class DOS2Binary {
         
         if (seg==null) return;
 
-        int[] segData = new int[2];
-        segData[0] = seg.getFirstAddress() % 256;
-        segData[1] = seg.getFirstAddress() / 256;
+        byte[] segData = new byte[2];
+        segData[0] = (byte) (seg.getFirstAddress() % 256);
+        segData[1] = (byte) (seg.getFirstAddress() / 256);
 
         Segment runVectorSegment = new Segment(736, segData, 0);
         this.segmentList.add(runVectorSegment);
@@ -807,7 +813,7 @@ public class DOS2Binary {
         /**
          * Data
          */
-        public int[] data;
+        public byte[] data;
         /**
          * Run address
          */
@@ -1,5 +1,7 @@
 package turbodecoder.dtb;
 
+import java.nio.ByteBuffer;
+
 /**
  * Segment of a DOS 2 Binary File
  */
@@ -21,7 +23,7 @@ public class Segment {
     /**
      * Data
      */
-    private final int[] data;
+    private final byte[] data;
 
     /**
      * Relative byte address of the segment (location in the file)
@@ -61,25 +63,37 @@ public class Segment {
      * @param data
      * @param rba
      */
-    public Segment(int start, int[] data, int rba) {
+    public Segment(int start, byte[] data, int rba) {
+        this(start, ByteBuffer.wrap(data), rba);
+    }
+
+    /**
+     * Create segment from remaining bytes of a buffer
+     *
+     * @param start
+     * @param data
+     * @param rba
+     */
+    Segment(int start, ByteBuffer data, int rba) {
 
-        this.data = new int[data.length];
-        System.arraycopy(data, 0, this.data, 0, data.length);
+        int length = data.remaining();
+        this.data = new byte[length];
+        data.get(this.data);
         this.firstAddress = start;
-        this.lastAddress = start + data.length - 1;
+        this.lastAddress = start + length - 1;
         this.startRBA = rba;
-        this.endRBA = rba + 4 + data.length - 1;  //rba+header+data
+        this.endRBA = rba + 4 + length - 1;  //rba+header+data
 
         int addrLo = UNKNOWN_ADDRESS;
         int addrHi = UNKNOWN_ADDRESS;
 
         /*Run address Low byte*/
         if (firstAddress <= 736 && lastAddress >= 736) {
-            addrLo = data[736 - firstAddress];
+            addrLo = this.data[736 - firstAddress] & 0xFF;
         }
         /*Run address High byte*/
         if (firstAddress <= 737 && lastAddress >= 737) {
-            addrHi = data[737 - firstAddress];
+            addrHi = this.data[737 - firstAddress] & 0xFF;
         }
 
         /*Check for FULL address*/
@@ -112,11 +126,11 @@ public class Segment {
 
         /*Init address Low byte*/
         if (firstAddress <= 738 && lastAddress >= 738) {
-            addrLo = data[738 - firstAddress];
+            addrLo = this.data[738 - firstAddress] & 0xFF;
         }
         /*Init address High byte*/
         if (firstAddress <= 739 && lastAddress >= 739) {
-            addrHi = data[739 - firstAddress];
+            addrHi = this.data[739 - firstAddress] & 0xFF;
         }
 
         /*Check for FULL address*/
@@ -215,13 +229,13 @@ public class Segment {
      *
      * @return
      */
-    public int[] getFullData() {
+    public byte[] getFullData() {
 
-        int[] retArray = new int[data.length + 4];
-        retArray[0] = firstAddress % 256;
-        retArray[1] = firstAddress / 256;
-        retArray[2] = lastAddress % 256;
-        retArray[3] = lastAddress / 256;
+        byte[] retArray = new byte[data.length + 4];
+        retArray[0] = (byte) (firstAddress % 256);
+        retArray[1] = (byte) (firstAddress / 256);
+        retArray[2] = (byte) (lastAddress % 256);
+        retArray[3] = (byte) (lastAddress / 256);
         System.arraycopy(data, 0, retArray, 4, data.length);
 
         return retArray;
@@ -231,7 +245,7 @@ public class Segment {
      *
      * @return
      */
-    public int[] getData() {
+    public byte[] getData() {
         return data;
     }
 
@@ -447,11 +461,11 @@ public class Segment {
     static class SegmentPortionCrate {
 
         int address;
-        int[] portionData;
+        byte[] portionData;
 
         SegmentPortionCrate(int address, int length) {
             this.address = address;
-            this.portionData = new int[length];
+            this.portionData = new byte[length];
         }
     }
 